@@ -4,7 +4,21 @@ import com.infomaximum.cluster.core.remote.Remotes;
 import com.infomaximum.cluster.graphql.exception.GraphQLExecutorException;
 import com.infomaximum.cluster.graphql.executor.GraphQLExecutor;
 import com.infomaximum.cluster.graphql.executor.builder.GraphQLExecutorBuilder;
+import com.infomaximum.cluster.graphql.executor.admission.GraphQLAdmission;
+import com.infomaximum.cluster.graphql.executor.admission.GraphQLAdmissionPolicy;
+import com.infomaximum.cluster.graphql.executor.admission.GraphQLExecutorAdmission;
+import com.infomaximum.cluster.graphql.executor.bulkhead.GraphQLBulkheadPolicy;
+import com.infomaximum.cluster.graphql.executor.bulkhead.GraphQLBulkheads;
+import com.infomaximum.cluster.graphql.executor.circuitbreaker.GraphQLCircuitBreakerPolicy;
+import com.infomaximum.cluster.graphql.executor.circuitbreaker.GraphQLCircuitBreakers;
 import com.infomaximum.cluster.graphql.executor.component.GraphQLComponentExecutor;
+import com.infomaximum.cluster.graphql.executor.component.GraphQLComponentExecutors;
+import com.infomaximum.cluster.graphql.executor.hedging.GraphQLHedging;
+import com.infomaximum.cluster.graphql.executor.hedging.GraphQLHedgingPolicy;
+import com.infomaximum.cluster.graphql.executor.hedging.GraphQLHedgingStatistics;
+import com.infomaximum.cluster.graphql.executor.limiter.GraphQLConcurrencyLimitPolicy;
+import com.infomaximum.cluster.graphql.executor.limiter.GraphQLConcurrencyLimiters;
+import com.infomaximum.cluster.graphql.executor.persisted.GraphQLPersistedQueries;
 import com.infomaximum.cluster.graphql.executor.subscription.GraphQLSubscribeEngine;
 import com.infomaximum.cluster.graphql.executor.subscription.GraphQLSubscribeEngineImpl;
 import com.infomaximum.cluster.graphql.fieldargument.custom.CustomFieldArgument;
@@ -23,9 +37,10 @@ import graphql.execution.SimpleDataFetcherExceptionHandler;
 import graphql.parser.ParserOptions;
 
 import java.lang.reflect.Constructor;
+import java.time.Duration;
 import java.util.*;
 
-public class GraphQLEngine {
+public class GraphQLEngine implements AutoCloseable {
 
     private final ArrayList<String> sdkPackagePaths;
 
@@ -36,6 +51,26 @@ public class GraphQLEngine {
     private final Constructor customRemoteDataFetcher;
     private final DataFetcherExceptionHandler dataFetcherExceptionHandler;
 
+    private final boolean subscribeShareExecution;
+    private final Duration subscribeSweepInterval;
+    private final int subscribeReplayCapacity;
+    private final Duration subscribeReplayRetention;
+
+    private final boolean forceRemoteExecution;
+    private final GraphQLComponentExecutors localComponentExecutors;
+
+    private final boolean requestMemoization;
+    private final boolean siblingFieldFusion;
+    private final boolean subtreePushdown;
+
+    private final boolean clusterSchema;
+    private final GraphQLHedging hedging;
+    private final GraphQLCircuitBreakers circuitBreakers;
+    private final GraphQLConcurrencyLimiters concurrencyLimiters;
+    private final GraphQLBulkheads bulkheads;
+    private final GraphQLAdmission admission;
+    private final GraphQLPersistedQueries persistedQueries;
+
     private boolean introspectionDisabled = true;
 
     private GraphQLEngine(
@@ -46,7 +81,26 @@ public class GraphQLEngine {
             GraphQLSchemaType graphQLSchemaType,
 
             Constructor customRemoteDataFetcher,
-            DataFetcherExceptionHandler dataFetcherExceptionHandler
+            DataFetcherExceptionHandler dataFetcherExceptionHandler,
+
+            boolean subscribeShareExecution,
+            Duration subscribeSweepInterval,
+            int subscribeReplayCapacity,
+            Duration subscribeReplayRetention,
+
+            boolean forceRemoteExecution,
+
+            boolean requestMemoization,
+            boolean siblingFieldFusion,
+            boolean subtreePushdown,
+
+            boolean clusterSchema,
+            GraphQLHedgingPolicy hedgingPolicy,
+            GraphQLCircuitBreakerPolicy circuitBreakerPolicy,
+            GraphQLConcurrencyLimitPolicy concurrencyLimitPolicy,
+            GraphQLBulkheads bulkheads,
+            GraphQLAdmissionPolicy admissionPolicy,
+            int persistedQueriesMaxSize
     ) {
 
         this.sdkPackagePaths = sdkPackagePaths;
@@ -57,6 +111,26 @@ public class GraphQLEngine {
 
         this.customRemoteDataFetcher = customRemoteDataFetcher;
         this.dataFetcherExceptionHandler = dataFetcherExceptionHandler;
+
+        this.subscribeShareExecution = subscribeShareExecution;
+        this.subscribeSweepInterval = subscribeSweepInterval;
+        this.subscribeReplayCapacity = subscribeReplayCapacity;
+        this.subscribeReplayRetention = subscribeReplayRetention;
+
+        this.forceRemoteExecution = forceRemoteExecution;
+        this.localComponentExecutors = new GraphQLComponentExecutors();
+
+        this.requestMemoization = requestMemoization;
+        this.siblingFieldFusion = siblingFieldFusion;
+        this.subtreePushdown = subtreePushdown;
+
+        this.clusterSchema = clusterSchema;
+        this.hedging = (hedgingPolicy == null) ? null : new GraphQLHedging(hedgingPolicy);
+        this.circuitBreakers = (circuitBreakerPolicy == null) ? null : new GraphQLCircuitBreakers(circuitBreakerPolicy);
+        this.concurrencyLimiters = (concurrencyLimitPolicy == null) ? null : new GraphQLConcurrencyLimiters(concurrencyLimitPolicy);
+        this.bulkheads = bulkheads;
+        this.admission = (admissionPolicy == null) ? null : new GraphQLAdmission(admissionPolicy);
+        this.persistedQueries = (persistedQueriesMaxSize > 0) ? new GraphQLPersistedQueries(persistedQueriesMaxSize) : null;
     }
 
     public GraphQLSchemaType getGraphQLSchemaType() {
@@ -64,7 +138,50 @@ public class GraphQLEngine {
     }
 
     public GraphQLSubscribeEngine buildSubscribeEngine() {
-        return new GraphQLSubscribeEngineImpl();
+        return new GraphQLSubscribeEngineImpl(subscribeShareExecution, subscribeSweepInterval, subscribeReplayCapacity, subscribeReplayRetention);
+    }
+
+    /**
+     * null - дублирование вызовов не включено
+     */
+    public GraphQLHedgingStatistics getHedgingStatistics() {
+        return (hedging == null) ? null : hedging.getStatistics();
+    }
+
+    /**
+     * null - размыкание цепей компонентов не включено
+     */
+    public GraphQLCircuitBreakers getCircuitBreakers() {
+        return circuitBreakers;
+    }
+
+    /**
+     * null - пределы одновременных вызовов компонентов не включены
+     */
+    public GraphQLConcurrencyLimiters getConcurrencyLimiters() {
+        return concurrencyLimiters;
+    }
+
+    /**
+     * null - изоляция компонентов не включена
+     */
+    public GraphQLBulkheads getBulkheads() {
+        return bulkheads;
+    }
+
+    /**
+     * Допуск запросов к выполнению, null - не включен. Для выполнения через GraphQLExecutor.execute исполнитель
+     * оборачивается в {@link GraphQLExecutorAdmission}, при выполнении в два этапа (prepare/execute) допуск запрашивается явно
+     */
+    public GraphQLAdmission getAdmission() {
+        return admission;
+    }
+
+    /**
+     * Хранилище текстов сохраняемых запросов, null - не включено
+     */
+    public GraphQLPersistedQueries getPersistedQueries() {
+        return persistedQueries;
     }
 
     public void setIntrospectionDisabled(boolean introspectionDisabled) {
@@ -83,7 +200,18 @@ public class GraphQLEngine {
                 fieldConfigurationBuilder,
                 graphQLSchemaType,
                 (GraphQLSubscribeEngineImpl) graphQLSubscribeEngine,
-                dataFetcherExceptionHandler
+                dataFetcherExceptionHandler,
+                new GraphQLExecutorBuilder.Options()
+                        .withLocalComponentExecutors(forceRemoteExecution ? null : localComponentExecutors)
+                        .withRequestMemoization(requestMemoization)
+                        .withSiblingFieldFusion(siblingFieldFusion)
+                        .withSubtreePushdown(subtreePushdown)
+                        .withClusterSchema(clusterSchema)
+                        .withHedging(hedging)
+                        .withCircuitBreakers(circuitBreakers)
+                        .withConcurrencyLimiters(concurrencyLimiters)
+                        .withBulkheads(bulkheads)
+                        .withPersistedQueries(persistedQueries)
         ).build();
     }
 
@@ -92,7 +220,17 @@ public class GraphQLEngine {
     }
 
     public RControllerGraphQLExecutorImpl buildRemoteControllerGraphQLExecutor(Component component) throws GraphQLExecutorException {
-        return new RControllerGraphQLExecutorImpl(component, fieldConfigurationBuilder, graphQLSchemaType);
+        return new RControllerGraphQLExecutorImpl(component, fieldConfigurationBuilder, graphQLSchemaType, localComponentExecutors);
+    }
+
+    /**
+     * Останавливает потоки движка (дублирование вызовов). Вызывается после остановки кластера
+     */
+    @Override
+    public void close() {
+        if (hedging != null) {
+            hedging.close();
+        }
     }
 
     public static class Builder {
@@ -109,6 +247,27 @@ public class GraphQLEngine {
 
         private Set<GraphQLTypeScalar> typeScalars;
 
+        private boolean subscribeShareExecution;
+        private Duration subscribeSweepInterval;
+        private int subscribeReplayCapacity;
+        private Duration subscribeReplayRetention;
+
+        private boolean forceRemoteExecution;
+
+        private boolean requestMemoization;
+        private boolean siblingFieldFusion;
+        private boolean subtreePushdown;
+
+        private boolean clusterSchema;
+        private GraphQLHedgingPolicy hedgingPolicy;
+        private GraphQLCircuitBreakerPolicy circuitBreakerPolicy;
+        private GraphQLConcurrencyLimitPolicy concurrencyLimitPolicy;
+        private GraphQLBulkheadPolicy bulkheadPolicy;
+        private Map<String, GraphQLBulkheadPolicy> bulkheadGroupPolicies;
+        private Map<String, String> bulkheadGroupsByTypeName;
+        private GraphQLAdmissionPolicy admissionPolicy;
+        private int persistedQueriesMaxSize;
+
         public Builder() {
 
             //TODO DELETE
@@ -194,6 +353,152 @@ public class GraphQLEngine {
             return this;
         }
 
+        /**
+         * Одинаковые подписки (документ, переменные и ключ подписки) при получении события вычисляются один раз,
+         * результат раздается всем подписчикам. Включать только если результат полей подписок не зависит от контекста запроса
+         */
+        public Builder withSubscribeShareExecution(boolean subscribeShareExecution) {
+            this.subscribeShareExecution = subscribeShareExecution;
+            return this;
+        }
+
+        /**
+         * Периодически удаляем отключенных, но не отписавшихся подписчиков и пустые ключи подписок
+         */
+        public Builder withSubscribeSweepInterval(Duration subscribeSweepInterval) {
+            this.subscribeSweepInterval = subscribeSweepInterval;
+            return this;
+        }
+
+        /**
+         * Храним последние события каждого ключа подписки, чтобы переподключившийся клиент мог продолжить
+         * подписку по курсору ({@link com.infomaximum.cluster.graphql.struct.ContextRequest#getSubscribeCursor()}).
+         * Буферы ключей без подписчиков удаляются очисткой по истечении retention; без withSubscribeSweepInterval
+         * очистка выполняется с периодом retention
+         */
+        public Builder withSubscribeReplayBuffer(int capacity, Duration retention) {
+            this.subscribeReplayCapacity = capacity;
+            this.subscribeReplayRetention = retention;
+            return this;
+        }
+
+        /**
+         * Поля компонентов текущей ноды всегда вызываем удаленно, как и поля компонентов других нод (для тестов)
+         */
+        public Builder withForceRemoteExecution(boolean forceRemoteExecution) {
+            this.forceRemoteExecution = forceRemoteExecution;
+            return this;
+        }
+
+        /**
+         * Одинаковые вызовы полей компонентов (тот же источник и аргументы) в рамках запроса выполняются один раз.
+         * Методы с побочными эффектами помечаются {@link com.infomaximum.cluster.graphql.anotation.GraphQLNonIdempotent}
+         */
+        public Builder withRequestMemoization(boolean requestMemoization) {
+            this.requestMemoization = requestMemoization;
+            return this;
+        }
+
+        /**
+         * Соседние поля объекта, принадлежащие одному удаленному компоненту, вычисляются одним вызовом.
+         * При ошибке группового вызова поля вычисляются по отдельности
+         */
+        public Builder withSiblingFieldFusion(boolean siblingFieldFusion) {
+            this.siblingFieldFusion = siblingFieldFusion;
+            return this;
+        }
+
+        /**
+         * Поддерево запроса, в котором все методы принадлежат одному удаленному компоненту, а остальные поля -
+         * обычные поля объектов, вычисляется в этом компоненте одним вызовом. При ошибке поля вычисляются обычным способом
+         */
+        public Builder withSubtreePushdown(boolean subtreePushdown) {
+            this.subtreePushdown = subtreePushdown;
+            return this;
+        }
+
+        /**
+         * Схема строится по компонентам всех нод кластера, а не только текущей. Поле компонента, запущенного
+         * на нескольких нодах, вызывается в экземпляре текущей ноды, иначе - в наименее загруженном
+         */
+        public Builder withClusterSchema(boolean clusterSchema) {
+            this.clusterSchema = clusterSchema;
+            return this;
+        }
+
+        /**
+         * Медленный вызов идемпотентного поля запроса дублируется в другой экземпляр компонента (нужен withClusterSchema),
+         * используется первый пришедший ответ
+         */
+        public Builder withHedging(GraphQLHedgingPolicy hedgingPolicy) {
+            this.hedgingPolicy = hedgingPolicy;
+            return this;
+        }
+
+        /**
+         * Вызовы экземпляра компонента, который часто падает или медленно отвечает, временно не выполняются:
+         * его поля сразу завершаются ошибкой, остальная часть запроса выполняется
+         */
+        public Builder withCircuitBreaker(GraphQLCircuitBreakerPolicy circuitBreakerPolicy) {
+            this.circuitBreakerPolicy = circuitBreakerPolicy;
+            return this;
+        }
+
+        /**
+         * Число одновременных вызовов каждого экземпляра компонента ограничено адаптивным пределом,
+         * лишние вызовы ждут в очереди или отклоняются
+         */
+        public Builder withConcurrencyLimit(GraphQLConcurrencyLimitPolicy concurrencyLimitPolicy) {
+            this.concurrencyLimitPolicy = concurrencyLimitPolicy;
+            return this;
+        }
+
+        /**
+         * Число потоков выполнения запросов, одновременно занятых полями одного экземпляра компонента, ограничено:
+         * медленный компонент замедляет только запросы к его полям
+         */
+        public Builder withBulkhead(GraphQLBulkheadPolicy bulkheadPolicy) {
+            this.bulkheadPolicy = bulkheadPolicy;
+            return this;
+        }
+
+        /**
+         * Поля перечисленных graphql-типов используют общий предел группы вместо предела своего компонента
+         */
+        public Builder withBulkheadGroup(String group, GraphQLBulkheadPolicy bulkheadPolicy, String... graphQLTypeNames) {
+            if (bulkheadGroupPolicies == null) {
+                bulkheadGroupPolicies = new HashMap<>();
+                bulkheadGroupsByTypeName = new HashMap<>();
+            }
+            bulkheadGroupPolicies.put(group, bulkheadPolicy);
+            for (String graphQLTypeName : graphQLTypeNames) {
+                bulkheadGroupsByTypeName.put(graphQLTypeName, group);
+            }
+            return this;
+        }
+
+        /**
+         * Число одновременно выполняемых запросов ограничено, остальные ждут в очереди по приоритету
+         * ({@link com.infomaximum.cluster.graphql.struct.ContextRequest#getPriority()}) и по очереди клиентов.
+         * Запросы, ждущие дольше допустимого, отклоняются
+         */
+        public Builder withAdmission(GraphQLAdmissionPolicy admissionPolicy) {
+            this.admissionPolicy = admissionPolicy;
+            return this;
+        }
+
+        /**
+         * Клиенты могут присылать вместо текста запроса его SHA-256 хеш (расширение persistedQuery.sha256Hash).
+         * Тексты запросов по хешу общие, разобранные документы - у каждого исполнителя свои. Хранится не более maxSize запросов
+         */
+        public Builder withPersistedQueries(int maxSize) {
+            if (maxSize <= 0) {
+                throw new IllegalArgumentException("maxSize: " + maxSize);
+            }
+            this.persistedQueriesMaxSize = maxSize;
+            return this;
+        }
+
         public GraphQLEngine build() {
             return new GraphQLEngine(
                     sdkPackagePaths,
@@ -207,7 +512,30 @@ public class GraphQLEngine {
                     ),
 
                     customRemoteDataFetcher,
-                    dataFetcherExceptionHandler
+                    dataFetcherExceptionHandler,
+
+                    subscribeShareExecution,
+                    subscribeSweepInterval,
+                    subscribeReplayCapacity,
+                    subscribeReplayRetention,
+
+                    forceRemoteExecution,
+
+                    requestMemoization,
+                    siblingFieldFusion,
+                    subtreePushdown,
+
+                    clusterSchema,
+                    hedgingPolicy,
+                    circuitBreakerPolicy,
+                    concurrencyLimitPolicy,
+                    (bulkheadPolicy == null && bulkheadGroupPolicies == null) ? null : new GraphQLBulkheads(
+                            bulkheadPolicy,
+                            (bulkheadGroupPolicies == null) ? Collections.emptyMap() : bulkheadGroupPolicies,
+                            (bulkheadGroupsByTypeName == null) ? Collections.emptyMap() : bulkheadGroupsByTypeName
+                    ),
+                    admissionPolicy,
+                    persistedQueriesMaxSize
             );
         }
     }
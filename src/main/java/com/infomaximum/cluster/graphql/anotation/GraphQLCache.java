@@ -0,0 +1,37 @@
+package com.infomaximum.cluster.graphql.anotation;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Результат поля кешируется на frontend'е между запросами. Применять только к полям, результат которых
+ * не зависит от контекста запроса (пользователя, прав и т.п.)
+ */
+@Target({ElementType.METHOD})
+@Retention(RetentionPolicy.RUNTIME)
+public @interface GraphQLCache {
+
+    /**
+     * Время жизни значения в миллисекундах
+     */
+    long ttl() default 60000;
+
+    int maxEntries() default 1000;
+
+    /**
+     * Учитывать в ключе значения аргументы поля
+     */
+    boolean byArguments() default true;
+
+    /**
+     * Учитывать в ключе значения объект-источник (сравнивается по equals)
+     */
+    boolean bySource() default false;
+
+    /**
+     * Ключи подписок (в UTF-8) этого компонента: событие по любому из них сбрасывает кеш поля
+     */
+    String[] invalidateOn() default {};
+}
@@ -0,0 +1,16 @@
+package com.infomaximum.cluster.graphql.anotation;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Повторный вызов метода с теми же аргументами может вернуть другой результат или имеет побочные эффекты -
+ * результат такого поля не переиспользуется в рамках запроса
+ */
+@Target({ElementType.METHOD})
+@Retention(RetentionPolicy.RUNTIME)
+public @interface GraphQLNonIdempotent {
+
+}
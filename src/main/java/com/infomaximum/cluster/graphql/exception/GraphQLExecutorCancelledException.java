@@ -0,0 +1,36 @@
+package com.infomaximum.cluster.graphql.exception;
+
+import graphql.ErrorClassification;
+import graphql.GraphQLError;
+import graphql.language.SourceLocation;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Запрос отменен (клиент отключился или результат уже не может быть получен): вызовы компонентов не выполняются.
+ * Поле завершается ошибкой с кодом {@link #CODE}
+ */
+public class GraphQLExecutorCancelledException extends GraphQLExecutorException implements GraphQLError {
+
+    public static final String CODE = "request_cancelled";
+
+    public GraphQLExecutorCancelledException() {
+        super("Request cancelled");
+    }
+
+    @Override
+    public List<SourceLocation> getLocations() {
+        return null;
+    }
+
+    @Override
+    public ErrorClassification getErrorType() {
+        return graphql.ErrorType.ExecutionAborted;
+    }
+
+    @Override
+    public Map<String, Object> getExtensions() {
+        return Map.of("code", CODE);
+    }
+}
@@ -0,0 +1,50 @@
+package com.infomaximum.cluster.graphql.exception;
+
+import graphql.ErrorClassification;
+import graphql.GraphQLError;
+import graphql.language.SourceLocation;
+
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Вызовы компонента временно не выполняются: слишком много ошибок или медленных ответов.
+ * Поле сразу завершается ошибкой с кодом {@link #CODE}, остальная часть запроса выполняется
+ */
+public class GraphQLExecutorCircuitOpenException extends GraphQLExecutorException implements GraphQLError {
+
+    public static final String CODE = "component_unavailable";
+
+    private final UUID nodeRuntimeId;
+    private final int componentId;
+
+    public GraphQLExecutorCircuitOpenException(UUID nodeRuntimeId, int componentId) {
+        super("Component is unavailable, node: " + nodeRuntimeId + ", component: " + componentId);
+        this.nodeRuntimeId = nodeRuntimeId;
+        this.componentId = componentId;
+    }
+
+    public UUID getNodeRuntimeId() {
+        return nodeRuntimeId;
+    }
+
+    public int getComponentId() {
+        return componentId;
+    }
+
+    @Override
+    public List<SourceLocation> getLocations() {
+        return null;
+    }
+
+    @Override
+    public ErrorClassification getErrorType() {
+        return graphql.ErrorType.DataFetchingException;
+    }
+
+    @Override
+    public Map<String, Object> getExtensions() {
+        return Map.of("code", CODE, "component_id", componentId);
+    }
+}
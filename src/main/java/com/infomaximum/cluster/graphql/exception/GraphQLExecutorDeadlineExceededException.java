@@ -0,0 +1,44 @@
+package com.infomaximum.cluster.graphql.exception;
+
+import graphql.ErrorClassification;
+import graphql.GraphQLError;
+import graphql.language.SourceLocation;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Срок выполнения запроса истек (клиент уже не ждет ответа): вызов компонента не выполняется.
+ * Поле завершается ошибкой с кодом {@link #CODE}
+ */
+public class GraphQLExecutorDeadlineExceededException extends GraphQLExecutorException implements GraphQLError {
+
+    public static final String CODE = "deadline_exceeded";
+
+    private final Instant deadline;
+
+    public GraphQLExecutorDeadlineExceededException(Instant deadline) {
+        super("Request deadline exceeded: " + deadline);
+        this.deadline = deadline;
+    }
+
+    public Instant getDeadline() {
+        return deadline;
+    }
+
+    @Override
+    public List<SourceLocation> getLocations() {
+        return null;
+    }
+
+    @Override
+    public ErrorClassification getErrorType() {
+        return graphql.ErrorType.ExecutionAborted;
+    }
+
+    @Override
+    public Map<String, Object> getExtensions() {
+        return Map.of("code", CODE);
+    }
+}
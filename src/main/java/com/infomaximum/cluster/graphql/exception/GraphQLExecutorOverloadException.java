@@ -0,0 +1,50 @@
+package com.infomaximum.cluster.graphql.exception;
+
+import graphql.ErrorClassification;
+import graphql.GraphQLError;
+import graphql.language.SourceLocation;
+
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Вызов компонента отклонен: достигнут предел одновременных вызовов и место не освободилось за время ожидания.
+ * Поле завершается ошибкой с кодом {@link #CODE}, остальная часть запроса выполняется
+ */
+public class GraphQLExecutorOverloadException extends GraphQLExecutorException implements GraphQLError {
+
+    public static final String CODE = "component_overloaded";
+
+    private final UUID nodeRuntimeId;
+    private final int componentId;
+
+    public GraphQLExecutorOverloadException(UUID nodeRuntimeId, int componentId, String message) {
+        super(message + ", node: " + nodeRuntimeId + ", component: " + componentId);
+        this.nodeRuntimeId = nodeRuntimeId;
+        this.componentId = componentId;
+    }
+
+    public UUID getNodeRuntimeId() {
+        return nodeRuntimeId;
+    }
+
+    public int getComponentId() {
+        return componentId;
+    }
+
+    @Override
+    public List<SourceLocation> getLocations() {
+        return null;
+    }
+
+    @Override
+    public ErrorClassification getErrorType() {
+        return graphql.ErrorType.DataFetchingException;
+    }
+
+    @Override
+    public Map<String, Object> getExtensions() {
+        return Map.of("code", CODE, "component_id", componentId);
+    }
+}
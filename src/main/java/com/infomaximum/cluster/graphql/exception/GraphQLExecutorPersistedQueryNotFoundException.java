@@ -0,0 +1,43 @@
+package com.infomaximum.cluster.graphql.exception;
+
+import graphql.ErrorClassification;
+import graphql.GraphQLError;
+import graphql.language.SourceLocation;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Клиент прислал только хеш запроса, а запрос с таким хешем не зарегистрирован (или вытеснен из кеша).
+ * Запрос завершается ошибкой с кодом {@link #CODE}, клиент должен повторить его с полным текстом и хешем
+ */
+public class GraphQLExecutorPersistedQueryNotFoundException extends GraphQLExecutorException implements GraphQLError {
+
+    public static final String CODE = "persisted_query_not_found";
+
+    private final String hash;
+
+    public GraphQLExecutorPersistedQueryNotFoundException(String hash) {
+        super("PersistedQueryNotFound");
+        this.hash = hash;
+    }
+
+    public String getHash() {
+        return hash;
+    }
+
+    @Override
+    public List<SourceLocation> getLocations() {
+        return null;
+    }
+
+    @Override
+    public ErrorClassification getErrorType() {
+        return graphql.ErrorType.ValidationError;
+    }
+
+    @Override
+    public Map<String, Object> getExtensions() {
+        return Map.of("code", CODE, "hash", hash);
+    }
+}
@@ -0,0 +1,36 @@
+package com.infomaximum.cluster.graphql.exception;
+
+import graphql.ErrorClassification;
+import graphql.GraphQLError;
+import graphql.language.SourceLocation;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Запрос не допущен к выполнению: frontend перегружен и запрос не дождался очереди.
+ * Запрос завершается ошибкой с кодом {@link #CODE}, клиент может повторить его позже
+ */
+public class GraphQLExecutorRejectedException extends GraphQLExecutorException implements GraphQLError {
+
+    public static final String CODE = "request_rejected";
+
+    public GraphQLExecutorRejectedException(String message) {
+        super(message);
+    }
+
+    @Override
+    public List<SourceLocation> getLocations() {
+        return null;
+    }
+
+    @Override
+    public ErrorClassification getErrorType() {
+        return graphql.ErrorType.ExecutionAborted;
+    }
+
+    @Override
+    public Map<String, Object> getExtensions() {
+        return Map.of("code", CODE);
+    }
+}
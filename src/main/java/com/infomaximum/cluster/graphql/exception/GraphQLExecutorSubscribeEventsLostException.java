@@ -0,0 +1,36 @@
+package com.infomaximum.cluster.graphql.exception;
+
+import graphql.ErrorClassification;
+import graphql.GraphQLError;
+import graphql.language.SourceLocation;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * События компонента-источника подписки потеряны по пути к frontend'у: подписка завершается ошибкой с кодом {@link #CODE},
+ * клиент должен подписаться заново и перечитать данные. Возобновить такую подписку по курсору нельзя
+ */
+public class GraphQLExecutorSubscribeEventsLostException extends GraphQLExecutorException implements GraphQLError {
+
+    public static final String CODE = "subscribe_events_lost";
+
+    public GraphQLExecutorSubscribeEventsLostException() {
+        super("Subscribe events lost");
+    }
+
+    @Override
+    public List<SourceLocation> getLocations() {
+        return null;
+    }
+
+    @Override
+    public ErrorClassification getErrorType() {
+        return graphql.ErrorType.ExecutionAborted;
+    }
+
+    @Override
+    public Map<String, Object> getExtensions() {
+        return Map.of("code", CODE);
+    }
+}
@@ -1,19 +1,24 @@
 package com.infomaximum.cluster.graphql.executor;
 
-import com.infomaximum.cluster.core.remote.RemoteTarget;
-import com.infomaximum.cluster.core.service.transport.network.LocationRuntimeComponent;
 import com.infomaximum.cluster.exception.ClusterRemotePackerException;
+import com.infomaximum.cluster.graphql.exception.GraphQLExecutorCancelledException;
 import com.infomaximum.cluster.graphql.exception.GraphQLExecutorDataFetcherException;
+import com.infomaximum.cluster.graphql.exception.GraphQLExecutorDeadlineExceededException;
 import com.infomaximum.cluster.graphql.exception.GraphQLExecutorInvalidSyntaxException;
+import com.infomaximum.cluster.graphql.executor.limiter.GraphQLConcurrencyLimiter;
+import com.infomaximum.cluster.graphql.executor.limiter.GraphQLConcurrencyLimiters;
 import com.infomaximum.cluster.graphql.executor.struct.GExecutionResult;
 import com.infomaximum.cluster.graphql.preparecustomfield.PrepareCustomField;
 import com.infomaximum.cluster.graphql.preparecustomfield.PrepareCustomFieldUtils;
 import com.infomaximum.cluster.graphql.remote.graphql.executor.RControllerGraphQLExecutor;
+import com.infomaximum.cluster.graphql.remote.graphql.executor.RControllerGraphQLExecutorCache;
 import com.infomaximum.cluster.graphql.schema.GraphQLSchemaType;
 import com.infomaximum.cluster.graphql.schema.build.MergeGraphQLTypeOutObject;
 import com.infomaximum.cluster.graphql.schema.build.MergeGraphQLTypeOutObjectInterface;
 import com.infomaximum.cluster.graphql.schema.datafetcher.ComponentDataFetcher;
 import com.infomaximum.cluster.graphql.schema.struct.out.RGraphQLObjectTypeField;
+import com.infomaximum.cluster.graphql.schema.struct.out.RGraphQLPrepare;
+import com.infomaximum.cluster.graphql.schema.struct.out.RGraphQLPrepareResult;
 import com.infomaximum.cluster.graphql.struct.ContextRequest;
 import com.infomaximum.cluster.graphql.utils.ExceptionUtils;
 import com.infomaximum.cluster.struct.Component;
@@ -38,9 +43,19 @@ import java.io.Serializable;
 import java.lang.reflect.Field;
 import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.Callable;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicReference;
 
 
@@ -83,6 +98,46 @@ public class GraphQLExecutorPrepareImpl implements GraphQLExecutor {
         }
     }
 
+    /**
+     * Поле запроса в порядке обхода документа: для полей с prepare - параметры удаленного вызова и его результат
+     */
+    private static class PrepareItem {
+
+        private final RGraphQLObjectTypeField field;
+        private final String keyField;
+        private final String parentName;
+        private final HashMap<String, Serializable> arguments;
+        private final ContextRequest context;
+
+        //Номер запроса в пакете
+        private int index;
+        private Serializable result;
+        private boolean isPrepared;
+
+        private PrepareItem(RGraphQLObjectTypeField field, String keyField, String parentName, HashMap<String, Serializable> arguments, ContextRequest context) {
+            this.field = field;
+            this.keyField = keyField;
+            this.parentName = parentName;
+            this.arguments = arguments;
+            this.context = context;
+        }
+    }
+
+    //Параллельное выполнение запросов пакета: потоков не больше числа процессоров, сверх этого запрос
+    //выполняет сам вызывающий поток - пакет не может занять больше потоков, чем было бы без него
+    private static final int BATCH_MAX_THREADS = Runtime.getRuntime().availableProcessors();
+    private static final ExecutorService BATCH_EXECUTOR_SERVICE = new ThreadPoolExecutor(
+            0, BATCH_MAX_THREADS,
+            60L, TimeUnit.SECONDS,
+            new SynchronousQueue<>(),
+            runnable -> {
+                Thread thread = new Thread(runnable, "GraphQLExecutorBatch");
+                thread.setDaemon(true);
+                return thread;
+            },
+            new ThreadPoolExecutor.CallerRunsPolicy()
+    );
+
     private final Component component;
     private final GraphQLSchema schema;
     private final GraphQL graphQL;
@@ -93,6 +148,9 @@ public class GraphQLExecutorPrepareImpl implements GraphQLExecutor {
     private final Method methodExecute;
     private final Map<String, MergeGraphQLTypeOutObject> remoteGraphQLTypeOutObjects;
     private final Map<String, MergeGraphQLTypeOutObjectInterface> remoteGraphQLTypeOutObjectInterfaces;
+    private final RControllerGraphQLExecutorCache rControllerGraphQLExecutorCache;
+
+    private GraphQLConcurrencyLimiters concurrencyLimiters;
 
     public GraphQLExecutorPrepareImpl(Component component, GraphQLSchema schema, GraphQL graphQL, Map<String, MergeGraphQLTypeOutObject> remoteGraphQLTypeOutObjects, Map<String, MergeGraphQLTypeOutObjectInterface> remoteGraphQLTypeOutObjectInterfaces, GraphQLSchemaType graphQLSchemaType) {
         this.component = component;
@@ -101,6 +159,7 @@ public class GraphQLExecutorPrepareImpl implements GraphQLExecutor {
         this.remoteGraphQLTypeOutObjects = remoteGraphQLTypeOutObjects;
         this.remoteGraphQLTypeOutObjectInterfaces = remoteGraphQLTypeOutObjectInterfaces;
         this.graphQLSchemaType = graphQLSchemaType;
+        this.rControllerGraphQLExecutorCache = new RControllerGraphQLExecutorCache(component.getRemotes());
 
         try {
             Field fieldInstrumentation = graphQL.getClass().getDeclaredField("instrumentation");
@@ -122,11 +181,115 @@ public class GraphQLExecutorPrepareImpl implements GraphQLExecutor {
         }
     }
 
+    /**
+     * Адаптивные пределы одновременных вызовов экземпляров компонентов, null - без ограничения
+     */
+    public void setConcurrencyLimiters(GraphQLConcurrencyLimiters concurrencyLimiters) {
+        this.concurrencyLimiters = concurrencyLimiters;
+    }
+
     public GraphQLSchema getSchema() {
         return schema;
     }
 
     public PrepareDocumentRequest prepare(ExecutionInput executionInput, PrepareFunction prepareFunction) throws GraphQLExecutorDataFetcherException {
+        PrepareDocumentRequest prepareDocumentRequest = parse(executionInput);
+        if (prepareDocumentRequest.preparsedDocumentEntry.hasErrors()) {
+            //Произошла ошибка парсинга
+            return prepareDocumentRequest;
+        }
+
+        //Документ распарсен - вызываем prepare
+        try {
+            for (PrepareItem prepareItem : collectPrepareItems(prepareDocumentRequest)) {
+                if (prepareItem.field.isPrepare) {
+                    prepareItem.result = callPrepare(prepareItem);
+                }
+                prepareFunction.prepare(prepareItem.field, prepareItem.result);
+            }
+            return prepareDocumentRequest;
+        } catch (Exception e) {
+            return toPrepareDocumentRequest(prepareDocumentRequest, e);
+        }
+    }
+
+    /**
+     * Несколько запросов за один вызов: разбор и prepare всех запросов выполняются вместе (вызовы prepare одного
+     * компонента - одним удаленным вызовом), затем запросы выполняются параллельно. Ошибка одного запроса не влияет
+     * на остальные. Результаты - в порядке запросов, после выполнения вызывающий вызывает requestCompleted для каждого запроса
+     */
+    public List<GExecutionResult> execute(List<ExecutionInput> executionInputs, PrepareFunction prepareFunction) {
+        int size = executionInputs.size();
+        PrepareDocumentRequest[] prepareDocumentRequests = new PrepareDocumentRequest[size];
+        GExecutionResult[] results = new GExecutionResult[size];
+
+        //Разбираем все запросы и собираем поля, требующие prepare, по компонентам
+        List<ArrayList<PrepareItem>> prepareItems = new ArrayList<>(size);
+        Map<String, ArrayList<PrepareItem>> prepareGroups = new LinkedHashMap<>();
+        for (int index = 0; index < size; index++) {
+            prepareItems.add(null);
+            PrepareDocumentRequest prepareDocumentRequest = parse(executionInputs.get(index));
+            prepareDocumentRequests[index] = prepareDocumentRequest;
+            if (prepareDocumentRequest.preparsedDocumentEntry.hasErrors()) {
+                results[index] = new GExecutionResult(new ExecutionResultImpl(prepareDocumentRequest.preparsedDocumentEntry.getErrors()));
+                continue;
+            }
+            try {
+                ArrayList<PrepareItem> items = collectPrepareItems(prepareDocumentRequest);
+                for (PrepareItem item : items) {
+                    if (item.field.isPrepare) {
+                        item.index = index;
+                        prepareGroups.computeIfAbsent(item.field.nodeRuntimeId + ":" + item.field.componentId, key -> new ArrayList<>()).add(item);
+                    }
+                }
+                prepareItems.set(index, items);
+            } catch (Exception e) {
+                results[index] = toErrorResult(prepareDocumentRequest, e);
+            }
+        }
+
+        for (ArrayList<PrepareItem> group : prepareGroups.values()) {
+            try {
+                callPrepare(group, results, prepareDocumentRequests);
+            } catch (Exception e) {
+                //Пакет не выполнен (сбой вызова) - вызываем по одному, чтобы ошибку получили только запросы, в которых она возникла
+                for (PrepareItem item : group) {
+                    if (item.isPrepared || results[item.index] != null) continue;
+                    try {
+                        item.result = callPrepare(item);
+                        item.isPrepared = true;
+                    } catch (Exception ie) {
+                        results[item.index] = toErrorResult(prepareDocumentRequests[item.index], ie);
+                    }
+                }
+            }
+        }
+
+        List<CompletableFuture<GExecutionResult>> futures = new ArrayList<>(size);
+        for (int index = 0; index < size; index++) {
+            if (results[index] != null) {
+                futures.add(null);
+                continue;
+            }
+            for (PrepareItem item : prepareItems.get(index)) {
+                prepareFunction.prepare(item.field, item.result);
+            }
+            PrepareDocumentRequest prepareDocumentRequest = prepareDocumentRequests[index];
+            futures.add(CompletableFuture.supplyAsync(() -> execute(prepareDocumentRequest), BATCH_EXECUTOR_SERVICE));
+        }
+        for (int index = 0; index < size; index++) {
+            if (futures.get(index) == null) continue;
+            try {
+                results[index] = futures.get(index).join();
+            } catch (CompletionException e) {
+                //Ошибка выполнения одного запроса - только его результат
+                results[index] = toErrorResult(prepareDocumentRequests[index], (e.getCause() == null) ? e : e.getCause());
+            }
+        }
+        return Arrays.asList(results);
+    }
+
+    private PrepareDocumentRequest parse(ExecutionInput executionInput) {
         if (executionInput.getExecutionId() == null) {
             throw new RuntimeException("You must provide a query identifier");
         }
@@ -141,7 +304,9 @@ public class GraphQLExecutorPrepareImpl implements GraphQLExecutor {
         instrumentation.beginExecution(instrumentationParameters);
 
         AtomicReference<ExecutionInput> executionInputRef = new AtomicReference<>(executionInput);
-        PreparsedDocumentEntry preparsedDocumentEntry = preparsedDocumentProvider.getDocument(executionInput, function -> {
+        PreparsedDocumentEntry preparsedDocumentEntry = preparsedDocumentProvider.getDocument(executionInput, transformedInput -> {
+            //Провайдер может подменить запрос (например, восстановить текст сохраненного запроса по хешу)
+            executionInputRef.set(transformedInput);
             try {
                 return (PreparsedDocumentEntry) methodParseAndValidate.invoke(graphQL, executionInputRef, schema, instrumentationState);
             } catch (InvocationTargetException ite) {
@@ -151,82 +316,204 @@ public class GraphQLExecutorPrepareImpl implements GraphQLExecutor {
             }
         });
 
-        if (preparsedDocumentEntry.hasErrors()) {
-            //Произошла ошибка парсинга
-            return new PrepareDocumentRequest(
-                    executionInput,
-                    preparsedDocumentEntry,
-                    instrumentationState
-            );
-        }
-
-        //Документ распарсен - вызываем prepare
-        try {
-            Document document = preparsedDocumentEntry.getDocument();
-            for (Node node : document.getChildren()) {
-                if (node instanceof OperationDefinition) {
-                    OperationDefinition operationDefinition = (OperationDefinition) node;
-
-                    GraphQLObjectType parent;
-                    if (operationDefinition.getOperation() == OperationDefinition.Operation.QUERY) {
-                        parent = schema.getQueryType();
-                    } else if (operationDefinition.getOperation() == OperationDefinition.Operation.MUTATION) {
-                        parent = schema.getMutationType();
-                    } else if (operationDefinition.getOperation() == OperationDefinition.Operation.SUBSCRIPTION) {
-                        parent = schema.getSubscriptionType();
-                    } else {
-                        throw new RuntimeException("not support operation type: " + operationDefinition.getOperation());
-                    }
+        return new PrepareDocumentRequest(
+                executionInputRef.get(),
+                preparsedDocumentEntry,
+                instrumentationState
+        );
+    }
 
-                    prepareRequest(
-                            parent,
-                            node,
-                            executionInput.getVariables(),
-                            prepareFunction,
-                            (ContextRequest) executionInput.getContext()
-                    );
-                } else if (node instanceof FragmentDefinition) {
-                    FragmentDefinition fragmentDefinition = (FragmentDefinition) node;
-
-                    GraphQLType parent = schema.getType(fragmentDefinition.getTypeCondition().getName());
-                    prepareRequest(
-                            parent,
-                            node,
-                            executionInput.getVariables(),
-                            prepareFunction,
-                            (ContextRequest) executionInput.getContext()
-                    );
+    private ArrayList<PrepareItem> collectPrepareItems(PrepareDocumentRequest prepareDocumentRequest) throws Exception {
+        ExecutionInput executionInput = prepareDocumentRequest.executionInput;
+        ArrayList<PrepareItem> prepareItems = new ArrayList<>();
+        Document document = prepareDocumentRequest.preparsedDocumentEntry.getDocument();
+        for (Node node : document.getChildren()) {
+            if (node instanceof OperationDefinition) {
+                OperationDefinition operationDefinition = (OperationDefinition) node;
+
+                GraphQLObjectType parent;
+                if (operationDefinition.getOperation() == OperationDefinition.Operation.QUERY) {
+                    parent = schema.getQueryType();
+                } else if (operationDefinition.getOperation() == OperationDefinition.Operation.MUTATION) {
+                    parent = schema.getMutationType();
+                } else if (operationDefinition.getOperation() == OperationDefinition.Operation.SUBSCRIPTION) {
+                    parent = schema.getSubscriptionType();
+                } else {
+                    throw new RuntimeException("not support operation type: " + operationDefinition.getOperation());
                 }
+
+                prepareRequest(
+                        parent,
+                        node,
+                        executionInput.getVariables(),
+                        prepareItems,
+                        (ContextRequest) executionInput.getContext()
+                );
+            } else if (node instanceof FragmentDefinition) {
+                FragmentDefinition fragmentDefinition = (FragmentDefinition) node;
+
+                GraphQLType parent = schema.getType(fragmentDefinition.getTypeCondition().getName());
+                prepareRequest(
+                        parent,
+                        node,
+                        executionInput.getVariables(),
+                        prepareItems,
+                        (ContextRequest) executionInput.getContext()
+                );
             }
+        }
+        return prepareItems;
+    }
 
-            return new PrepareDocumentRequest(
-                    executionInput,
-                    preparsedDocumentEntry,
-                    instrumentationState
-            );
-        } catch (GraphQLExecutorInvalidSyntaxException e) {
+    private PrepareDocumentRequest toPrepareDocumentRequest(PrepareDocumentRequest prepareDocumentRequest, Exception exception) throws GraphQLExecutorDataFetcherException {
+        if (exception instanceof GraphQLExecutorInvalidSyntaxException) {
             //Произошла ошибка парсинга
             return new PrepareDocumentRequest(
-                    executionInput,
+                    prepareDocumentRequest.executionInput,
                     new PreparsedDocumentEntry(new InvalidSyntaxError(
                             new SourceLocation(0, 0),
-                            e.getMessage())),
-                    instrumentationState
+                            exception.getMessage())),
+                    prepareDocumentRequest.instrumentationState
             );
-        } catch (NonNullableValueCoercedAsNullException | CoercingParseValueException e) {
+        } else if (exception instanceof NonNullableValueCoercedAsNullException || exception instanceof CoercingParseValueException) {
             return new PrepareDocumentRequest(
-                    executionInput,
-                    new PreparsedDocumentEntry(e),
-                    instrumentationState
+                    prepareDocumentRequest.executionInput,
+                    new PreparsedDocumentEntry((GraphQLError) exception),
+                    prepareDocumentRequest.instrumentationState
             );
+        } else if (exception instanceof GraphQLExecutorDataFetcherException) {
+            throw (GraphQLExecutorDataFetcherException) exception;
+        } else {
+            throw new RuntimeException("Not support exception", exception);
+        }
+    }
+
+    /**
+     * Ошибка prepare или выполнения одного запроса пакета - результат этого запроса
+     */
+    private GExecutionResult toErrorResult(PrepareDocumentRequest prepareDocumentRequest, Throwable exception) {
+        if (exception instanceof GraphQLExecutorInvalidSyntaxException
+                || exception instanceof NonNullableValueCoercedAsNullException || exception instanceof CoercingParseValueException) {
+            return new GExecutionResult(new ExecutionResultImpl(toPrepareDocumentRequest(prepareDocumentRequest, (Exception) exception).preparsedDocumentEntry.getErrors()));
+        }
+        Throwable cause = exception;
+        if (exception instanceof GraphQLExecutorDataFetcherException && exception.getCause() != null) {
+            cause = exception.getCause();
+        } else if (!(exception instanceof GraphQLExecutorDataFetcherException)) {
+            log.error("Error execute request in batch", exception);
+        }
+        GraphQLError error = (cause instanceof GraphQLError) ? (GraphQLError) cause : GraphqlErrorBuilder.newError()
+                .message(String.valueOf(cause.getMessage()))
+                .errorType(ErrorType.DataFetchingException)
+                .build();
+        return new GExecutionResult(new ExecutionResultImpl(error));
+    }
+
+    private static void checkPrepare(ContextRequest context) throws GraphQLExecutorDataFetcherException {
+        if (context.isCancelled()) {
+            throw new GraphQLExecutorDataFetcherException(new GraphQLExecutorCancelledException());
+        }
+        if (context.isDeadlineExceeded()) {
+            throw new GraphQLExecutorDataFetcherException(new GraphQLExecutorDeadlineExceededException(context.getDeadline()));
+        }
+    }
+
+    private Serializable callPrepare(PrepareItem prepareItem) throws Exception {
+        checkPrepare(prepareItem.context);
+
+        //Собираем какие ресурсы нам необходимы для лока
+        RGraphQLObjectTypeField rGraphQLObjectTypeField = prepareItem.field;
+        RControllerGraphQLExecutor rControllerGraphQLExecutor = rControllerGraphQLExecutorCache.get(rGraphQLObjectTypeField.nodeRuntimeId, rGraphQLObjectTypeField.componentId);
+        return callPrepare(rGraphQLObjectTypeField, () -> rControllerGraphQLExecutor.prepare(
+                prepareItem.keyField,
+                prepareItem.parentName,
+                rGraphQLObjectTypeField.name,
+                prepareItem.arguments,
+                prepareItem.context
+        ));
+    }
+
+    /**
+     * Поля одного компонента из разных запросов пакета - одним удаленным вызовом. Ошибка prepare поля
+     * (в т.ч. отмена или истекший срок его запроса) - результат запроса этого поля, остальные поля выполняются
+     */
+    private void callPrepare(List<PrepareItem> group, GExecutionResult[] results, PrepareDocumentRequest[] prepareDocumentRequests) throws Exception {
+        List<PrepareItem> prepareItems = new ArrayList<>(group.size());
+        ArrayList<RGraphQLPrepare> prepares = new ArrayList<>(group.size());
+        for (PrepareItem prepareItem : group) {
+            if (results[prepareItem.index] != null) continue;
+            try {
+                checkPrepare(prepareItem.context);
+            } catch (GraphQLExecutorDataFetcherException e) {
+                results[prepareItem.index] = toErrorResult(prepareDocumentRequests[prepareItem.index], e);
+                continue;
+            }
+            prepareItems.add(prepareItem);
+            prepares.add(new RGraphQLPrepare(prepareItem.keyField, prepareItem.parentName, prepareItem.field.name, prepareItem.arguments, prepareItem.context));
+        }
+        if (prepareItems.isEmpty()) {
+            return;
+        }
+
+        RGraphQLObjectTypeField rGraphQLObjectTypeField = prepareItems.get(0).field;
+        RControllerGraphQLExecutor rControllerGraphQLExecutor = rControllerGraphQLExecutorCache.get(rGraphQLObjectTypeField.nodeRuntimeId, rGraphQLObjectTypeField.componentId);
+        ArrayList<RGraphQLPrepareResult> prepareResults = callPrepare(rGraphQLObjectTypeField, () -> rControllerGraphQLExecutor.prepareBatch(prepares));
+        for (int i = 0; i < prepareItems.size(); i++) {
+            PrepareItem prepareItem = prepareItems.get(i);
+            RGraphQLPrepareResult prepareResult = prepareResults.get(i);
+            //Поле уже вызвано - повторно не вызываем, даже если оно завершилось ошибкой
+            prepareItem.isPrepared = true;
+            if (prepareResult.exception != null) {
+                if (results[prepareItem.index] == null) {
+                    results[prepareItem.index] = toErrorResult(prepareDocumentRequests[prepareItem.index], prepareResult.exception);
+                }
+            } else {
+                prepareItem.result = prepareResult.value;
+            }
+        }
+    }
+
+    private <T> T callPrepare(RGraphQLObjectTypeField rGraphQLObjectTypeField, Callable<T> call) throws Exception {
+        GraphQLConcurrencyLimiter concurrencyLimiter = (concurrencyLimiters == null) ? null : concurrencyLimiters.get(rGraphQLObjectTypeField.nodeRuntimeId, rGraphQLObjectTypeField.componentId);
+        if (concurrencyLimiter != null) {
+            concurrencyLimiter.acquire();
+        }
+        long start = System.nanoTime();
+        boolean isReleased = false;
+        try {
+            T result = call.call();
+            isReleased = true;
+            if (concurrencyLimiter != null) concurrencyLimiter.onSuccess(System.nanoTime() - start);
+            return result;
         } catch (GraphQLExecutorDataFetcherException e) {
+            isReleased = true;
+            if (concurrencyLimiter != null) concurrencyLimiter.onSuccess(System.nanoTime() - start);
+            throw e;
+        } catch (ClusterRemotePackerException e) {
+            //Вызов не дошел до компонента и ничего не говорит о его нагрузке
+            isReleased = true;
+            if (concurrencyLimiter != null) concurrencyLimiter.onIgnore();
+            rControllerGraphQLExecutorCache.invalidate(rGraphQLObjectTypeField.nodeRuntimeId, rGraphQLObjectTypeField.componentId);
             throw e;
         } catch (Exception e) {
-            throw new RuntimeException("Not support exception", e);
+            isReleased = true;
+            if (concurrencyLimiter != null) concurrencyLimiter.onOverload();
+            rControllerGraphQLExecutorCache.invalidate(rGraphQLObjectTypeField.nodeRuntimeId, rGraphQLObjectTypeField.componentId);
+            throw e;
+        } finally {
+            if (!isReleased && concurrencyLimiter != null) {
+                //Error - исход вызова неизвестен, только возвращаем разрешение
+                concurrencyLimiter.onIgnore();
+            }
         }
     }
 
     public GExecutionResult execute(PrepareDocumentRequest prepareDocumentRequest) {
+        ContextRequest context = (ContextRequest) prepareDocumentRequest.executionInput.getContext();
+        if (context != null && context.isCancelled()) {
+            //Запрос отменен после подготовки - не выполняем, вызывающий сразу освобождает ресурсы (requestCompleted)
+            return new GExecutionResult(new ExecutionResultImpl(new GraphQLExecutorCancelledException()));
+        }
         try {
             CompletableFuture<ExecutionResult> completableFuture = (CompletableFuture<ExecutionResult>) methodExecute.invoke(graphQL,
                     prepareDocumentRequest.executionInput,
@@ -257,7 +544,7 @@ public class GraphQLExecutorPrepareImpl implements GraphQLExecutor {
         }
     }
 
-    private void prepareRequest(GraphQLType parent, Node node, Map<String, Object> variables, PrepareFunction prepareFunction, ContextRequest context) throws Exception {
+    private void prepareRequest(GraphQLType parent, Node node, Map<String, Object> variables, ArrayList<PrepareItem> prepareItems, ContextRequest context) throws Exception {
 //        String parentName1;
 //        if (parent instanceof GraphQLObjectType) {
 //            GraphQLObjectType parentGraphQLObjectType = (GraphQLObjectType) parent;
@@ -301,31 +588,16 @@ public class GraphQLExecutorPrepareImpl implements GraphQLExecutor {
                         variables.keySet()
                 );
 
-                //Собираем какие ресурсы нам необходимы для лока
-                LocationRuntimeComponent runtimeComponentInfo = component.getTransport().getNetworkTransit().getManagerRuntimeComponent().get(rGraphQLObjectTypeField.nodeRuntimeId, rGraphQLObjectTypeField.componentId);
-                if (runtimeComponentInfo == null) {
-                    throw new ClusterRemotePackerException();
-                }
-                RemoteTarget target = new RemoteTarget(rGraphQLObjectTypeField.nodeRuntimeId, rGraphQLObjectTypeField.componentId, runtimeComponentInfo.component().uuid);
-
-                RControllerGraphQLExecutor rControllerGraphQLExecutor = component.getRemotes().getFromCKey(target, RControllerGraphQLExecutor.class);
-                Serializable prepareRequest = rControllerGraphQLExecutor.prepare(
-                        PrepareCustomFieldUtils.getKeyField(field),
-                        parentName,
-                        rGraphQLObjectTypeField.name,
-                        arguments,
-                        context
-                );
-                prepareFunction.prepare(rGraphQLObjectTypeField, prepareRequest);
+                prepareItems.add(new PrepareItem(rGraphQLObjectTypeField, PrepareCustomFieldUtils.getKeyField(field), parentName, arguments, context));
             } else {
-                prepareFunction.prepare(rGraphQLObjectTypeField, null);
+                prepareItems.add(new PrepareItem(rGraphQLObjectTypeField, null, null, null, context));
             }
 
             for (Node iNode : field.getChildren()) {
                 if (parent instanceof GraphQLFieldsContainer) {
-                    prepareRequest(((GraphQLFieldsContainer) parent).getFieldDefinition(field.getName()).getType(), iNode, variables, prepareFunction, context);
+                    prepareRequest(((GraphQLFieldsContainer) parent).getFieldDefinition(field.getName()).getType(), iNode, variables, prepareItems, context);
                 } else if (parent instanceof GraphQLList) {
-                    prepareRequest(parent, iNode, variables, prepareFunction, context);
+                    prepareRequest(parent, iNode, variables, prepareItems, context);
                 } else {
                     throw new RuntimeException("not support parent type: " + parent);
                 }
@@ -334,25 +606,25 @@ public class GraphQLExecutorPrepareImpl implements GraphQLExecutor {
             SelectionSet selectionSetNode = (SelectionSet) node;
             for (Node iNode : selectionSetNode.getChildren()) {
                 if (parent instanceof GraphQLList) {
-                    prepareRequest(((GraphQLList) parent).getWrappedType(), iNode, variables, prepareFunction, context);
+                    prepareRequest(((GraphQLList) parent).getWrappedType(), iNode, variables, prepareItems, context);
                 } else {
-                    prepareRequest(parent, iNode, variables, prepareFunction, context);
+                    prepareRequest(parent, iNode, variables, prepareItems, context);
                 }
             }
         } else if (node instanceof OperationDefinition) {
             OperationDefinition operationDefinitionNode = (OperationDefinition) node;
             for (Node iNode : operationDefinitionNode.getChildren()) {
-                prepareRequest(parent, iNode, variables, prepareFunction, context);
+                prepareRequest(parent, iNode, variables, prepareItems, context);
             }
         } else if (node instanceof FragmentDefinition) {
             FragmentDefinition fragmentDefinition = (FragmentDefinition) node;
             for (Node iNode : fragmentDefinition.getChildren()) {
-                prepareRequest(parent, iNode, variables, prepareFunction, context);
+                prepareRequest(parent, iNode, variables, prepareItems, context);
             }
         } else if (node instanceof InlineFragment) {
             InlineFragment inlineFragment = (InlineFragment) node;
             for (Node iNode : inlineFragment.getChildren()) {
-                prepareRequest(schema.getObjectType(inlineFragment.getTypeCondition().getName()), iNode, variables, prepareFunction, context);
+                prepareRequest(schema.getObjectType(inlineFragment.getTypeCondition().getName()), iNode, variables, prepareItems, context);
             }
         }
     }
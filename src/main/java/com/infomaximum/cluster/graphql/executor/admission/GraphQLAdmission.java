@@ -0,0 +1,224 @@
+package com.infomaximum.cluster.graphql.executor.admission;
+
+import com.infomaximum.cluster.graphql.exception.GraphQLExecutorRejectedException;
+import com.infomaximum.cluster.graphql.struct.ContextRequest;
+import com.infomaximum.cluster.graphql.struct.GRequest;
+import com.infomaximum.cluster.graphql.struct.GRequestPriority;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayDeque;
+import java.util.EnumMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Допуск запросов к выполнению. Сверх maxConcurrentRequests запросы ждут в очереди: освободившееся место
+ * получает запрос с более высоким приоритетом, внутри приоритета - клиенты (RemoteAddress) по очереди.
+ * Запрос, который с момента поступления ждет дольше допустимого для его приоритета, отклоняется -
+ * ответ ему уже бесполезен, а выполнение замедлит остальных
+ */
+public class GraphQLAdmission {
+
+    private static final String UNKNOWN_ADDRESS = "";
+
+    private final GraphQLAdmissionPolicy policy;
+
+    private final ReentrantLock lock;
+    private final EnumMap<GRequestPriority, Lane> lanes;
+
+    private int running;
+    private int queued;
+    private long rejected;
+
+    public GraphQLAdmission(GraphQLAdmissionPolicy policy) {
+        this.policy = policy;
+        this.lock = new ReentrantLock();
+        this.lanes = new EnumMap<>(GRequestPriority.class);
+        for (GRequestPriority priority : GRequestPriority.values()) {
+            lanes.put(priority, new Lane());
+        }
+    }
+
+    /**
+     * Ждем места для выполнения запроса, после выполнения (и requestCompleted) обязателен Permit.close
+     */
+    public Permit admit(ContextRequest context) throws GraphQLExecutorRejectedException {
+        GRequestPriority priority = (context == null || context.getPriority() == null) ? GRequestPriority.NORMAL : context.getPriority();
+        GRequest request = (context == null) ? null : context.getRequest();
+        String address = (request == null || request.getRemoteAddress() == null) ? UNKNOWN_ADDRESS : request.getRemoteAddress().endRemoteAddress;
+
+        long waitNanos = policy.getMaxQueueTime(priority).toNanos();
+        if (request != null && request.getInstant() != null) {
+            //Время в очереди считаем с момента поступления запроса, а не с момента вызова
+            waitNanos -= Duration.between(request.getInstant(), Instant.now()).toNanos();
+        }
+
+        lock.lock();
+        try {
+            if (running < policy.maxConcurrentRequests && queued == 0) {
+                running++;
+                return new Permit();
+            }
+
+            Lane lane = lanes.get(priority);
+            if (waitNanos <= 0) {
+                throw reject("Request queue time exceeded, priority: " + priority);
+            }
+            if (queued >= policy.maxQueueSize) {
+                throw reject("Request queue is full, priority: " + priority);
+            }
+            if (lane.size(address) >= policy.maxQueuePerAddress) {
+                throw reject("Too many queued requests from address: " + address);
+            }
+
+            Waiter waiter = new Waiter(lock.newCondition());
+            lane.add(address, waiter);
+            queued++;
+            try {
+                while (!waiter.admitted) {
+                    if (waitNanos <= 0) {
+                        lane.remove(address, waiter);
+                        queued--;
+                        throw reject("Request queue time exceeded, priority: " + priority);
+                    }
+                    waitNanos = waiter.condition.awaitNanos(waitNanos);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                if (!waiter.admitted) {
+                    lane.remove(address, waiter);
+                    queued--;
+                    throw reject("Interrupted while waiting for admission");
+                }
+            }
+            return new Permit();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private GraphQLExecutorRejectedException reject(String message) {
+        rejected++;
+        return new GraphQLExecutorRejectedException(message);
+    }
+
+    private void release() {
+        lock.lock();
+        try {
+            Waiter next = null;
+            for (Lane lane : lanes.values()) {
+                next = lane.poll();
+                if (next != null) {
+                    break;
+                }
+            }
+            if (next == null) {
+                running--;
+            } else {
+                //Место переходит ожидающему запросу, число выполняемых не меняется
+                queued--;
+                next.admitted = true;
+                next.condition.signal();
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public int getRunning() {
+        lock.lock();
+        try {
+            return running;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public int getQueued() {
+        lock.lock();
+        try {
+            return queued;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public long getRejected() {
+        lock.lock();
+        try {
+            return rejected;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public class Permit implements AutoCloseable {
+
+        private boolean closed;
+
+        private Permit() {
+        }
+
+        @Override
+        public void close() {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            release();
+        }
+    }
+
+    private static class Waiter {
+
+        private final Condition condition;
+        private boolean admitted;
+
+        private Waiter(Condition condition) {
+            this.condition = condition;
+        }
+    }
+
+    /**
+     * Очередь одного приоритета: у каждого клиента своя очередь, клиенты обслуживаются по кругу
+     */
+    private static class Lane {
+
+        private final LinkedHashMap<String, ArrayDeque<Waiter>> waitersByAddress = new LinkedHashMap<>();
+
+        private int size(String address) {
+            ArrayDeque<Waiter> waiters = waitersByAddress.get(address);
+            return (waiters == null) ? 0 : waiters.size();
+        }
+
+        private void add(String address, Waiter waiter) {
+            waitersByAddress.computeIfAbsent(address, key -> new ArrayDeque<>()).add(waiter);
+        }
+
+        private Waiter poll() {
+            Iterator<Map.Entry<String, ArrayDeque<Waiter>>> iterator = waitersByAddress.entrySet().iterator();
+            if (!iterator.hasNext()) {
+                return null;
+            }
+            Map.Entry<String, ArrayDeque<Waiter>> entry = iterator.next();
+            iterator.remove();
+            Waiter waiter = entry.getValue().poll();
+            if (!entry.getValue().isEmpty()) {
+                //Клиент переходит в конец круга
+                waitersByAddress.put(entry.getKey(), entry.getValue());
+            }
+            return waiter;
+        }
+
+        private void remove(String address, Waiter waiter) {
+            ArrayDeque<Waiter> waiters = waitersByAddress.get(address);
+            if (waiters != null && waiters.remove(waiter) && waiters.isEmpty()) {
+                waitersByAddress.remove(address);
+            }
+        }
+    }
+}
@@ -0,0 +1,54 @@
+package com.infomaximum.cluster.graphql.executor.admission;
+
+import com.infomaximum.cluster.graphql.struct.GRequestPriority;
+
+import java.time.Duration;
+
+/**
+ * Параметры допуска запросов к выполнению: сколько запросов выполняется одновременно, сколько ждут в очереди
+ * и сколько времени с момента поступления ({@link com.infomaximum.cluster.graphql.struct.GRequest#getInstant()})
+ * запрос каждого класса приоритета может ждать, прежде чем будет отклонен
+ */
+public class GraphQLAdmissionPolicy {
+
+    public final int maxConcurrentRequests;
+    public final int maxQueueSize;
+    public final int maxQueuePerAddress;
+
+    public final Duration interactiveMaxQueueTime;
+    public final Duration normalMaxQueueTime;
+    public final Duration batchMaxQueueTime;
+
+    /**
+     * @param maxQueuePerAddress сколько запросов одного клиента (RemoteAddress) может ждать в очереди
+     */
+    public GraphQLAdmissionPolicy(
+            int maxConcurrentRequests, int maxQueueSize, int maxQueuePerAddress,
+            Duration interactiveMaxQueueTime, Duration normalMaxQueueTime, Duration batchMaxQueueTime
+    ) {
+        if (maxConcurrentRequests <= 0) {
+            throw new IllegalArgumentException("Max concurrent requests must be > 0: " + maxConcurrentRequests);
+        }
+        if (maxQueueSize < 0 || maxQueuePerAddress < 0) {
+            throw new IllegalArgumentException("Invalid queue size: " + maxQueueSize + ", per address: " + maxQueuePerAddress);
+        }
+        this.maxConcurrentRequests = maxConcurrentRequests;
+        this.maxQueueSize = maxQueueSize;
+        this.maxQueuePerAddress = maxQueuePerAddress;
+
+        this.interactiveMaxQueueTime = interactiveMaxQueueTime;
+        this.normalMaxQueueTime = normalMaxQueueTime;
+        this.batchMaxQueueTime = batchMaxQueueTime;
+    }
+
+    public Duration getMaxQueueTime(GRequestPriority priority) {
+        switch (priority) {
+            case INTERACTIVE:
+                return interactiveMaxQueueTime;
+            case BATCH:
+                return batchMaxQueueTime;
+            default:
+                return normalMaxQueueTime;
+        }
+    }
+}
@@ -0,0 +1,42 @@
+package com.infomaximum.cluster.graphql.executor.admission;
+
+import com.infomaximum.cluster.graphql.exception.GraphQLExecutorRejectedException;
+import com.infomaximum.cluster.graphql.executor.GraphQLExecutor;
+import com.infomaximum.cluster.graphql.executor.struct.GExecutionResult;
+import com.infomaximum.cluster.graphql.struct.ContextRequest;
+import graphql.ExecutionInput;
+import graphql.ExecutionResultImpl;
+
+/**
+ * Исполнитель, выполняющий запросы только после допуска {@link GraphQLAdmission}. Отклоненный запрос
+ * завершается ошибкой {@link GraphQLExecutorRejectedException} без обращения к компонентам.
+ * При выполнении в два этапа (prepare/execute) допуск запрашивается вызывающим до prepare и освобождается после requestCompleted
+ */
+public class GraphQLExecutorAdmission implements GraphQLExecutor {
+
+    private final GraphQLExecutor executor;
+    private final GraphQLAdmission admission;
+
+    public GraphQLExecutorAdmission(GraphQLExecutor executor, GraphQLAdmission admission) {
+        this.executor = executor;
+        this.admission = admission;
+    }
+
+    @Override
+    public GExecutionResult execute(ExecutionInput executionInput) {
+        GraphQLAdmission.Permit permit;
+        try {
+            permit = admission.admit((ContextRequest) executionInput.getContext());
+        } catch (GraphQLExecutorRejectedException e) {
+            return new GExecutionResult(new ExecutionResultImpl(e));
+        }
+        try (permit) {
+            return executor.execute(executionInput);
+        }
+    }
+
+    @Override
+    public void requestCompleted(ContextRequest context) {
+        executor.requestCompleted(context);
+    }
+}
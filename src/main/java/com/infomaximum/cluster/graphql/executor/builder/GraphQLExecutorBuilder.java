@@ -4,7 +4,14 @@ import com.infomaximum.cluster.graphql.exception.GraphQLExecutorException;
 import com.infomaximum.cluster.graphql.executor.GraphQLExecutor;
 import com.infomaximum.cluster.graphql.executor.GraphQLExecutorImpl;
 import com.infomaximum.cluster.graphql.executor.GraphQLExecutorPrepareImpl;
+import com.infomaximum.cluster.graphql.executor.bulkhead.GraphQLBulkheads;
+import com.infomaximum.cluster.graphql.executor.circuitbreaker.GraphQLCircuitBreakers;
 import com.infomaximum.cluster.graphql.executor.component.GraphQLComponentExecutor;
+import com.infomaximum.cluster.graphql.executor.component.GraphQLComponentExecutors;
+import com.infomaximum.cluster.graphql.executor.hedging.GraphQLHedging;
+import com.infomaximum.cluster.graphql.executor.limiter.GraphQLConcurrencyLimiters;
+import com.infomaximum.cluster.graphql.executor.persisted.GraphQLPersistedQueries;
+import com.infomaximum.cluster.graphql.executor.persisted.GraphQLPersistedQueryDocuments;
 import com.infomaximum.cluster.graphql.executor.subscription.GraphQLSubscribeEngineImpl;
 import com.infomaximum.cluster.graphql.remote.graphql.executor.RControllerGraphQLExecutor;
 import com.infomaximum.cluster.graphql.schema.GraphQLSchemaType;
@@ -13,6 +20,7 @@ import com.infomaximum.cluster.graphql.schema.build.MergeGraphQLTypeOutObjectInt
 import com.infomaximum.cluster.graphql.schema.build.graphqltype.TypeGraphQLFieldConfigurationBuilder;
 import com.infomaximum.cluster.graphql.schema.datafetcher.ComponentDataFetcher;
 import com.infomaximum.cluster.graphql.schema.datafetcher.ExtPropertyDataFetcher;
+import com.infomaximum.cluster.graphql.schema.scalartype.GraphQLScalarTypeCustom;
 import com.infomaximum.cluster.graphql.schema.scalartype.GraphQLTypeScalar;
 import com.infomaximum.cluster.graphql.schema.struct.RGraphQLType;
 import com.infomaximum.cluster.graphql.schema.struct.RGraphQLTypeEnum;
@@ -47,6 +55,16 @@ public class GraphQLExecutorBuilder {
     private final GraphQLSchemaType graphQLSchemaType;
     private final GraphQLSubscribeEngineImpl subscribeEngine;
     private final DataFetcherExceptionHandler dataFetcherExceptionHandler;
+    private final GraphQLComponentExecutors localComponentExecutors;
+    private final boolean requestMemoization;
+    private final boolean siblingFieldFusion;
+    private final boolean subtreePushdown;
+    private final boolean clusterSchema;
+    private final GraphQLHedging hedging;
+    private final GraphQLCircuitBreakers circuitBreakers;
+    private final GraphQLConcurrencyLimiters concurrencyLimiters;
+    private final GraphQLBulkheads bulkheads;
+    private final GraphQLPersistedQueries persistedQueries;
 
     private GraphQLComponentExecutor sdkGraphQLItemExecutor;
 
@@ -58,6 +76,19 @@ public class GraphQLExecutorBuilder {
             GraphQLSchemaType graphQLSchemaType,
             GraphQLSubscribeEngineImpl subscribeEngine,
             DataFetcherExceptionHandler dataFetcherExceptionHandler
+    ) {
+        this(component, sdkPackagePaths, customRemoteDataFetcher, fieldConfigurationBuilder, graphQLSchemaType, subscribeEngine, dataFetcherExceptionHandler, new Options());
+    }
+
+    public GraphQLExecutorBuilder(
+            Component component,
+            ArrayList<String> sdkPackagePaths,
+            Constructor customRemoteDataFetcher,
+            TypeGraphQLFieldConfigurationBuilder fieldConfigurationBuilder,
+            GraphQLSchemaType graphQLSchemaType,
+            GraphQLSubscribeEngineImpl subscribeEngine,
+            DataFetcherExceptionHandler dataFetcherExceptionHandler,
+            Options options
     ) {
         this.component = component;
         this.sdkPackagePaths = sdkPackagePaths;
@@ -66,6 +97,86 @@ public class GraphQLExecutorBuilder {
         this.graphQLSchemaType = graphQLSchemaType;
         this.subscribeEngine = subscribeEngine;
         this.dataFetcherExceptionHandler = dataFetcherExceptionHandler;
+        this.localComponentExecutors = options.localComponentExecutors;
+        this.requestMemoization = options.requestMemoization;
+        this.siblingFieldFusion = options.siblingFieldFusion;
+        this.subtreePushdown = options.subtreePushdown;
+        this.clusterSchema = options.clusterSchema;
+        this.hedging = options.hedging;
+        this.circuitBreakers = options.circuitBreakers;
+        this.concurrencyLimiters = options.concurrencyLimiters;
+        this.bulkheads = options.bulkheads;
+        this.persistedQueries = options.persistedQueries;
+    }
+
+    /**
+     * Необязательные возможности исполнителя, по умолчанию все выключены
+     */
+    public static class Options {
+
+        private GraphQLComponentExecutors localComponentExecutors;
+        private boolean requestMemoization;
+        private boolean siblingFieldFusion;
+        private boolean subtreePushdown;
+        private boolean clusterSchema;
+        private GraphQLHedging hedging;
+        private GraphQLCircuitBreakers circuitBreakers;
+        private GraphQLConcurrencyLimiters concurrencyLimiters;
+        private GraphQLBulkheads bulkheads;
+        private GraphQLPersistedQueries persistedQueries;
+
+        public Options withLocalComponentExecutors(GraphQLComponentExecutors localComponentExecutors) {
+            this.localComponentExecutors = localComponentExecutors;
+            return this;
+        }
+
+        public Options withRequestMemoization(boolean requestMemoization) {
+            this.requestMemoization = requestMemoization;
+            return this;
+        }
+
+        public Options withSiblingFieldFusion(boolean siblingFieldFusion) {
+            this.siblingFieldFusion = siblingFieldFusion;
+            return this;
+        }
+
+        public Options withSubtreePushdown(boolean subtreePushdown) {
+            this.subtreePushdown = subtreePushdown;
+            return this;
+        }
+
+        public Options withClusterSchema(boolean clusterSchema) {
+            this.clusterSchema = clusterSchema;
+            return this;
+        }
+
+        public Options withHedging(GraphQLHedging hedging) {
+            this.hedging = hedging;
+            return this;
+        }
+
+        public Options withCircuitBreakers(GraphQLCircuitBreakers circuitBreakers) {
+            this.circuitBreakers = circuitBreakers;
+            return this;
+        }
+
+        public Options withConcurrencyLimiters(GraphQLConcurrencyLimiters concurrencyLimiters) {
+            this.concurrencyLimiters = concurrencyLimiters;
+            return this;
+        }
+
+        public Options withBulkheads(GraphQLBulkheads bulkheads) {
+            this.bulkheads = bulkheads;
+            return this;
+        }
+
+        /**
+         * Общее хранилище текстов сохраняемых запросов, разобранные документы исполнитель хранит сам
+         */
+        public Options withPersistedQueries(GraphQLPersistedQueries persistedQueries) {
+            this.persistedQueries = persistedQueries;
+            return this;
+        }
     }
 
     public GraphQLExecutor build() throws GraphQLExecutorException {
@@ -93,12 +204,13 @@ public class GraphQLExecutorBuilder {
                 }
             }
 
-            //Запрашиваем только у локальных подсистем
+            //Запрашиваем только у локальных подсистем, в схеме кластера - у всех, начиная с локальных
             UUID localNodeRuntimeId = component.getTransport().getCluster().node.getRuntimeId();
-            Collection<RControllerGraphQLExecutor> rControllerGraphQLExecutors = component.getRemotes().getControllers(RControllerGraphQLExecutor.class);
+            List<RControllerGraphQLExecutor> rControllerGraphQLExecutors = new ArrayList<>(component.getRemotes().getControllers(RControllerGraphQLExecutor.class));
+            rControllerGraphQLExecutors.sort(Comparator.comparing(controller -> !localNodeRuntimeId.equals(controller.getNodeRuntimeId())));
             for (RControllerGraphQLExecutor rControllerGraphQLExecutor : rControllerGraphQLExecutors) {
                 //TODO: убрать проверку при переходе на расширяемую graphQl схему
-                if (!localNodeRuntimeId.equals(rControllerGraphQLExecutor.getNodeRuntimeId())) {
+                if (!clusterSchema && !localNodeRuntimeId.equals(rControllerGraphQLExecutor.getNodeRuntimeId())) {
                     continue;
                 }
                 for (RGraphQLType rGraphQLType : rControllerGraphQLExecutor.getGraphQLTypes()) {
@@ -147,7 +259,7 @@ public class GraphQLExecutorBuilder {
                     for (RGraphQLObjectTypeField typeGraphQLField : graphQLTypeOutObject.getFields()) {
                         String[] compositeTypes = typeGraphQLField.type.split(":");
                         for (String compositeType : compositeTypes) {
-                            if ("collection".equals(compositeType)) continue;
+                            if ("collection".equals(compositeType) || "connection".equals(compositeType)) continue;
                             if (!graphQLTypes.containsKey(compositeType)) {
                                 isLoadedDependenciesType = false;
                             }
@@ -190,16 +302,22 @@ public class GraphQLExecutorBuilder {
                     .codeRegistry(codeRegistryBuilder.build())
                     .build();
 
-            GraphQL graphQL = GraphQL.newGraphQL(schema)
+            GraphQL.Builder graphQLBuilder = GraphQL.newGraphQL(schema)
                     .queryExecutionStrategy(new AsyncExecutionStrategy(dataFetcherExceptionHandler))
                     .mutationExecutionStrategy(new AsyncSerialExecutionStrategy(dataFetcherExceptionHandler))
-                    .subscriptionExecutionStrategy(new SubscriptionExecutionStrategy(dataFetcherExceptionHandler))
-                    .build();
+                    .subscriptionExecutionStrategy(new SubscriptionExecutionStrategy(dataFetcherExceptionHandler));
+            if (persistedQueries != null) {
+                //Документы проверены по схеме этого исполнителя - кеш документов у каждого исполнителя свой
+                graphQLBuilder.preparsedDocumentProvider(new GraphQLPersistedQueryDocuments(persistedQueries));
+            }
+            GraphQL graphQL = graphQLBuilder.build();
 
             if (graphQLSchemaType.prepareCustomFields == null || graphQLSchemaType.prepareCustomFields.isEmpty()) {
                 return new GraphQLExecutorImpl(schema, graphQL);
             } else {
-                return new GraphQLExecutorPrepareImpl(component, schema, graphQL, buildGraphQLTypeOutObjects, buildGraphQLTypeOutObjectUnions, graphQLSchemaType);
+                GraphQLExecutorPrepareImpl graphQLExecutor = new GraphQLExecutorPrepareImpl(component, schema, graphQL, buildGraphQLTypeOutObjects, buildGraphQLTypeOutObjectUnions, graphQLSchemaType);
+                graphQLExecutor.setConcurrencyLimiters(concurrencyLimiters);
+                return graphQLExecutor;
             }
         } catch (Throwable throwable) {
             throw new GraphQLExecutorException(throwable);
@@ -238,7 +356,11 @@ public class GraphQLExecutorBuilder {
             }
 
             //Мержим
-            mergeGraphQLTypeOutObject.mergeFields(rTypeGraphQLFields);
+            if (clusterSchema) {
+                mergeGraphQLTypeOutObject.mergeReplicaFields(rTypeGraphQLFields);
+            } else {
+                mergeGraphQLTypeOutObject.mergeFields(rTypeGraphQLFields);
+            }
             mergeGraphQLTypeOutObject.mergeInterfaces(rGraphQLObjectType.getInterfaceGraphQLTypeNames());
 
         } else if (rGraphQLType instanceof RGraphQLTypeOutObjectInterface) {
@@ -262,6 +384,10 @@ public class GraphQLExecutorBuilder {
             Set<RGraphQLInputObjectTypeField> rTypeGraphQLFields = new HashSet<>(rGraphQLInputObjectType.getFields());
 
             if (buildGraphQLTypeInObjects.containsKey(rTypeGraphQLName)) {
+                //В схеме кластера один и тот же компонент может быть запущен на нескольких нодах
+                if (clusterSchema && buildGraphQLTypeInObjects.get(rTypeGraphQLName).equals(rTypeGraphQLFields)) {
+                    return;
+                }
                 throw new GraphQLExecutorException("Not unique name: " + rTypeGraphQLName);
             }
 
@@ -280,7 +406,7 @@ public class GraphQLExecutorBuilder {
         }
 
         for (RGraphQLObjectTypeField typeGraphQLField : graphQLTypeOutObject.getFields()) {
-            GraphQLFieldDefinition graphQLFieldDefinition = buildGraphQLFieldDefinition(codeRegistryBuilder, graphQLTypes, graphQLTypeOutObject.name, typeGraphQLField);
+            GraphQLFieldDefinition graphQLFieldDefinition = buildGraphQLFieldDefinition(codeRegistryBuilder, graphQLTypes, graphQLTypeOutObject.name, typeGraphQLField, graphQLTypeOutObject.getReplicas(typeGraphQLField.externalName));
             graphQLObjectTypeBuilder.field(graphQLFieldDefinition);
         }
 
@@ -294,7 +420,7 @@ public class GraphQLExecutorBuilder {
             for (RGraphQLObjectTypeField typeGraphQLField : mergeGraphQLTypeOutObjectInterface.getFields()) {
                 //TODO необходимо отрефакторить! Логика совершено не очевидна
                 if (!graphQLObjectTypeBuilder.hasField(typeGraphQLField.externalName)) {
-                    GraphQLFieldDefinition graphQLFieldDefinition = buildGraphQLFieldDefinition(codeRegistryBuilder, graphQLTypes, graphQLTypeOutObject.name, typeGraphQLField);
+                    GraphQLFieldDefinition graphQLFieldDefinition = buildGraphQLFieldDefinition(codeRegistryBuilder, graphQLTypes, graphQLTypeOutObject.name, typeGraphQLField, null);
                     graphQLObjectTypeBuilder.field(graphQLFieldDefinition);
                 }
             }
@@ -317,7 +443,7 @@ public class GraphQLExecutorBuilder {
         }
 
         for (RGraphQLObjectTypeField typeGraphQLField : mergeGraphQLTypeOutObjectUnion.getFields()) {
-            GraphQLFieldDefinition graphQLFieldDefinition = buildGraphQLFieldDefinition(codeRegistryBuilder, graphQLTypes, mergeGraphQLTypeOutObjectUnion.name, typeGraphQLField);
+            GraphQLFieldDefinition graphQLFieldDefinition = buildGraphQLFieldDefinition(codeRegistryBuilder, graphQLTypes, mergeGraphQLTypeOutObjectUnion.name, typeGraphQLField, null);
             builder.field(graphQLFieldDefinition);
         }
 
@@ -342,10 +468,10 @@ public class GraphQLExecutorBuilder {
         return graphQLInterfaceType;
     }
 
-    private GraphQLFieldDefinition buildGraphQLFieldDefinition(GraphQLCodeRegistry.Builder codeRegistryBuilder, Map<String, GraphQLType> graphQLTypes, String graphQLTypeName, RGraphQLObjectTypeField typeGraphQLField) {
+    private GraphQLFieldDefinition buildGraphQLFieldDefinition(GraphQLCodeRegistry.Builder codeRegistryBuilder, Map<String, GraphQLType> graphQLTypes, String graphQLTypeName, RGraphQLObjectTypeField typeGraphQLField, List<RGraphQLObjectTypeField> replicas) {
         GraphQLFieldDefinition.Builder graphQLFieldDefinitionBuilder = GraphQLFieldDefinition.newFieldDefinition();
 
-        graphQLFieldDefinitionBuilder.type(getGraphQLOutputType(graphQLTypes, typeGraphQLField.type))
+        graphQLFieldDefinitionBuilder.type(getGraphQLOutputType(codeRegistryBuilder, graphQLTypes, typeGraphQLField.type))
                 .name(typeGraphQLField.externalName);
 
         if (typeGraphQLField.description != null) {
@@ -393,6 +519,15 @@ public class GraphQLExecutorBuilder {
             } else {
                 componentDataFetcher = new ComponentDataFetcher(component.getRemotes(), sdkGraphQLItemExecutor, subscribeEngine, graphQLTypeName, typeGraphQLField);
             }
+            componentDataFetcher.setLocalComponentExecutors(localComponentExecutors);
+            componentDataFetcher.setRequestMemoization(requestMemoization);
+            componentDataFetcher.setSiblingFieldFusion(siblingFieldFusion);
+            componentDataFetcher.setSubtreePushdown(subtreePushdown);
+            componentDataFetcher.setReplicas(replicas);
+            componentDataFetcher.setHedging(hedging);
+            componentDataFetcher.setCircuitBreakers(circuitBreakers);
+            componentDataFetcher.setConcurrencyLimiters(concurrencyLimiters);
+            componentDataFetcher.setBulkheads(bulkheads);
             codeRegistryBuilder.dataFetcher(
                     FieldCoordinates.coordinates(graphQLTypeName, typeGraphQLField.externalName),
                     componentDataFetcher
@@ -446,7 +581,7 @@ public class GraphQLExecutorBuilder {
         return graphQLInputObjectType;
     }
 
-    private GraphQLOutputType getGraphQLOutputType(Map<String, GraphQLType> graphQLTypes, String type) throws GraphQLExecutorException {
+    private GraphQLOutputType getGraphQLOutputType(GraphQLCodeRegistry.Builder codeRegistryBuilder, Map<String, GraphQLType> graphQLTypes, String type) throws GraphQLExecutorException {
         String[] compositeTypes = type.split(":");
         if (compositeTypes.length == 1) {//Это простой объект
             GraphQLType graphQLType = getType(graphQLTypes, type);
@@ -457,11 +592,48 @@ public class GraphQLExecutorBuilder {
             }
         } else if ("collection".equals(compositeTypes[0])) {
             return new GraphQLList(getType(graphQLTypes, compositeTypes[1]));
+        } else if ("connection".equals(compositeTypes[0])) {
+            return buildGraphQLTypeConnection(codeRegistryBuilder, graphQLTypes, compositeTypes[1]);
         } else {
             throw new GraphQLExecutorException("not support");
         }
     }
 
+    /**
+     * Тип страницы коллекции (GConnection), один на тип элементов
+     */
+    private GraphQLOutputType buildGraphQLTypeConnection(GraphQLCodeRegistry.Builder codeRegistryBuilder, Map<String, GraphQLType> graphQLTypes, String itemType) {
+        String graphQLTypeName = itemType + "Connection";
+        GraphQLType graphQLType = graphQLTypes.get(graphQLTypeName);
+        if (graphQLType != null) {
+            return (GraphQLOutputType) graphQLType;
+        }
+
+        GraphQLObjectType graphQLObjectType = GraphQLObjectType.newObject()
+                .name(graphQLTypeName)
+                .field(GraphQLFieldDefinition.newFieldDefinition()
+                        .name("items")
+                        .type(new GraphQLList(getType(graphQLTypes, itemType))))
+                .field(GraphQLFieldDefinition.newFieldDefinition()
+                        .name("endCursor")
+                        .type((GraphQLOutputType) getType(graphQLTypes, GraphQLScalarTypeCustom.GraphQLString.getName())))
+                .field(GraphQLFieldDefinition.newFieldDefinition()
+                        .name("hasNextPage")
+                        .type(new GraphQLNonNull(getType(graphQLTypes, GraphQLScalarTypeCustom.GraphQLBoolean.getName()))))
+                .build();
+        for (String fieldName : new String[]{ "items", "endCursor", "hasNextPage" }) {
+            codeRegistryBuilder.dataFetcher(
+                    FieldCoordinates.coordinates(graphQLTypeName, fieldName),
+                    new ExtPropertyDataFetcher(fieldName)
+            );
+        }
+
+        //Регистрируем этот тип
+        graphQLTypes.put(graphQLTypeName, graphQLObjectType);
+
+        return graphQLObjectType;
+    }
+
     private GraphQLInputType getGraphQLInputType(Map<String, GraphQLType> graphQLTypes, String type) throws GraphQLExecutorException {
         String[] compositeTypes = type.split(":");
         if (compositeTypes.length == 1) {//Это простой объект
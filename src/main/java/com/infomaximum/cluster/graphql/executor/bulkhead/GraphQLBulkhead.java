@@ -0,0 +1,93 @@
+package com.infomaximum.cluster.graphql.executor.bulkhead;
+
+import com.infomaximum.cluster.graphql.exception.GraphQLExecutorOverloadException;
+
+import java.util.UUID;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Ограничение числа потоков, одновременно занятых полями компонента (или группы компонентов):
+ * медленный компонент не может занять все потоки и замедлить поля остальных компонентов
+ */
+public class GraphQLBulkhead {
+
+    private final String name;
+    private final GraphQLBulkheadPolicy policy;
+    private final long maxWaitNanos;
+
+    private final Semaphore semaphore;
+    private final AtomicInteger peakInFlight;
+    private final AtomicLong rejected;
+
+    GraphQLBulkhead(String name, GraphQLBulkheadPolicy policy) {
+        this.name = name;
+        this.policy = policy;
+        this.maxWaitNanos = policy.maxWaitTime.toNanos();
+
+        this.semaphore = new Semaphore(policy.maxConcurrentCalls, true);
+        this.peakInFlight = new AtomicInteger();
+        this.rejected = new AtomicLong();
+    }
+
+    /**
+     * Место для вызова поля компонента, после вызова обязателен release
+     */
+    public void acquire(UUID nodeRuntimeId, int componentId) throws GraphQLExecutorOverloadException {
+        boolean acquired;
+        try {
+            acquired = semaphore.tryAcquire() || (maxWaitNanos > 0 && semaphore.tryAcquire(maxWaitNanos, TimeUnit.NANOSECONDS));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new GraphQLExecutorOverloadException(nodeRuntimeId, componentId, "Interrupted while waiting for bulkhead " + name);
+        }
+        if (!acquired) {
+            rejected.incrementAndGet();
+            throw new GraphQLExecutorOverloadException(nodeRuntimeId, componentId, "Bulkhead " + name + " is full: " + policy.maxConcurrentCalls);
+        }
+        peakInFlight.accumulateAndGet(getInFlight(), Math::max);
+    }
+
+    public void release() {
+        semaphore.release();
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public int getMaxConcurrentCalls() {
+        return policy.maxConcurrentCalls;
+    }
+
+    public int getInFlight() {
+        return policy.maxConcurrentCalls - semaphore.availablePermits();
+    }
+
+    /**
+     * Максимальное число одновременных вызовов с момента запуска
+     */
+    public int getPeakInFlight() {
+        return peakInFlight.get();
+    }
+
+    /**
+     * Сколько вызовов ждут свободного места (оценка)
+     */
+    public int getWaiting() {
+        return semaphore.getQueueLength();
+    }
+
+    public long getRejected() {
+        return rejected.get();
+    }
+
+    /**
+     * Доля занятых мест: 1 - компонент исчерпал свой предел
+     */
+    public double getSaturation() {
+        return (double) getInFlight() / policy.maxConcurrentCalls;
+    }
+}
@@ -0,0 +1,24 @@
+package com.infomaximum.cluster.graphql.executor.bulkhead;
+
+import java.time.Duration;
+
+/**
+ * Параметры изоляции компонента: сколько потоков выполнения запросов одновременно могут быть заняты
+ * его полями. Вызовы сверх предела ждут не дольше maxWaitTime, затем отклоняются
+ */
+public class GraphQLBulkheadPolicy {
+
+    public final int maxConcurrentCalls;
+    public final Duration maxWaitTime;
+
+    public GraphQLBulkheadPolicy(int maxConcurrentCalls, Duration maxWaitTime) {
+        if (maxConcurrentCalls <= 0) {
+            throw new IllegalArgumentException("Max concurrent calls must be > 0: " + maxConcurrentCalls);
+        }
+        if (maxWaitTime.isNegative()) {
+            throw new IllegalArgumentException("Max wait time must be >= 0: " + maxWaitTime);
+        }
+        this.maxConcurrentCalls = maxConcurrentCalls;
+        this.maxWaitTime = maxWaitTime;
+    }
+}
@@ -0,0 +1,61 @@
+package com.infomaximum.cluster.graphql.executor.bulkhead;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Изоляция компонентов: у каждого экземпляра компонента свой предел (defaultPolicy), либо общий предел
+ * у группы - поля перечисленных graphql-типов, независимо от того, какой компонент их реализует
+ */
+public class GraphQLBulkheads {
+
+    private final GraphQLBulkheadPolicy defaultPolicy;
+    private final Map<String, GraphQLBulkhead> groupsByTypeName;
+    private final ConcurrentMap<String, GraphQLBulkhead> bulkheads;
+
+    /**
+     * @param defaultPolicy    предел экземпляра компонента, null - изолируются только группы
+     * @param groupPolicies    группа -> предел
+     * @param groupsByTypeName graphql-тип -> группа
+     */
+    public GraphQLBulkheads(GraphQLBulkheadPolicy defaultPolicy, Map<String, GraphQLBulkheadPolicy> groupPolicies, Map<String, String> groupsByTypeName) {
+        this.defaultPolicy = defaultPolicy;
+        this.bulkheads = new ConcurrentHashMap<>();
+
+        this.groupsByTypeName = new HashMap<>();
+        for (Map.Entry<String, String> entry : groupsByTypeName.entrySet()) {
+            GraphQLBulkheadPolicy groupPolicy = groupPolicies.get(entry.getValue());
+            if (groupPolicy == null) {
+                throw new IllegalArgumentException("Unknown bulkhead group: " + entry.getValue());
+            }
+            this.groupsByTypeName.put(
+                    entry.getKey(),
+                    bulkheads.computeIfAbsent(entry.getValue(), name -> new GraphQLBulkhead(name, groupPolicy))
+            );
+        }
+    }
+
+    /**
+     * Предел для полей graphql-типа, реализуемых экземпляром компонента, null - без изоляции
+     */
+    public GraphQLBulkhead get(String graphQLTypeName, UUID nodeRuntimeId, int componentId) {
+        GraphQLBulkhead groupBulkhead = groupsByTypeName.get(graphQLTypeName);
+        if (groupBulkhead != null) {
+            return groupBulkhead;
+        }
+        if (defaultPolicy == null) {
+            return null;
+        }
+        return bulkheads.computeIfAbsent(nodeRuntimeId + ":" + componentId, name -> new GraphQLBulkhead(name, defaultPolicy));
+    }
+
+    /**
+     * Все пределы: группа (или нода:компонент) -> предел с метриками заполнения
+     */
+    public Map<String, GraphQLBulkhead> getBulkheads() {
+        return new HashMap<>(bulkheads);
+    }
+}
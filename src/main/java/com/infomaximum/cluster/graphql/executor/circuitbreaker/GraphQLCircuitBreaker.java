@@ -0,0 +1,150 @@
+package com.infomaximum.cluster.graphql.executor.circuitbreaker;
+
+import com.infomaximum.cluster.graphql.exception.GraphQLExecutorCircuitOpenException;
+
+import java.util.UUID;
+
+/**
+ * Цепь вызовов одного экземпляра компонента. Закрыта - вызовы выполняются, их исход запоминается;
+ * разомкнута - вызовы сразу завершаются ошибкой; по истечении openDuration пропускается несколько
+ * пробных вызовов: успех замыкает цепь, ошибка снова размыкает
+ */
+public class GraphQLCircuitBreaker {
+
+    public enum State {
+        CLOSED, OPEN, HALF_OPEN
+    }
+
+    /**
+     * Разрешение на вызов. Помнит поколение цепи, в котором выдано: исход вызова, завершившегося после смены
+     * состояния цепи, не учитывается. Пробным является только вызов, допущенный в полуоткрытом состоянии
+     */
+    public static final class Permit {
+
+        private final long generation;
+        private final boolean isProbe;
+
+        private Permit(long generation, boolean isProbe) {
+            this.generation = generation;
+            this.isProbe = isProbe;
+        }
+    }
+
+    private final UUID nodeRuntimeId;
+    private final int componentId;
+    private final GraphQLCircuitBreakerPolicy policy;
+    private final long slowCallNanos;
+    private final long openMillis;
+
+    //Исходы последних вызовов: true - неудачный
+    private final boolean[] outcomes;
+    private int outcomeIndex;
+    private int calls;
+    private int failures;
+
+    private State state;
+    //Увеличивается при каждой смене состояния
+    private long generation;
+    private long openedAt;
+    private int halfOpenInFlight;
+
+    GraphQLCircuitBreaker(UUID nodeRuntimeId, int componentId, GraphQLCircuitBreakerPolicy policy) {
+        this.nodeRuntimeId = nodeRuntimeId;
+        this.componentId = componentId;
+        this.policy = policy;
+        this.slowCallNanos = policy.slowCallDuration.toNanos();
+        this.openMillis = policy.openDuration.toMillis();
+
+        this.outcomes = new boolean[policy.windowSize];
+        this.state = State.CLOSED;
+    }
+
+    public synchronized State getState() {
+        return state;
+    }
+
+    /**
+     * Разрешение на вызов, после вызова обязателен onSuccess, onFailure или onIgnore
+     */
+    public synchronized Permit acquire(long now) throws GraphQLExecutorCircuitOpenException {
+        if (state == State.OPEN) {
+            if (now - openedAt < openMillis) {
+                throw new GraphQLExecutorCircuitOpenException(nodeRuntimeId, componentId);
+            }
+            state = State.HALF_OPEN;
+            generation++;
+            halfOpenInFlight = 0;
+        }
+        if (state == State.HALF_OPEN) {
+            if (halfOpenInFlight >= policy.halfOpenCalls) {
+                throw new GraphQLExecutorCircuitOpenException(nodeRuntimeId, componentId);
+            }
+            halfOpenInFlight++;
+            return new Permit(generation, true);
+        }
+        return new Permit(generation, false);
+    }
+
+    public synchronized void onSuccess(Permit permit, long durationNanos, long now) {
+        if (permit.generation != generation) return;
+        boolean isSlow = (durationNanos > slowCallNanos);
+        if (permit.isProbe) {
+            halfOpenInFlight--;
+            if (isSlow) {
+                open(now);
+            } else {
+                close();
+            }
+        } else {
+            record(isSlow, now);
+        }
+    }
+
+    public synchronized void onFailure(Permit permit, long now) {
+        if (permit.generation != generation) return;
+        if (permit.isProbe) {
+            halfOpenInFlight--;
+            open(now);
+        } else {
+            record(true, now);
+        }
+    }
+
+    /**
+     * Разрешение получено, но вызов не выполнялся
+     */
+    public synchronized void onIgnore(Permit permit) {
+        if (permit.generation == generation && permit.isProbe) {
+            halfOpenInFlight--;
+        }
+    }
+
+    private void record(boolean isFailure, long now) {
+        if (calls == outcomes.length) {
+            if (outcomes[outcomeIndex]) failures--;
+        } else {
+            calls++;
+        }
+        outcomes[outcomeIndex] = isFailure;
+        if (isFailure) failures++;
+        outcomeIndex = (outcomeIndex + 1) % outcomes.length;
+
+        if (calls >= policy.minimumCalls && failures >= policy.failureRateThreshold * calls) {
+            open(now);
+        }
+    }
+
+    private void open(long now) {
+        state = State.OPEN;
+        generation++;
+        openedAt = now;
+    }
+
+    private void close() {
+        state = State.CLOSED;
+        generation++;
+        outcomeIndex = 0;
+        calls = 0;
+        failures = 0;
+    }
+}
@@ -0,0 +1,42 @@
+package com.infomaximum.cluster.graphql.executor.circuitbreaker;
+
+import java.time.Duration;
+
+/**
+ * Условия размыкания цепи компонента: доля ошибок и медленных ответов среди последних вызовов
+ */
+public class GraphQLCircuitBreakerPolicy {
+
+    public final int windowSize;
+    public final int minimumCalls;
+    public final double failureRateThreshold;
+    public final Duration slowCallDuration;
+    public final Duration openDuration;
+    public final int halfOpenCalls;
+
+    /**
+     * @param windowSize           сколько последних вызовов учитывается
+     * @param minimumCalls         цепь не размыкается, пока вызовов меньше
+     * @param failureRateThreshold доля ошибок и медленных вызовов (0..1), при которой цепь размыкается
+     * @param slowCallDuration     вызов дольше считается неудачным
+     * @param openDuration         сколько цепь разомкнута до пробных вызовов
+     * @param halfOpenCalls        число одновременных пробных вызовов
+     */
+    public GraphQLCircuitBreakerPolicy(int windowSize, int minimumCalls, double failureRateThreshold, Duration slowCallDuration, Duration openDuration, int halfOpenCalls) {
+        if (windowSize <= 0 || minimumCalls <= 0 || minimumCalls > windowSize) {
+            throw new IllegalArgumentException("Invalid window: " + windowSize + ", minimum calls: " + minimumCalls);
+        }
+        if (failureRateThreshold <= 0 || failureRateThreshold > 1) {
+            throw new IllegalArgumentException("Failure rate threshold must be in (0, 1]: " + failureRateThreshold);
+        }
+        if (halfOpenCalls <= 0) {
+            throw new IllegalArgumentException("Half-open calls must be positive: " + halfOpenCalls);
+        }
+        this.windowSize = windowSize;
+        this.minimumCalls = minimumCalls;
+        this.failureRateThreshold = failureRateThreshold;
+        this.slowCallDuration = slowCallDuration;
+        this.openDuration = openDuration;
+        this.halfOpenCalls = halfOpenCalls;
+    }
+}
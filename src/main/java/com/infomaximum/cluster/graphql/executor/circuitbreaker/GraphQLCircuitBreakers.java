@@ -0,0 +1,41 @@
+package com.infomaximum.cluster.graphql.executor.circuitbreaker;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Цепи вызовов экземпляров компонентов, общие для всех полей этих компонентов
+ */
+public class GraphQLCircuitBreakers {
+
+    private final GraphQLCircuitBreakerPolicy policy;
+    private final ConcurrentMap<UUID, ConcurrentMap<Integer, GraphQLCircuitBreaker>> circuitBreakers;
+
+    public GraphQLCircuitBreakers(GraphQLCircuitBreakerPolicy policy) {
+        this.policy = policy;
+        this.circuitBreakers = new ConcurrentHashMap<>();
+    }
+
+    public GraphQLCircuitBreaker get(UUID nodeRuntimeId, int componentId) {
+        return circuitBreakers.computeIfAbsent(nodeRuntimeId, key -> new ConcurrentHashMap<>())
+                .computeIfAbsent(componentId, key -> new GraphQLCircuitBreaker(nodeRuntimeId, componentId, policy));
+    }
+
+    /**
+     * Состояние цепей: нода -> компонент -> состояние
+     */
+    public Map<UUID, Map<Integer, GraphQLCircuitBreaker.State>> getStates() {
+        Map<UUID, Map<Integer, GraphQLCircuitBreaker.State>> states = new HashMap<>();
+        for (Map.Entry<UUID, ConcurrentMap<Integer, GraphQLCircuitBreaker>> nodeEntry : circuitBreakers.entrySet()) {
+            Map<Integer, GraphQLCircuitBreaker.State> nodeStates = new HashMap<>();
+            for (Map.Entry<Integer, GraphQLCircuitBreaker> entry : nodeEntry.getValue().entrySet()) {
+                nodeStates.put(entry.getKey(), entry.getValue().getState());
+            }
+            states.put(nodeEntry.getKey(), nodeStates);
+        }
+        return states;
+    }
+}
@@ -0,0 +1,183 @@
+package com.infomaximum.cluster.graphql.executor.coalescing;
+
+import com.infomaximum.cluster.graphql.exception.GraphQLExecutorCancelledException;
+import com.infomaximum.cluster.graphql.exception.GraphQLExecutorDeadlineExceededException;
+import com.infomaximum.cluster.graphql.executor.GraphQLExecutor;
+import com.infomaximum.cluster.graphql.executor.persisted.GraphQLPersistedQueries;
+import com.infomaximum.cluster.graphql.executor.struct.GExecutionResult;
+import com.infomaximum.cluster.graphql.struct.ContextRequest;
+import graphql.ExecutionInput;
+import graphql.ExecutionResultImpl;
+import graphql.GraphQLError;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Одинаковые одновременные запросы (тот же текст, переменные и имя операции) выполняются один раз, результат
+ * получают все ожидающие. Применяется только к перечисленным операциям: это должны быть запросы (query),
+ * результат которых не зависит от контекста (пользователя, прав). Выполняется с контекстом первого запроса.
+ * Каждый ожидающий ждет не дольше своего срока и до своей отмены. Если выполнение первого запроса прервано его
+ * собственной отменой, сроком или исключением, ожидающие выполняют запрос заново
+ */
+public class GraphQLExecutorCoalescing implements GraphQLExecutor {
+
+    //Как часто ожидающий проверяет отмену своего запроса
+    private static final long CANCELLATION_CHECK_INTERVAL_MILLIS = 50;
+
+    private final GraphQLExecutor executor;
+    private final Set<String> operationNames;
+
+    private final ConcurrentMap<Key, CompletableFuture<GExecutionResult>> inFlight;
+    private final AtomicLong executed;
+    private final AtomicLong coalesced;
+
+    public GraphQLExecutorCoalescing(GraphQLExecutor executor, Set<String> operationNames) {
+        this.executor = executor;
+        this.operationNames = Set.copyOf(operationNames);
+        this.inFlight = new ConcurrentHashMap<>();
+        this.executed = new AtomicLong();
+        this.coalesced = new AtomicLong();
+    }
+
+    @Override
+    public GExecutionResult execute(ExecutionInput executionInput) {
+        String operationName = executionInput.getOperationName();
+        if (operationName == null || !operationNames.contains(operationName)) {
+            return executor.execute(executionInput);
+        }
+
+        //Сохраняемый запрос может прийти без текста - тогда запрос определяется хешем
+        String persistedQueryHash = GraphQLPersistedQueries.getHash(executionInput);
+        String query = (persistedQueryHash == null) ? executionInput.getQuery() : "sha256:" + persistedQueryHash.toLowerCase();
+        Key key = new Key(query, operationName, executionInput.getVariables());
+        CompletableFuture<GExecutionResult> future = new CompletableFuture<>();
+        CompletableFuture<GExecutionResult> existing = inFlight.putIfAbsent(key, future);
+        if (existing != null) {
+            coalesced.incrementAndGet();
+            ContextRequest context = getContext(executionInput);
+            GExecutionResult result;
+            try {
+                result = await(existing, context);
+            } catch (GraphQLExecutorCancelledException | GraphQLExecutorDeadlineExceededException e) {
+                return new GExecutionResult(ExecutionResultImpl.newExecutionResult().addError((GraphQLError) e).build());
+            }
+            if (result == null) {
+                //Результат первого запроса зависит от его контекста - выполняем сами
+                return execute(executionInput);
+            }
+            return result;
+        }
+
+        executed.incrementAndGet();
+        GExecutionResult result = null;
+        try {
+            result = executor.execute(executionInput);
+            return result;
+        } finally {
+            ContextRequest context = getContext(executionInput);
+            boolean isShared = result != null
+                    && (context == null || (!context.isCancelled() && !context.isDeadlineExceeded()));
+            //Запросы, пришедшие после завершения (и ожидавшие неразделяемый результат), выполняются заново
+            inFlight.remove(key, future);
+            future.complete(isShared ? result : null);
+        }
+    }
+
+    /**
+     * Контекст запроса, null - запрос выполняется без ContextRequest (сроки и отмена не заданы)
+     */
+    private static ContextRequest getContext(ExecutionInput executionInput) {
+        Object context = executionInput.getContext();
+        return (context instanceof ContextRequest) ? (ContextRequest) context : null;
+    }
+
+    /**
+     * Ожидание чужого выполнения в пределах срока и до отмены своего запроса, null - результат не разделяется
+     */
+    private static GExecutionResult await(CompletableFuture<GExecutionResult> future, ContextRequest context) throws GraphQLExecutorCancelledException, GraphQLExecutorDeadlineExceededException {
+        Instant deadline = (context == null) ? null : context.getDeadline();
+        boolean isInterrupted = false;
+        try {
+            while (true) {
+                if (context != null) {
+                    context.checkCancelled();
+                    context.checkDeadline();
+                }
+                long timeout = CANCELLATION_CHECK_INTERVAL_MILLIS;
+                if (deadline != null) {
+                    timeout = Math.max(1, Math.min(timeout, Duration.between(Instant.now(), deadline).toMillis()));
+                }
+                try {
+                    return future.get(timeout, TimeUnit.MILLISECONDS);
+                } catch (TimeoutException ignore) {
+                } catch (InterruptedException e) {
+                    isInterrupted = true;
+                } catch (ExecutionException e) {
+                    return null;
+                }
+            }
+        } finally {
+            if (isInterrupted) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    @Override
+    public void requestCompleted(ContextRequest context) {
+        executor.requestCompleted(context);
+    }
+
+    /**
+     * Сколько раз операции выполнялись
+     */
+    public long getExecuted() {
+        return executed.get();
+    }
+
+    /**
+     * Сколько запросов получили результат чужого выполнения
+     */
+    public long getCoalesced() {
+        return coalesced.get();
+    }
+
+    private static class Key {
+
+        private final String query;
+        private final String operationName;
+        private final Map<String, Object> variables;
+
+        private Key(String query, String operationName, Map<String, Object> variables) {
+            this.query = query;
+            this.operationName = operationName;
+            this.variables = variables;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (o == null || getClass() != o.getClass()) return false;
+            Key key = (Key) o;
+            return query.equals(key.query)
+                    && operationName.equals(key.operationName)
+                    && Objects.equals(variables, key.variables);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(query, operationName, variables);
+        }
+    }
+}
@@ -4,7 +4,9 @@ import com.infomaximum.cluster.core.remote.struct.RemoteObject;
 import com.infomaximum.cluster.graphql.anotation.GraphQLName;
 import com.infomaximum.cluster.graphql.anotation.GraphQLSource;
 import com.infomaximum.cluster.graphql.anotation.GraphQLTypeInput;
+import com.infomaximum.cluster.graphql.exception.GraphQLExecutorCancelledException;
 import com.infomaximum.cluster.graphql.exception.GraphQLExecutorDataFetcherException;
+import com.infomaximum.cluster.graphql.exception.GraphQLExecutorDeadlineExceededException;
 import com.infomaximum.cluster.graphql.exception.GraphQLExecutorException;
 import com.infomaximum.cluster.graphql.exception.GraphQLExecutorInvalidSyntaxException;
 import com.infomaximum.cluster.graphql.fieldargument.custom.CustomFieldArgument;
@@ -12,11 +14,16 @@ import com.infomaximum.cluster.graphql.preparecustomfield.PrepareCustomField;
 import com.infomaximum.cluster.graphql.schema.GraphQLSchemaType;
 import com.infomaximum.cluster.graphql.schema.build.graphqltype.TypeGraphQLBuilder;
 import com.infomaximum.cluster.graphql.schema.build.graphqltype.TypeGraphQLFieldConfigurationBuilder;
+import com.infomaximum.cluster.graphql.schema.datafetcher.utils.ExtResult;
 import com.infomaximum.cluster.graphql.schema.scalartype.GraphQLTypeScalar;
 import com.infomaximum.cluster.graphql.schema.struct.RGraphQLType;
+import com.infomaximum.cluster.graphql.schema.struct.out.RGraphQLSelection;
+import com.infomaximum.cluster.graphql.schema.struct.out.RGraphQLSelectionNode;
 import com.infomaximum.cluster.graphql.struct.ContextRequest;
 import com.infomaximum.cluster.graphql.struct.GOptional;
+import com.infomaximum.cluster.graphql.struct.GPage;
 import com.infomaximum.cluster.graphql.struct.GRequest;
+import com.infomaximum.cluster.graphql.struct.GSelectionSet;
 import com.infomaximum.cluster.graphql.struct.GSubscribeEvent;
 import com.infomaximum.cluster.graphql.utils.ReflectionUtils;
 import com.infomaximum.cluster.graphql.utils.Utils;
@@ -95,6 +102,7 @@ public class GraphQLComponentExecutor {
     }
 
     public Serializable executePrepare(String keyField, RemoteObject source, ContextRequest context) {
+        checkDeadline(context);
         if (graphQLSchemaType.prepareCustomFields.size() != 1)
             throw new RuntimeException("Not implemented support many prepareCustomFields");
 
@@ -111,7 +119,82 @@ public class GraphQLComponentExecutor {
         }
     }
 
+    /**
+     * Несколько полей одного объекта за один вызов, результаты в порядке полей
+     */
+    public ArrayList<Serializable> executeFields(RemoteObject source, String graphQLTypeName, ArrayList<String> graphQLTypeFieldNames, ArrayList<HashMap<String, Serializable>> arguments, ContextRequest context) throws GraphQLExecutorDataFetcherException {
+        ArrayList<Serializable> results = new ArrayList<>(graphQLTypeFieldNames.size());
+        for (int i = 0; i < graphQLTypeFieldNames.size(); i++) {
+            results.add(execute(source, graphQLTypeName, graphQLTypeFieldNames.get(i), arguments.get(i), context));
+        }
+        return results;
+    }
+
+    /**
+     * Вычисляем поле вместе с вложенными полями, результат - значения или RGraphQLSelectionNode
+     */
+    public Serializable executeSelection(RemoteObject source, RGraphQLSelection selection, ContextRequest context) throws GraphQLExecutorDataFetcherException {
+        Object value = executeGraphQLMethod(source, selection.graphQLTypeName, selection.name, selection.arguments, context);
+        return shape(value, selection.children, context);
+    }
+
+    private Serializable shape(Object value, ArrayList<RGraphQLSelection> children, ContextRequest context) throws GraphQLExecutorDataFetcherException {
+        value = ExtResult.get(value);
+        if (value == null || children == null) {
+            return (Serializable) value;
+        }
+        if (value instanceof Collection) {
+            ArrayList<Serializable> items = new ArrayList<>(((Collection) value).size());
+            for (Object item : (Collection) value) {
+                items.add(shape(item, children, context));
+            }
+            return items;
+        }
+
+        HashMap<String, Serializable> values = new HashMap<>();
+        for (RGraphQLSelection child : children) {
+            Object childValue;
+            if (child.isField) {
+                childValue = readField(value, child.name);
+            } else {
+                childValue = executeGraphQLMethod(value, child.graphQLTypeName, child.name, child.arguments, context);
+            }
+            values.put(child.resultKey, shape(childValue, child.children, context));
+        }
+        return new RGraphQLSelectionNode(values);
+    }
+
+    private static Object readField(Object object, String name) {
+        for (Class clazz = object.getClass(); clazz != null; clazz = clazz.getSuperclass()) {
+            try {
+                Field field = clazz.getDeclaredField(name);
+                field.setAccessible(true);
+                return field.get(object);
+            } catch (NoSuchFieldException ignore) {
+            } catch (IllegalAccessException e) {
+                throw new RuntimeException(e);
+            }
+        }
+        throw new RuntimeException("Not found field: " + name + " in class " + object.getClass().getName());
+    }
+
+    /**
+     * Клиент уже не ждет ответа - метод не вызываем. Ошибка передается как ошибка поля, а не сбой компонента
+     */
+    private static void checkDeadline(ContextRequest context) throws GraphQLExecutorDataFetcherException {
+        if (context == null) {
+            return;
+        }
+        if (context.isCancelled()) {
+            throw new GraphQLExecutorDataFetcherException(new GraphQLExecutorCancelledException());
+        }
+        if (context.isDeadlineExceeded()) {
+            throw new GraphQLExecutorDataFetcherException(new GraphQLExecutorDeadlineExceededException(context.getDeadline()));
+        }
+    }
+
     private Object executeGraphQLMethod(Object source, String graphQLTypeName, String graphQLTypeFieldName, Map<String, Serializable> arguments, ContextRequest context) throws GraphQLExecutorDataFetcherException {
+        checkDeadline(context);
         try {
             Method method = getMethod(graphQLTypeName, graphQLTypeFieldName);
 
@@ -152,6 +235,10 @@ public class GraphQLComponentExecutor {
                     Class classType = methodParameterTypes[index];
                     if (GRequest.class.isAssignableFrom(classType)) {
                         argumentValue = context.getRequest();
+                    } else if (GPage.class.isAssignableFrom(classType)) {
+                        argumentValue = GPage.of((Integer) arguments.get(GPage.ARGUMENT_FIRST), (String) arguments.get(GPage.ARGUMENT_AFTER));
+                    } else if (GSelectionSet.class.isAssignableFrom(classType)) {
+                        argumentValue = arguments.get(GSelectionSet.ARGUMENT_NAME);
                     } else {
                         boolean isSuccessFindEnvironment = false;
                         if (graphQLSchemaType != null) {
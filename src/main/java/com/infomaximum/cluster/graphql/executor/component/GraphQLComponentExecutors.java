@@ -0,0 +1,31 @@
+package com.infomaximum.cluster.graphql.executor.component;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Исполнители graphql-полей компонентов текущей ноды. Через них поля локальных компонентов
+ * вызываются напрямую, без упаковки аргументов и результата удаленным вызовом.
+ * При остановке компонента исполнитель не снимается с регистрации: перед каждым вызовом
+ * ComponentDataFetcher сверяется с живыми компонентами ноды и сам снимает исполнитель остановленного компонента
+ */
+public class GraphQLComponentExecutors {
+
+    private final ConcurrentMap<Integer, GraphQLComponentExecutor> executors;
+
+    public GraphQLComponentExecutors() {
+        this.executors = new ConcurrentHashMap<>();
+    }
+
+    public void register(int componentId, GraphQLComponentExecutor executor) {
+        executors.put(componentId, executor);
+    }
+
+    public void unregister(int componentId, GraphQLComponentExecutor executor) {
+        executors.remove(componentId, executor);
+    }
+
+    public GraphQLComponentExecutor get(int componentId) {
+        return executors.get(componentId);
+    }
+}
@@ -0,0 +1,266 @@
+package com.infomaximum.cluster.graphql.executor.hedging;
+
+import com.infomaximum.cluster.graphql.exception.GraphQLExecutorDeadlineExceededException;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Дублирование медленных вызовов идемпотентных полей в другой экземпляр компонента: берется тот ответ,
+ * который пришел первым. Задержка перед дублем считается по последним вызовам каждого поля,
+ * число дублей ограничено долей вызовов поля и числом одновременно выполняющихся дублей
+ */
+public class GraphQLHedging implements AutoCloseable {
+
+    //Дубль не отправляется, пока по полю не накоплено столько замеров
+    private static final int MIN_SAMPLES = 16;
+    private static final int WINDOW_SAMPLES = 128;
+    //Перцентиль пересчитывается раз в столько замеров
+    private static final int RECALCULATE_SAMPLES = 16;
+
+    public static class Field {
+
+        private final double percentile;
+        private final long minDelayNanos;
+        private final double budget;
+
+        private final long[] samples;
+        private int sampleIndex;
+        private int sampleCount;
+        private volatile long delayNanos;
+
+        private final LongAdder requests;
+        private final LongAdder hedges;
+        private final LongAdder hedgeWins;
+
+        private Field(GraphQLHedgingPolicy policy) {
+            this.percentile = policy.percentile;
+            this.minDelayNanos = policy.minDelay.toNanos();
+            this.budget = policy.budget;
+
+            this.samples = new long[WINDOW_SAMPLES];
+            this.delayNanos = -1;
+
+            this.requests = new LongAdder();
+            this.hedges = new LongAdder();
+            this.hedgeWins = new LongAdder();
+        }
+
+        private synchronized void record(long latencyNanos) {
+            samples[sampleIndex] = latencyNanos;
+            sampleIndex = (sampleIndex + 1) % samples.length;
+            sampleCount++;
+            if (sampleCount >= MIN_SAMPLES && sampleCount % RECALCULATE_SAMPLES == 0) {
+                long[] window = Arrays.copyOf(samples, Math.min(sampleCount, samples.length));
+                Arrays.sort(window);
+                int index = (int) Math.ceil(percentile / 100 * window.length) - 1;
+                delayNanos = Math.max(minDelayNanos, window[Math.max(index, 0)]);
+            }
+        }
+
+        private boolean tryHedge() {
+            if (hedges.sum() + 1 > budget * requests.sum()) return false;
+            hedges.increment();
+            return true;
+        }
+    }
+
+    /**
+     * Один вызов поля: основной вызов выполняется в вызывающем потоке, дубль - в пуле. Если дубль ответил первым,
+     * вызывающий поток прерывается, чтобы не дожидаться основного вызова
+     */
+    private static class Execution<T> {
+
+        private static final int PRIMARY_RUNNING = 0;
+        private static final int PRIMARY_DONE = 1;
+        private static final int PRIMARY_INTERRUPTING = 2;
+        private static final int PRIMARY_INTERRUPTED = 3;
+
+        private final Thread caller;
+        private final AtomicInteger state;
+        private final CompletableFuture<T> hedgeResult;
+        private volatile boolean hedgeStarted;
+
+        private Execution() {
+            this.caller = Thread.currentThread();
+            this.state = new AtomicInteger(PRIMARY_RUNNING);
+            this.hedgeResult = new CompletableFuture<>();
+        }
+
+        private boolean isPrimaryRunning() {
+            return state.get() == PRIMARY_RUNNING;
+        }
+
+        /**
+         * @return true - дубль ответил раньше основного вызова
+         */
+        private boolean hedgeCompleted(T value) {
+            hedgeResult.complete(value);
+            if (!state.compareAndSet(PRIMARY_RUNNING, PRIMARY_INTERRUPTING)) return false;
+            caller.interrupt();
+            state.set(PRIMARY_INTERRUPTED);
+            return true;
+        }
+
+        /**
+         * Основной вызов завершен - снимаем прерывание, если его успел выставить дубль
+         */
+        private void primaryDone() {
+            if (state.compareAndSet(PRIMARY_RUNNING, PRIMARY_DONE)) return;
+            while (state.get() != PRIMARY_INTERRUPTED) {
+                Thread.onSpinWait();
+            }
+            Thread.interrupted();
+        }
+    }
+
+    private final GraphQLHedgingPolicy policy;
+    private final ConcurrentMap<String, Field> fields;
+    private final ScheduledThreadPoolExecutor scheduler;
+    private final ThreadPoolExecutor executorService;
+
+    public GraphQLHedging(GraphQLHedgingPolicy policy) {
+        this.policy = policy;
+        this.fields = new ConcurrentHashMap<>();
+        this.scheduler = new ScheduledThreadPoolExecutor(1, runnable -> {
+            Thread thread = new Thread(runnable, "GraphQLHedgingScheduler");
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.scheduler.setRemoveOnCancelPolicy(true);
+        //Без очереди: если все потоки заняты, дубль не отправляется
+        this.executorService = new ThreadPoolExecutor(0, policy.maxConcurrentHedges, 60, TimeUnit.SECONDS, new SynchronousQueue<>(), runnable -> {
+            Thread thread = new Thread(runnable, "GraphQLHedging");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    public Field getField(String graphQLTypeName, String graphQLTypeFieldName) {
+        return fields.computeIfAbsent(graphQLTypeName + "." + graphQLTypeFieldName, key -> new Field(policy));
+    }
+
+    /**
+     * @param deadline время, после которого ответ дубля не ждем, null - без ограничения
+     * @param hedge    возвращает вызов другого экземпляра, null - других экземпляров нет
+     */
+    public <T> T execute(Field field, Instant deadline, Callable<T> primary, Callable<Callable<T>> hedge) throws Exception {
+        field.requests.increment();
+        long delayNanos = field.delayNanos;
+        if (delayNanos < 0) {
+            //Замеров еще мало - вызываем как обычно
+            long start = System.nanoTime();
+            T result = primary.call();
+            field.record(System.nanoTime() - start);
+            return result;
+        }
+
+        Execution<T> execution = new Execution<>();
+        ScheduledFuture<?> hedgeTimer;
+        try {
+            hedgeTimer = scheduler.schedule(() -> startHedge(field, hedge, execution), delayNanos, TimeUnit.NANOSECONDS);
+        } catch (RejectedExecutionException e) {
+            //Остановлен - вызываем как обычно
+            return primary.call();
+        }
+
+        long start = System.nanoTime();
+        T value;
+        try {
+            value = primary.call();
+        } catch (Exception primaryException) {
+            hedgeTimer.cancel(false);
+            execution.primaryDone();
+            if (!execution.hedgeStarted) {
+                throw primaryException;
+            }
+            //Основной вызов завершился ошибкой (или прерван ответившим дублем) - результат за дублем
+            try {
+                return await(execution.hedgeResult, deadline);
+            } catch (GraphQLExecutorDeadlineExceededException | InterruptedException e) {
+                throw e;
+            } catch (Exception hedgeException) {
+                throw primaryException;
+            }
+        } catch (Throwable t) {
+            hedgeTimer.cancel(false);
+            execution.primaryDone();
+            throw t;
+        }
+        hedgeTimer.cancel(false);
+        execution.primaryDone();
+        field.record(System.nanoTime() - start);
+        return value;
+    }
+
+    private <T> void startHedge(Field field, Callable<Callable<T>> hedge, Execution<T> execution) {
+        if (!execution.isPrimaryRunning() || !field.tryHedge()) return;
+        Callable<T> hedgeCall;
+        try {
+            hedgeCall = hedge.call();
+        } catch (Throwable t) {
+            return;
+        }
+        if (hedgeCall == null) return;
+
+        execution.hedgeStarted = true;
+        try {
+            executorService.execute(() -> {
+                try {
+                    if (execution.hedgeCompleted(hedgeCall.call())) {
+                        field.hedgeWins.increment();
+                    }
+                } catch (Throwable t) {
+                    execution.hedgeResult.completeExceptionally(t);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            //Одновременно выполняется предельное число дублей
+            field.hedges.decrement();
+            execution.hedgeResult.completeExceptionally(e);
+        }
+    }
+
+    private static <T> T await(CompletableFuture<T> result, Instant deadline) throws Exception {
+        try {
+            if (deadline == null) {
+                return result.get();
+            }
+            long timeoutNanos = Duration.between(Instant.now(), deadline).toNanos();
+            return result.get(Math.max(timeoutNanos, 0), TimeUnit.NANOSECONDS);
+        } catch (TimeoutException e) {
+            throw new GraphQLExecutorDeadlineExceededException(deadline);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof Exception) {
+                throw (Exception) cause;
+            }
+            throw new RuntimeException(cause);
+        }
+    }
+
+    public GraphQLHedgingStatistics getStatistics() {
+        Map<String, GraphQLHedgingStatistics.FieldStatistics> result = new HashMap<>();
+        for (Map.Entry<String, Field> entry : fields.entrySet()) {
+            Field field = entry.getValue();
+            long delayNanos = field.delayNanos;
+            result.put(entry.getKey(), new GraphQLHedgingStatistics.FieldStatistics(
+                    field.requests.sum(), field.hedges.sum(), field.hedgeWins.sum(),
+                    (delayNanos < 0) ? null : Duration.ofNanos(delayNanos)
+            ));
+        }
+        return new GraphQLHedgingStatistics(result);
+    }
+
+    @Override
+    public void close() {
+        scheduler.shutdownNow();
+        executorService.shutdownNow();
+    }
+}
@@ -0,0 +1,43 @@
+package com.infomaximum.cluster.graphql.executor.hedging;
+
+import java.time.Duration;
+
+/**
+ * Политика дублирования медленных вызовов полей: если ответ не пришел за время, в которое укладывается
+ * заданный перцентиль последних вызовов поля, тот же вызов отправляется в другой экземпляр компонента
+ */
+public class GraphQLHedgingPolicy {
+
+    public static final int DEFAULT_MAX_CONCURRENT_HEDGES = 64;
+
+    public final double percentile;
+    public final Duration minDelay;
+    public final double budget;
+    public final int maxConcurrentHedges;
+
+    public GraphQLHedgingPolicy(double percentile, Duration minDelay, double budget) {
+        this(percentile, minDelay, budget, DEFAULT_MAX_CONCURRENT_HEDGES);
+    }
+
+    /**
+     * @param percentile          перцентиль задержки последних вызовов поля (0..100), после которой отправляется дубль
+     * @param minDelay            дубль не отправляется раньше этого времени
+     * @param budget              доля вызовов поля, которые можно продублировать (0..1)
+     * @param maxConcurrentHedges сколько дублей может выполняться одновременно, сверх этого дубли не отправляются
+     */
+    public GraphQLHedgingPolicy(double percentile, Duration minDelay, double budget, int maxConcurrentHedges) {
+        if (percentile <= 0 || percentile > 100) {
+            throw new IllegalArgumentException("Percentile must be in (0, 100]: " + percentile);
+        }
+        if (budget < 0 || budget > 1) {
+            throw new IllegalArgumentException("Budget must be in [0, 1]: " + budget);
+        }
+        if (maxConcurrentHedges <= 0) {
+            throw new IllegalArgumentException("Max concurrent hedges must be positive: " + maxConcurrentHedges);
+        }
+        this.percentile = percentile;
+        this.minDelay = minDelay;
+        this.budget = budget;
+        this.maxConcurrentHedges = maxConcurrentHedges;
+    }
+}
@@ -0,0 +1,65 @@
+package com.infomaximum.cluster.graphql.executor.hedging;
+
+import java.time.Duration;
+import java.util.Collections;
+import java.util.Map;
+
+/**
+ * Снимок счетчиков дублирования вызовов по полям ("тип.поле"). Счетчики накопительные
+ */
+public class GraphQLHedgingStatistics {
+
+    public static class FieldStatistics {
+
+        private final long requests;
+        private final long hedges;
+        private final long hedgeWins;
+        private final Duration delay;
+
+        FieldStatistics(long requests, long hedges, long hedgeWins, Duration delay) {
+            this.requests = requests;
+            this.hedges = hedges;
+            this.hedgeWins = hedgeWins;
+            this.delay = delay;
+        }
+
+        public long getRequests() {
+            return requests;
+        }
+
+        /**
+         * Отправленные дубли
+         */
+        public long getHedges() {
+            return hedges;
+        }
+
+        /**
+         * Дубли, ответ на которые пришел раньше основного вызова
+         */
+        public long getHedgeWins() {
+            return hedgeWins;
+        }
+
+        public double getHedgeWinRate() {
+            return (hedges == 0) ? 0 : (double) hedgeWins / hedges;
+        }
+
+        /**
+         * Текущая задержка перед отправкой дубля, null - пока недостаточно замеров
+         */
+        public Duration getDelay() {
+            return delay;
+        }
+    }
+
+    private final Map<String, FieldStatistics> fields;
+
+    GraphQLHedgingStatistics(Map<String, FieldStatistics> fields) {
+        this.fields = Collections.unmodifiableMap(fields);
+    }
+
+    public Map<String, FieldStatistics> getFields() {
+        return fields;
+    }
+}
@@ -0,0 +1,41 @@
+package com.infomaximum.cluster.graphql.executor.limiter;
+
+import java.time.Duration;
+
+/**
+ * Параметры адаптивного предела одновременных вызовов экземпляра компонента (AIMD): пока время ответа
+ * близко к минимальному, предел растет на единицу за "окно" вызовов; когда ответы замедляются
+ * или компонент падает - предел уменьшается в backoffRatio раз
+ */
+public class GraphQLConcurrencyLimitPolicy {
+
+    public final int initialLimit;
+    public final int minLimit;
+    public final int maxLimit;
+    public final double latencyTolerance;
+    public final double backoffRatio;
+    public final Duration maxQueueTime;
+
+    /**
+     * @param latencyTolerance во сколько раз время ответа может превышать минимальное, не считаясь перегрузкой
+     * @param backoffRatio     множитель предела при перегрузке (0..1)
+     * @param maxQueueTime     сколько вызов ждет свободного места, затем отклоняется
+     */
+    public GraphQLConcurrencyLimitPolicy(int initialLimit, int minLimit, int maxLimit, double latencyTolerance, double backoffRatio, Duration maxQueueTime) {
+        if (minLimit <= 0 || minLimit > initialLimit || initialLimit > maxLimit) {
+            throw new IllegalArgumentException("Invalid limits: " + minLimit + " <= " + initialLimit + " <= " + maxLimit);
+        }
+        if (latencyTolerance < 1) {
+            throw new IllegalArgumentException("Latency tolerance must be >= 1: " + latencyTolerance);
+        }
+        if (backoffRatio <= 0 || backoffRatio >= 1) {
+            throw new IllegalArgumentException("Backoff ratio must be in (0, 1): " + backoffRatio);
+        }
+        this.initialLimit = initialLimit;
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.latencyTolerance = latencyTolerance;
+        this.backoffRatio = backoffRatio;
+        this.maxQueueTime = maxQueueTime;
+    }
+}
@@ -0,0 +1,128 @@
+package com.infomaximum.cluster.graphql.executor.limiter;
+
+import com.infomaximum.cluster.graphql.exception.GraphQLExecutorOverloadException;
+
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Адаптивный предел одновременных вызовов одного экземпляра компонента. Вызовы сверх предела ждут
+ * освобождения места не дольше maxQueueTime, затем отклоняются {@link GraphQLExecutorOverloadException}
+ */
+public class GraphQLConcurrencyLimiter {
+
+    //Минимальное время ответа сбрасывается раз в столько замеров, чтобы следовать за изменением нагрузки
+    private static final int MIN_RTT_RESET_SAMPLES = 1000;
+
+    private final UUID nodeRuntimeId;
+    private final int componentId;
+    private final GraphQLConcurrencyLimitPolicy policy;
+    private final long maxQueueNanos;
+
+    private double limit;
+    private int inFlight;
+    private int queued;
+
+    private long minRtt;
+    private int samples;
+
+    private long rejected;
+
+    GraphQLConcurrencyLimiter(UUID nodeRuntimeId, int componentId, GraphQLConcurrencyLimitPolicy policy) {
+        this.nodeRuntimeId = nodeRuntimeId;
+        this.componentId = componentId;
+        this.policy = policy;
+        this.maxQueueNanos = policy.maxQueueTime.toNanos();
+
+        this.limit = policy.initialLimit;
+        this.minRtt = Long.MAX_VALUE;
+    }
+
+    /**
+     * Место для вызова, после вызова обязателен onSuccess, onOverload или onIgnore
+     */
+    public synchronized void acquire() throws GraphQLExecutorOverloadException {
+        if (inFlight < getLimit()) {
+            inFlight++;
+            return;
+        }
+
+        long deadline = System.nanoTime() + maxQueueNanos;
+        queued++;
+        try {
+            while (inFlight >= getLimit()) {
+                long waitNanos = deadline - System.nanoTime();
+                if (waitNanos <= 0) {
+                    rejected++;
+                    throw new GraphQLExecutorOverloadException(nodeRuntimeId, componentId, "Concurrency limit exceeded: " + getLimit());
+                }
+                TimeUnit.NANOSECONDS.timedWait(this, waitNanos);
+            }
+            inFlight++;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new GraphQLExecutorOverloadException(nodeRuntimeId, componentId, "Interrupted while waiting for concurrency limit");
+        } finally {
+            queued--;
+        }
+    }
+
+    /**
+     * Компонент ответил (в т.ч. ошибкой бизнес-логики)
+     */
+    public synchronized void onSuccess(long rttNanos) {
+        boolean isUtilized = (inFlight * 2 >= getLimit());
+        inFlight--;
+
+        if (++samples % MIN_RTT_RESET_SAMPLES == 0) {
+            minRtt = rttNanos;
+        } else {
+            minRtt = Math.min(minRtt, rttNanos);
+        }
+
+        if (rttNanos > minRtt * policy.latencyTolerance) {
+            decrease();
+        } else if (isUtilized) {
+            //Аддитивный рост: примерно +1 за каждые limit успешных вызовов
+            limit = Math.min(policy.maxLimit, limit + 1 / limit);
+        }
+        notifyAll();
+    }
+
+    /**
+     * Компонент не ответил (сбой транспорта, таймаут)
+     */
+    public synchronized void onOverload() {
+        inFlight--;
+        decrease();
+        notifyAll();
+    }
+
+    /**
+     * Вызов не дошел до компонента и ничего не говорит о его нагрузке
+     */
+    public synchronized void onIgnore() {
+        inFlight--;
+        notifyAll();
+    }
+
+    private void decrease() {
+        limit = Math.max(policy.minLimit, limit * policy.backoffRatio);
+    }
+
+    public synchronized int getLimit() {
+        return (int) limit;
+    }
+
+    public synchronized int getInFlight() {
+        return inFlight;
+    }
+
+    public synchronized int getQueued() {
+        return queued;
+    }
+
+    public synchronized long getRejected() {
+        return rejected;
+    }
+}
@@ -0,0 +1,24 @@
+package com.infomaximum.cluster.graphql.executor.limiter;
+
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Адаптивные пределы вызовов экземпляров компонентов, общие для всех полей этих компонентов
+ */
+public class GraphQLConcurrencyLimiters {
+
+    private final GraphQLConcurrencyLimitPolicy policy;
+    private final ConcurrentMap<UUID, ConcurrentMap<Integer, GraphQLConcurrencyLimiter>> limiters;
+
+    public GraphQLConcurrencyLimiters(GraphQLConcurrencyLimitPolicy policy) {
+        this.policy = policy;
+        this.limiters = new ConcurrentHashMap<>();
+    }
+
+    public GraphQLConcurrencyLimiter get(UUID nodeRuntimeId, int componentId) {
+        return limiters.computeIfAbsent(nodeRuntimeId, key -> new ConcurrentHashMap<>())
+                .computeIfAbsent(componentId, key -> new GraphQLConcurrencyLimiter(nodeRuntimeId, componentId, policy));
+    }
+}
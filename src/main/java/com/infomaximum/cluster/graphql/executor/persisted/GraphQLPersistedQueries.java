@@ -0,0 +1,111 @@
+package com.infomaximum.cluster.graphql.executor.persisted;
+
+import com.infomaximum.cluster.graphql.exception.GraphQLExecutorPersistedQueryNotFoundException;
+import graphql.ExecutionInput;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Автоматически сохраняемые запросы: клиент присылает SHA-256 хеш текста запроса в расширении
+ * {@code persistedQuery.sha256Hash}, текст запроса передается только при первом обращении (регистрации).
+ * Здесь хранится только текст запроса по хешу - общий для всех исполнителей. Разобранные документы зависят
+ * от схемы и хранятся у каждого исполнителя отдельно ({@link GraphQLPersistedQueryDocuments}).
+ * Если хеш неизвестен, запрос завершается ошибкой {@link GraphQLExecutorPersistedQueryNotFoundException}
+ * и клиент повторяет его с полным текстом. Хранилище ограничено, вытесняются давно не используемые запросы
+ */
+public class GraphQLPersistedQueries {
+
+    public static final String EXTENSION_PERSISTED_QUERY = "persistedQuery";
+    public static final String EXTENSION_SHA256_HASH = "sha256Hash";
+
+    private final int maxSize;
+    private final Map<String, String> queries;
+
+    public GraphQLPersistedQueries(int maxSize) {
+        if (maxSize <= 0) {
+            throw new IllegalArgumentException("maxSize: " + maxSize);
+        }
+        this.maxSize = maxSize;
+        this.queries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, String> eldest) {
+                return size() > GraphQLPersistedQueries.this.maxSize;
+            }
+        };
+    }
+
+    /**
+     * Текст запроса по хешу. Если передан текст - проверяется соответствие хешу и запрос регистрируется
+     */
+    public String resolve(String hash, String query) throws GraphQLExecutorPersistedQueryNotFoundException {
+        String key = hash.toLowerCase();
+        if (isEmpty(query)) {
+            String registered;
+            synchronized (queries) {
+                registered = queries.get(key);
+            }
+            if (registered == null) {
+                throw new GraphQLExecutorPersistedQueryNotFoundException(hash);
+            }
+            return registered;
+        }
+
+        if (!key.equals(hash(query))) {
+            throw new IllegalArgumentException("Provided sha256Hash does not match query");
+        }
+        synchronized (queries) {
+            String registered = queries.putIfAbsent(key, query);
+            return (registered == null) ? query : registered;
+        }
+    }
+
+    public int getMaxSize() {
+        return maxSize;
+    }
+
+    public int getSize() {
+        synchronized (queries) {
+            return queries.size();
+        }
+    }
+
+    /**
+     * Хеш запроса из расширения {@code persistedQuery.sha256Hash}, null - запрос передан без хеша
+     */
+    public static String getHash(ExecutionInput executionInput) {
+        Map<String, Object> extensions = executionInput.getExtensions();
+        if (extensions == null) {
+            return null;
+        }
+        Object persistedQuery = extensions.get(EXTENSION_PERSISTED_QUERY);
+        if (!(persistedQuery instanceof Map)) {
+            return null;
+        }
+        Object hash = ((Map<?, ?>) persistedQuery).get(EXTENSION_SHA256_HASH);
+        return (hash instanceof String) ? (String) hash : null;
+    }
+
+    /**
+     * SHA-256 текста запроса в шестнадцатеричном виде (нижний регистр)
+     */
+    public static String hash(String query) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(query.getBytes(StandardCharsets.UTF_8));
+            StringBuilder builder = new StringBuilder(digest.length * 2);
+            for (byte b : digest) {
+                builder.append(Character.forDigit((b >> 4) & 0xF, 16)).append(Character.forDigit(b & 0xF, 16));
+            }
+            return builder.toString();
+        } catch (NoSuchAlgorithmException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    static boolean isEmpty(String query) {
+        return query == null || query.isEmpty();
+    }
+}
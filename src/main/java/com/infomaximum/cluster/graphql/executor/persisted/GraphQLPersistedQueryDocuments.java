@@ -0,0 +1,82 @@
+package com.infomaximum.cluster.graphql.executor.persisted;
+
+import com.infomaximum.cluster.graphql.exception.GraphQLExecutorPersistedQueryNotFoundException;
+import graphql.ErrorType;
+import graphql.ExecutionInput;
+import graphql.GraphqlErrorBuilder;
+import graphql.execution.preparsed.PreparsedDocumentEntry;
+import graphql.execution.preparsed.PreparsedDocumentProvider;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * Разобранные и провалидированные документы сохраняемых запросов одного исполнителя: документ валиден только
+ * для схемы, по которой он проверялся, поэтому у каждого исполнителя свой кеш. Текст запроса по хешу берется
+ * из общего хранилища {@link GraphQLPersistedQueries}
+ */
+public class GraphQLPersistedQueryDocuments implements PreparsedDocumentProvider {
+
+    private final GraphQLPersistedQueries persistedQueries;
+    private final Map<String, PreparsedDocumentEntry> documents;
+
+    public GraphQLPersistedQueryDocuments(GraphQLPersistedQueries persistedQueries) {
+        this.persistedQueries = persistedQueries;
+        int maxSize = persistedQueries.getMaxSize();
+        this.documents = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, PreparsedDocumentEntry> eldest) {
+                return size() > maxSize;
+            }
+        };
+    }
+
+    @Override
+    public PreparsedDocumentEntry getDocument(ExecutionInput executionInput, Function<ExecutionInput, PreparsedDocumentEntry> parseAndValidateFunction) {
+        String hash = GraphQLPersistedQueries.getHash(executionInput);
+        if (hash == null) {
+            //Обычный запрос - без кеширования
+            return parseAndValidateFunction.apply(executionInput);
+        }
+
+        String query;
+        try {
+            query = persistedQueries.resolve(hash, executionInput.getQuery());
+        } catch (GraphQLExecutorPersistedQueryNotFoundException e) {
+            return new PreparsedDocumentEntry(e);
+        } catch (IllegalArgumentException e) {
+            return new PreparsedDocumentEntry(GraphqlErrorBuilder.newError()
+                    .message(e.getMessage())
+                    .errorType(ErrorType.ValidationError)
+                    .build());
+        }
+
+        String key = hash.toLowerCase();
+        PreparsedDocumentEntry document;
+        synchronized (documents) {
+            document = documents.get(key);
+        }
+        if (document != null) {
+            return document;
+        }
+
+        ExecutionInput input = GraphQLPersistedQueries.isEmpty(executionInput.getQuery())
+                ? executionInput.transform(builder -> builder.query(query))
+                : executionInput;
+        document = parseAndValidateFunction.apply(input);
+        if (!document.hasErrors()) {
+            //Запросы с ошибками не кешируем - клиент исправит запрос
+            synchronized (documents) {
+                documents.put(key, document);
+            }
+        }
+        return document;
+    }
+
+    public int getSize() {
+        synchronized (documents) {
+            return documents.size();
+        }
+    }
+}
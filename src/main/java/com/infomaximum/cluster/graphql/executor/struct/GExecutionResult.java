@@ -4,10 +4,17 @@ import graphql.ExecutionResult;
 import graphql.GraphQLError;
 import graphql.execution.reactive.SubscriptionPublisher;
 
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.WritableByteChannel;
 import java.util.List;
+import java.util.Map;
 
 public class GExecutionResult {
 
+    private static final int WRITE_BUFFER_SIZE = 8 * 1024;
+
     private final ExecutionResult executionResult;
 
     public GExecutionResult(ExecutionResult executionResult) {
@@ -26,4 +33,68 @@ public class GExecutionResult {
         return executionResult.getErrors();
     }
 
+    /**
+     * Пишем результат в формате спецификации GraphQL (errors, data, extensions) сразу в поток в UTF-8,
+     * не собирая весь ответ в строку. Поток не закрывается
+     */
+    public void writeTo(OutputStream outputStream) throws IOException {
+        GJsonWriter writer = new GJsonWriter(WRITE_BUFFER_SIZE) {
+            @Override
+            protected void write(byte[] buffer, int length) throws IOException {
+                outputStream.write(buffer, 0, length);
+            }
+        };
+        writeTo(writer);
+    }
+
+    public void writeTo(WritableByteChannel channel) throws IOException {
+        GJsonWriter writer = new GJsonWriter(WRITE_BUFFER_SIZE) {
+            @Override
+            protected void write(byte[] buffer, int length) throws IOException {
+                ByteBuffer byteBuffer = ByteBuffer.wrap(buffer, 0, length);
+                while (byteBuffer.hasRemaining()) {
+                    channel.write(byteBuffer);
+                }
+            }
+        };
+        writeTo(writer);
+    }
+
+    private void writeTo(GJsonWriter writer) throws IOException {
+        if (executionResult.getData() instanceof SubscriptionPublisher) {
+            throw new IllegalStateException("Subscription result is not serializable");
+        }
+
+        writer.writeByte('{');
+        boolean first = true;
+
+        List<GraphQLError> errors = executionResult.getErrors();
+        if (!errors.isEmpty()) {
+            writer.writeField("errors");
+            writer.writeByte('[');
+            for (int i = 0; i < errors.size(); i++) {
+                if (i > 0) writer.writeByte(',');
+                writer.writeObject(errors.get(i).toSpecification());
+            }
+            writer.writeByte(']');
+            first = false;
+        }
+
+        if (executionResult.isDataPresent()) {
+            if (!first) writer.writeByte(',');
+            writer.writeField("data");
+            writer.writeValue(executionResult.getData());
+            first = false;
+        }
+
+        Map<Object, Object> extensions = executionResult.getExtensions();
+        if (extensions != null) {
+            if (!first) writer.writeByte(',');
+            writer.writeField("extensions");
+            writer.writeObject(extensions);
+        }
+
+        writer.writeByte('}');
+        writer.flush();
+    }
 }
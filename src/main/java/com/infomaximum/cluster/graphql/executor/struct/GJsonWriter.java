@@ -0,0 +1,174 @@
+package com.infomaximum.cluster.graphql.executor.struct;
+
+import java.io.IOException;
+import java.lang.reflect.Array;
+import java.util.Map;
+
+/**
+ * Потоковая запись результата в JSON. Данные кодируются в UTF-8 через буфер фиксированного размера,
+ * который сбрасывается в приемник по заполнению - промежуточная строка со всем ответом не строится
+ */
+abstract class GJsonWriter {
+
+    private static final byte[] HEX = "0123456789abcdef".getBytes();
+
+    private final byte[] buffer;
+    private int position;
+
+    GJsonWriter(int bufferSize) {
+        this.buffer = new byte[bufferSize];
+        this.position = 0;
+    }
+
+    protected abstract void write(byte[] buffer, int length) throws IOException;
+
+    void writeValue(Object value) throws IOException {
+        if (value == null) {
+            writeAscii("null");
+        } else if (value instanceof String) {
+            writeString((String) value);
+        } else if (value instanceof Double || value instanceof Float) {
+            //NaN и бесконечность в JSON не представимы - как и JSON.stringify, пишем null
+            writeAscii(Double.isFinite(((Number) value).doubleValue()) ? value.toString() : "null");
+        } else if (value instanceof Boolean || value instanceof Number) {
+            writeAscii(value.toString());
+        } else if (value instanceof Map) {
+            writeObject((Map<?, ?>) value);
+        } else if (value instanceof Iterable) {
+            writeByte('[');
+            boolean first = true;
+            for (Object item : (Iterable<?>) value) {
+                if (!first) writeByte(',');
+                writeValue(item);
+                first = false;
+            }
+            writeByte(']');
+        } else if (value.getClass().isArray()) {
+            writeByte('[');
+            int length = Array.getLength(value);
+            for (int i = 0; i < length; i++) {
+                if (i > 0) writeByte(',');
+                writeValue(Array.get(value, i));
+            }
+            writeByte(']');
+        } else if (value instanceof Enum) {
+            writeString(((Enum<?>) value).name());
+        } else {
+            writeString(value.toString());
+        }
+    }
+
+    void writeObject(Map<?, ?> value) throws IOException {
+        writeByte('{');
+        boolean first = true;
+        for (Map.Entry<?, ?> entry : value.entrySet()) {
+            if (!first) writeByte(',');
+            writeField(String.valueOf(entry.getKey()));
+            writeValue(entry.getValue());
+            first = false;
+        }
+        writeByte('}');
+    }
+
+    void writeField(String name) throws IOException {
+        writeString(name);
+        writeByte(':');
+    }
+
+    void writeByte(char c) throws IOException {
+        if (position == buffer.length) flush();
+        buffer[position++] = (byte) c;
+    }
+
+    void flush() throws IOException {
+        if (position > 0) {
+            write(buffer, position);
+            position = 0;
+        }
+    }
+
+    private void writeAscii(String value) throws IOException {
+        for (int i = 0; i < value.length(); i++) {
+            writeByte(value.charAt(i));
+        }
+    }
+
+    private void writeString(String value) throws IOException {
+        writeByte('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            switch (c) {
+                case '"':
+                    writeByte('\\');
+                    writeByte('"');
+                    break;
+                case '\\':
+                    writeByte('\\');
+                    writeByte('\\');
+                    break;
+                case '\n':
+                    writeByte('\\');
+                    writeByte('n');
+                    break;
+                case '\r':
+                    writeByte('\\');
+                    writeByte('r');
+                    break;
+                case '\t':
+                    writeByte('\\');
+                    writeByte('t');
+                    break;
+                case '\b':
+                    writeByte('\\');
+                    writeByte('b');
+                    break;
+                case '\f':
+                    writeByte('\\');
+                    writeByte('f');
+                    break;
+                default:
+                    if (c < 0x20) {
+                        writeByte('\\');
+                        writeByte('u');
+                        writeByte('0');
+                        writeByte('0');
+                        writeByte((char) HEX[c >> 4]);
+                        writeByte((char) HEX[c & 0xF]);
+                    } else if (c < 0x80) {
+                        writeByte(c);
+                    } else if (Character.isHighSurrogate(c) && i + 1 < value.length() && Character.isLowSurrogate(value.charAt(i + 1))) {
+                        writeCodePoint(Character.toCodePoint(c, value.charAt(++i)));
+                    } else if (Character.isSurrogate(c)) {
+                        //Непарный суррогат в UTF-8 не кодируется
+                        writeCodePoint('?');
+                    } else {
+                        writeCodePoint(c);
+                    }
+            }
+        }
+        writeByte('"');
+    }
+
+    private void writeCodePoint(int codePoint) throws IOException {
+        if (codePoint < 0x80) {
+            writeRaw(codePoint);
+        } else if (codePoint < 0x800) {
+            writeRaw(0xC0 | (codePoint >> 6));
+            writeRaw(0x80 | (codePoint & 0x3F));
+        } else if (codePoint < 0x10000) {
+            writeRaw(0xE0 | (codePoint >> 12));
+            writeRaw(0x80 | ((codePoint >> 6) & 0x3F));
+            writeRaw(0x80 | (codePoint & 0x3F));
+        } else {
+            writeRaw(0xF0 | (codePoint >> 18));
+            writeRaw(0x80 | ((codePoint >> 12) & 0x3F));
+            writeRaw(0x80 | ((codePoint >> 6) & 0x3F));
+            writeRaw(0x80 | (codePoint & 0x3F));
+        }
+    }
+
+    private void writeRaw(int b) throws IOException {
+        if (position == buffer.length) flush();
+        buffer[position++] = (byte) b;
+    }
+}
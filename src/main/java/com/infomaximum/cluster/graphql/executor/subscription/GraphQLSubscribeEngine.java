@@ -1,4 +1,24 @@
 package com.infomaximum.cluster.graphql.executor.subscription;
 
-public interface GraphQLSubscribeEngine {
+public interface GraphQLSubscribeEngine extends AutoCloseable {
+
+    /**
+     * Текущее состояние подписок: активные ключи, подписчики, счетчики событий, null - движок не собирает статистику
+     */
+    default GraphQLSubscribeStatistics getStatistics() {
+        return null;
+    }
+
+    /**
+     * Удаляем подписчиков, которые уже отключены, но так и не отписались, а также пустые ключи
+     *
+     * @return количество удаленных подписчиков
+     */
+    default int sweep() {
+        return 0;
+    }
+
+    @Override
+    default void close() {
+    }
 }
@@ -1,52 +1,536 @@
 package com.infomaximum.cluster.graphql.executor.subscription;
 
+import com.infomaximum.cluster.graphql.exception.GraphQLExecutorSubscribeEventsLostException;
+import com.infomaximum.cluster.graphql.struct.subscribe.SubscribeEventBatch;
+import com.infomaximum.cluster.graphql.struct.subscribe.SubscribeEventItem;
 import com.infomaximum.cluster.graphql.struct.subscribe.SubscribeKey;
 import io.reactivex.ObservableEmitter;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.io.Serializable;
-import java.util.Optional;
-import java.util.UUID;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.*;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
-import java.util.concurrent.CopyOnWriteArraySet;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
 
 public class GraphQLSubscribeEngineImpl implements GraphQLSubscribeEngine {
 
     protected final static Logger log = LoggerFactory.getLogger(GraphQLSubscribeEngineImpl.class);
 
-    private final ConcurrentMap<SubscribeKey, CopyOnWriteArraySet<ObservableEmitter>> subscriber;
+    private final ConcurrentMap<SubscribeKey, SubscribeKeyEntry> subscriber;
+    private final ConcurrentMap<SubscribeChannelState.Key, SubscribeChannelState> channels;
+
+    //Идентификатор экземпляра движка - курсоры, выданные другим экземпляром, недействительны
+    private final UUID epoch;
+    private final int replayCapacity;
+    private final long replayRetentionMillis;
+    private final ConcurrentMap<SubscribeKey, SubscribeReplayBuffer> replayBuffers;
+
+    private final ConcurrentMap<SubscribeKey, CopyOnWriteArrayList<SubscribeEventListener<?>>> eventListeners;
+
+    private final boolean shareExecution;
+    private final Map<Object, SubscribeEventShare> eventShareSources;
+
+    private final LongAdder pushedEvents;
+    private final LongAdder droppedEvents;
+    private final LongAdder deliveredEvents;
+    private final LongAdder totalDeliveryLagMillis;
+    private final AtomicLong maxDeliveryLagMillis;
+    private final LongAdder sweptSubscribers;
+    private final LongAdder sweptKeys;
+    private final LongAdder lostEvents;
+    private final LongAdder duplicateEvents;
+    private final LongAdder resumedSubscribers;
+    private final LongAdder replayedEvents;
+
+    private final ScheduledExecutorService sweeper;
 
     public GraphQLSubscribeEngineImpl() {
+        this(false, null);
+    }
+
+    public GraphQLSubscribeEngineImpl(boolean shareExecution) {
+        this(shareExecution, null);
+    }
+
+    public GraphQLSubscribeEngineImpl(boolean shareExecution, Duration sweepInterval) {
+        this(shareExecution, sweepInterval, 0, null);
+    }
+
+    /**
+     * @param sweepInterval   период очистки, null - без очистки. При включенных буферах по умолчанию равен replayRetention,
+     *                        иначе буферы ключей без подписчиков не удалялись бы
+     * @param replayCapacity  размер буфера последних событий на каждый ключ подписки, 0 - подписки не возобновляются
+     * @param replayRetention сколько хранятся события буфера и сам буфер после ухода последнего подписчика
+     */
+    public GraphQLSubscribeEngineImpl(boolean shareExecution, Duration sweepInterval, int replayCapacity, Duration replayRetention) {
         this.subscriber = new ConcurrentHashMap<>();
+        this.channels = new ConcurrentHashMap<>();
+        this.eventListeners = new ConcurrentHashMap<>();
+
+        this.epoch = UUID.randomUUID();
+        if (replayCapacity > 0) {
+            if (replayRetention == null || replayRetention.isNegative() || replayRetention.isZero()) {
+                throw new IllegalArgumentException("Replay retention is not specified");
+            }
+            if (sweepInterval == null) {
+                sweepInterval = replayRetention;
+            }
+            this.replayCapacity = replayCapacity;
+            this.replayRetentionMillis = replayRetention.toMillis();
+            this.replayBuffers = new ConcurrentHashMap<>();
+        } else {
+            this.replayCapacity = 0;
+            this.replayRetentionMillis = 0;
+            this.replayBuffers = null;
+        }
+
+        this.shareExecution = shareExecution;
+        this.eventShareSources = Collections.synchronizedMap(new IdentityHashMap<>());
+
+        this.pushedEvents = new LongAdder();
+        this.droppedEvents = new LongAdder();
+        this.deliveredEvents = new LongAdder();
+        this.totalDeliveryLagMillis = new LongAdder();
+        this.maxDeliveryLagMillis = new AtomicLong();
+        this.sweptSubscribers = new LongAdder();
+        this.sweptKeys = new LongAdder();
+        this.lostEvents = new LongAdder();
+        this.duplicateEvents = new LongAdder();
+        this.resumedSubscribers = new LongAdder();
+        this.replayedEvents = new LongAdder();
+
+        if (sweepInterval != null) {
+            this.sweeper = Executors.newSingleThreadScheduledExecutor(runnable -> {
+                Thread thread = new Thread(runnable, "GraphQLSubscribeEngine-sweeper");
+                thread.setDaemon(true);
+                return thread;
+            });
+            this.sweeper.scheduleWithFixedDelay(() -> {
+                try {
+                    sweep();
+                } catch (Throwable e) {
+                    log.error("Error sweep subscribers", e);
+                }
+            }, sweepInterval.toMillis(), sweepInterval.toMillis(), TimeUnit.MILLISECONDS);
+        } else {
+            this.sweeper = null;
+        }
+    }
+
+    /**
+     * Пачка событий канала компонента. Под блокировкой канала только проверяется нумерация (пропуски, повторы),
+     * раздача подписчикам - вне блокировки. Компонент отправляет следующую пачку после завершения вызова
+     * с предыдущей, поэтому пачки одного канала не раздаются одновременно.
+     * Потерянные события не восстановить: подписки на события компонента завершаются ошибкой
+     * {@link GraphQLExecutorSubscribeEventsLostException}, чтобы клиенты подписались заново
+     */
+    public void pushEvents(SubscribeEventBatch batch) {
+        //Ключ канала - компонент-источник событий
+        SubscribeChannelState channel = channels.computeIfAbsent(
+                new SubscribeChannelState.Key(batch.nodeRuntimeId, batch.componentId),
+                key -> new SubscribeChannelState(batch.channelId)
+        );
+        ArrayList<SubscribeEventItem> items = new ArrayList<>(batch.items.size());
+        //Индекс первого события после пропуска, -1 - пропусков нет
+        int gapIndex = -1;
+        synchronized (channel) {
+            if (!channel.channelId.equals(batch.channelId)) {
+                //Компонент перезапустился - нумерация событий начинается заново
+                log.warn("Subscribe channel restarted, nodeRuntimeId: {}, componentId: {}, last sequence: {}", batch.nodeRuntimeId, batch.componentId, channel.lastSequence);
+                channel.channelId = batch.channelId;
+                channel.lastSequence = 0;
+            }
+            for (SubscribeEventItem item : batch.items) {
+                if (item.sequence <= channel.lastSequence) {
+                    duplicateEvents.increment();
+                    continue;
+                }
+                if (item.sequence != channel.lastSequence + 1) {
+                    long lost = item.sequence - channel.lastSequence - 1;
+                    lostEvents.add(lost);
+                    log.warn("Lost {} subscribe events, nodeRuntimeId: {}, componentId: {}, sequence: {}", lost, batch.nodeRuntimeId, batch.componentId, item.sequence);
+                    if (gapIndex < 0) {
+                        gapIndex = items.size();
+                    }
+                }
+                channel.lastSequence = item.sequence;
+                items.add(item);
+            }
+        }
+
+        for (int i = 0; i < items.size(); i++) {
+            if (i == gapIndex) {
+                interruptSubscribers(batch.nodeRuntimeId, batch.componentId);
+            }
+            SubscribeEventItem item = items.get(i);
+            pushEvent(item.subscribeKey, item.value, item.time);
+        }
+    }
+
+    /**
+     * Завершаем ошибкой подписки на события компонента и сбрасываем их буферы: в буферах нет потерянных событий,
+     * возобновление по курсору вернуло бы неполные данные
+     */
+    private void interruptSubscribers(UUID nodeRuntimeId, int componentId) {
+        if (replayBuffers != null) {
+            replayBuffers.keySet().removeIf(subscribeKey -> subscribeKey.isComponent(nodeRuntimeId, componentId));
+        }
+        for (SubscribeKey subscribeKey : subscriber.keySet()) {
+            if (!subscribeKey.isComponent(nodeRuntimeId, componentId)) continue;
+            SubscribeKeyEntry entry = subscriber.remove(subscribeKey);
+            if (entry == null) continue;
+            for (ObservableEmitter emitter : entry.emitters) {
+                emitter.tryOnError(new GraphQLExecutorSubscribeEventsLostException());
+            }
+        }
     }
 
     public void pushEvent(SubscribeKey subscribeKey, Optional<? extends Serializable> value) {
-        CopyOnWriteArraySet<ObservableEmitter> observables = subscriber.get(subscribeKey);
-        if (observables == null || observables.isEmpty()) return;
-        for (ObservableEmitter emitter : observables) {
-            emitter.onNext(value);
+        pushEvent(subscribeKey, value, System.currentTimeMillis());
+    }
+
+    /**
+     * @param publishTime время публикации события компонентом, от него считается задержка доставки
+     */
+    public void pushEvent(SubscribeKey subscribeKey, Optional<? extends Serializable> value, long publishTime) {
+        pushedEvents.increment();
+
+        CopyOnWriteArrayList<SubscribeEventListener<?>> listeners = eventListeners.get(subscribeKey);
+        if (listeners != null) {
+            boolean hasCollected = false;
+            for (SubscribeEventListener<?> listener : listeners) {
+                try {
+                    hasCollected |= !listener.run();
+                } catch (Throwable e) {
+                    log.error("Error subscribe event listener", e);
+                }
+            }
+            if (hasCollected) {
+                removeCollectedEventListeners(subscribeKey);
+            }
+        }
+
+        long offset = 0;
+        SubscribeKeyEntry entry;
+        Collection<ObservableEmitter> emitters;
+        SubscribeReplayBuffer replayBuffer = (replayBuffers == null) ? null : replayBuffers.get(subscribeKey);
+        if (replayBuffer != null) {
+            //Запись в буфер и снимок подписчиков атомарны относительно возобновления подписки
+            synchronized (replayBuffer) {
+                offset = replayBuffer.append(value, System.currentTimeMillis());
+                entry = subscriber.get(subscribeKey);
+                emitters = (entry == null) ? Collections.emptyList() : new ArrayList<>(entry.emitters);
+            }
+        } else {
+            entry = subscriber.get(subscribeKey);
+            emitters = (entry == null) ? Collections.emptyList() : entry.emitters;
+        }
+        if (emitters.isEmpty()) {
+            droppedEvents.increment();
+            return;
+        }
+        entry.events.increment();
+        entry.lastEventTime = System.currentTimeMillis();
+
+        //Если подписчиков несколько, то одинаковые запросы по этому событию вычисляем один раз
+        SubscribeEventShare eventShare = null;
+        if (shareExecution && emitters.size() > 1 && value.isPresent()) {
+            eventShare = new SubscribeEventShare(eventShareSources);
+            eventShare.register(value.get());
+        }
+        try {
+            for (ObservableEmitter emitter : emitters) {
+                SubscribeResumeGate resumeGate = entry.resumeGates.isEmpty() ? null : entry.resumeGates.get(emitter);
+                if (resumeGate != null && resumeGate.offer(offset, value)) {
+                    //Подписчик еще дочитывает пропущенные события - это событие получит следом за ними
+                    continue;
+                }
+                if (offset > 0) {
+                    SubscribeCursor cursor = entry.cursors.get(emitter);
+                    if (cursor != null) {
+                        cursor.setOffset(offset);
+                    }
+                }
+                emitter.onNext(value);
+                deliveredEvents.increment();
+            }
+        } finally {
+            if (eventShare != null) {
+                eventShare.close();
+            }
+
+            //Часы нод могут расходиться - отрицательную задержку не учитываем
+            long deliveryLag = Math.max(0, System.currentTimeMillis() - publishTime);
+            totalDeliveryLagMillis.add(deliveryLag);
+            maxDeliveryLagMillis.accumulateAndGet(deliveryLag, Math::max);
         }
     }
 
+    /**
+     * Слушатель вызывается при каждом событии по ключу, независимо от наличия подписчиков (например, для сброса кешей).
+     * Владелец удерживается слабо: когда он больше не используется, слушатель удаляется
+     */
+    public <T> void addEventListener(SubscribeKey subscribeKey, T owner, Consumer<? super T> listener) {
+        eventListeners.computeIfAbsent(subscribeKey, key -> new CopyOnWriteArrayList<>()).add(new SubscribeEventListener<>(owner, listener));
+    }
+
+    public void removeEventListener(SubscribeKey subscribeKey, Object owner) {
+        eventListeners.computeIfPresent(subscribeKey, (key, listeners) -> {
+            listeners.removeIf(listener -> listener.isOwner(owner) || !listener.isAlive());
+            return listeners.isEmpty() ? null : listeners;
+        });
+    }
+
+    int getEventListenerCount(SubscribeKey subscribeKey) {
+        CopyOnWriteArrayList<SubscribeEventListener<?>> listeners = eventListeners.get(subscribeKey);
+        return (listeners == null) ? 0 : listeners.size();
+    }
+
+    private void removeCollectedEventListeners(SubscribeKey subscribeKey) {
+        eventListeners.computeIfPresent(subscribeKey, (key, listeners) -> {
+            listeners.removeIf(listener -> !listener.isAlive());
+            return listeners.isEmpty() ? null : listeners;
+        });
+    }
+
+    /**
+     * Ищем событие подписки, которое сейчас раздается подписчикам и источником которого является source
+     */
+    public SubscribeEventShare getEventShare(Object source) {
+        if (!shareExecution || source == null || eventShareSources.isEmpty()) return null;
+        return eventShareSources.get(source);
+    }
+
     public void subscribe(UUID nodeRuntimeId, int componentId, byte[] bSubscribeKey, ObservableEmitter observable) {
         SubscribeKey subscribeKey = new SubscribeKey(nodeRuntimeId, componentId, bSubscribeKey);
-        subscribe(subscribeKey, observable);
+        subscribe(subscribeKey, observable, null);
+    }
+
+    /**
+     * Подписка с курсором: в курсор запоминается позиция подписчика, по которой после переподключения
+     * подписку можно возобновить через {@link #resume(SubscribeCursor, ObservableEmitter)}
+     */
+    public void subscribe(UUID nodeRuntimeId, int componentId, byte[] bSubscribeKey, ObservableEmitter observable, SubscribeCursor cursor) {
+        SubscribeKey subscribeKey = new SubscribeKey(nodeRuntimeId, componentId, bSubscribeKey);
+        if (replayBuffers == null || cursor == null) {
+            subscribe(subscribeKey, observable, null);
+            return;
+        }
+        replayBuffers.compute(subscribeKey, (key, replayBuffer) -> {
+            if (replayBuffer == null) {
+                replayBuffer = new SubscribeReplayBuffer(replayCapacity, replayRetentionMillis);
+            }
+            synchronized (replayBuffer) {
+                cursor.set(epoch, subscribeKey, replayBuffer.getLastOffset());
+                register(subscribeKey, observable, cursor, null);
+            }
+            return replayBuffer;
+        });
+        listenUnSubscribe(subscribeKey, observable);
+    }
+
+    /**
+     * Можно ли возобновить подписку с позиции курсора - курсор выдан этим движком и пропущенные события еще в буфере
+     */
+    public boolean isResumable(SubscribeCursor cursor) {
+        if (replayBuffers == null || cursor == null) return false;
+        if (!epoch.equals(cursor.getEpoch()) || cursor.getSubscribeKey() == null) return false;
+        SubscribeReplayBuffer replayBuffer = replayBuffers.get(cursor.getSubscribeKey());
+        if (replayBuffer == null) return false;
+        synchronized (replayBuffer) {
+            return replayBuffer.since(cursor.getOffset(), System.currentTimeMillis()) != null;
+        }
     }
 
-    private void subscribe(SubscribeKey subscribeKey, ObservableEmitter observable) {
-        CopyOnWriteArraySet<ObservableEmitter> observables = subscriber.computeIfAbsent(subscribeKey, s -> new CopyOnWriteArraySet<ObservableEmitter>());
-        observables.add(observable);
+    /**
+     * Возобновляем подписку: подписчик получает пропущенные события из буфера, а затем новые.
+     * Если пропущенные события уже вытеснены из буфера - возвращаем false, данные нужно запросить заново
+     */
+    public boolean resume(SubscribeCursor cursor, ObservableEmitter observable) {
+        if (!isResumable(cursor)) return false;
+
+        SubscribeKey subscribeKey = cursor.getSubscribeKey();
+        SubscribeResumeGate resumeGate = new SubscribeResumeGate();
+        AtomicReference<List<Optional<? extends Serializable>>> replayEvents = new AtomicReference<>();
+        replayBuffers.computeIfPresent(subscribeKey, (key, replayBuffer) -> {
+            synchronized (replayBuffer) {
+                List<Optional<? extends Serializable>> events = replayBuffer.since(cursor.getOffset(), System.currentTimeMillis());
+                if (events != null) {
+                    //Снимок пропущенных событий и регистрация подписчика атомарны относительно новых событий:
+                    //новые события до окончания дочитывания копятся в resumeGate
+                    register(subscribeKey, observable, cursor, resumeGate);
+                    replayEvents.set(events);
+                }
+            }
+            return replayBuffer;
+        });
+        List<Optional<? extends Serializable>> events = replayEvents.get();
+        if (events == null) {
+            return false;
+        }
+        listenUnSubscribe(subscribeKey, observable);
+
+        //Раздаем вне блокировок: сначала пропущенные события, затем накопившиеся за время дочитывания
+        long offset = cursor.getOffset();
+        for (Optional<? extends Serializable> value : events) {
+            cursor.setOffset(++offset);
+            observable.onNext(value);
+        }
+        replayedEvents.add(events.size());
+
+        List<SubscribeResumeGate.Event> pendingEvents;
+        while ((pendingEvents = resumeGate.drain()) != null) {
+            for (SubscribeResumeGate.Event event : pendingEvents) {
+                cursor.setOffset(event.offset);
+                observable.onNext(event.value);
+                deliveredEvents.increment();
+            }
+        }
+        SubscribeKeyEntry entry = subscriber.get(subscribeKey);
+        if (entry != null) {
+            entry.resumeGates.remove(observable, resumeGate);
+        }
+
+        resumedSubscribers.increment();
+        return true;
+    }
 
-        //Подписываемся на разрыв соединения и отписку
+    private void subscribe(SubscribeKey subscribeKey, ObservableEmitter observable, SubscribeCursor cursor) {
+        register(subscribeKey, observable, cursor, null);
+        listenUnSubscribe(subscribeKey, observable);
+    }
+
+    private void register(SubscribeKey subscribeKey, ObservableEmitter observable, SubscribeCursor cursor, SubscribeResumeGate resumeGate) {
+        subscriber.compute(subscribeKey, (key, entry) -> {
+            if (entry == null) {
+                entry = new SubscribeKeyEntry();
+            }
+            if (cursor != null) {
+                entry.cursors.put(observable, cursor);
+            }
+            if (resumeGate != null) {
+                entry.resumeGates.put(observable, resumeGate);
+            }
+            entry.emitters.add(observable);
+            return entry;
+        });
+    }
+
+    /**
+     * Подписываемся на разрыв соединения и отписку. Вызывается вне блокировок: если подписчик уже отключен,
+     * отписка выполнится сразу
+     */
+    private void listenUnSubscribe(SubscribeKey subscribeKey, ObservableEmitter observable) {
         observable.setCancellable(() -> {
             unSubscribe(subscribeKey, observable);
         });
     }
 
     private void unSubscribe(SubscribeKey subscribeKey, ObservableEmitter observable) {
-        CopyOnWriteArraySet<ObservableEmitter> observables = subscriber.get(subscribeKey);
-        observables.remove(observable);
+        //Пустой ключ удаляем сразу, иначе ключи копятся у долгоживущих frontend'ов
+        subscriber.computeIfPresent(subscribeKey, (key, entry) -> {
+            entry.emitters.remove(observable);
+            entry.cursors.remove(observable);
+            entry.resumeGates.remove(observable);
+            return entry.emitters.isEmpty() ? null : entry;
+        });
+    }
+
+    @Override
+    public int sweep() {
+        int removedSubscribers = 0;
+        for (SubscribeKey subscribeKey : subscriber.keySet()) {
+            int[] removed = new int[1];
+            subscriber.computeIfPresent(subscribeKey, (key, entry) -> {
+                for (ObservableEmitter emitter : entry.emitters) {
+                    if (emitter.isDisposed() && entry.emitters.remove(emitter)) {
+                        entry.cursors.remove(emitter);
+                        entry.resumeGates.remove(emitter);
+                        removed[0]++;
+                    }
+                }
+                if (entry.emitters.isEmpty()) {
+                    sweptKeys.increment();
+                    return null;
+                }
+                return entry;
+            });
+            removedSubscribers += removed[0];
+        }
+        for (SubscribeKey subscribeKey : eventListeners.keySet()) {
+            removeCollectedEventListeners(subscribeKey);
+        }
+        if (removedSubscribers > 0) {
+            sweptSubscribers.add(removedSubscribers);
+            log.warn("Removed {} disposed subscribers without unsubscribe", removedSubscribers);
+        }
+
+        if (replayBuffers != null) {
+            //Буфер ключа без подписчиков храним, пока к нему могут переподключиться
+            long now = System.currentTimeMillis();
+            for (SubscribeKey subscribeKey : replayBuffers.keySet()) {
+                replayBuffers.computeIfPresent(subscribeKey, (key, replayBuffer) -> {
+                    synchronized (replayBuffer) {
+                        replayBuffer.expire(now);
+                        if (!subscriber.containsKey(key) && replayBuffer.isExpired(now)) {
+                            return null;
+                        }
+                    }
+                    return replayBuffer;
+                });
+            }
+        }
+        return removedSubscribers;
+    }
+
+    @Override
+    public GraphQLSubscribeStatistics getStatistics() {
+        Map<SubscribeKey, GraphQLSubscribeStatistics.KeyStatistics> keys = new HashMap<>();
+        for (Map.Entry<SubscribeKey, SubscribeKeyEntry> item : subscriber.entrySet()) {
+            SubscribeKeyEntry entry = item.getValue();
+
+            int subscribers = 0;
+            int disposedSubscribers = 0;
+            for (ObservableEmitter emitter : entry.emitters) {
+                subscribers++;
+                if (emitter.isDisposed()) {
+                    disposedSubscribers++;
+                }
+            }
+            long lastEventTime = entry.lastEventTime;
+            keys.put(item.getKey(), new GraphQLSubscribeStatistics.KeyStatistics(
+                    subscribers, disposedSubscribers,
+                    entry.events.sum(),
+                    (lastEventTime == 0) ? null : Instant.ofEpochMilli(lastEventTime)
+            ));
+        }
+
+        return new GraphQLSubscribeStatistics(
+                Instant.now(),
+                keys,
+                pushedEvents.sum(), droppedEvents.sum(), deliveredEvents.sum(),
+                Duration.ofMillis(totalDeliveryLagMillis.sum()), Duration.ofMillis(maxDeliveryLagMillis.get()),
+                sweptSubscribers.sum(), sweptKeys.sum(),
+                lostEvents.sum(), duplicateEvents.sum(),
+                (replayBuffers == null) ? 0 : replayBuffers.size(), resumedSubscribers.sum(), replayedEvents.sum()
+        );
+    }
+
+    @Override
+    public void close() {
+        if (sweeper != null) {
+            sweeper.shutdownNow();
+        }
     }
 }
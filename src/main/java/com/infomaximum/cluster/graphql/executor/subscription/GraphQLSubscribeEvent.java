@@ -2,30 +2,175 @@ package com.infomaximum.cluster.graphql.executor.subscription;
 
 import com.infomaximum.cluster.graphql.remote.graphql.subscribe.RControllerGraphQLSubscribe;
 import com.infomaximum.cluster.graphql.struct.GSubscribeEvent;
+import com.infomaximum.cluster.graphql.struct.subscribe.SubscribeEventBatch;
+import com.infomaximum.cluster.graphql.struct.subscribe.SubscribeEventItem;
 import com.infomaximum.cluster.graphql.struct.subscribe.SubscribeKey;
 import com.infomaximum.cluster.struct.Component;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Канал событий компонента. События нумеруются и раскладываются по очередям нод-получателей (frontend'ов).
+ * Каждая очередь отправляется своим потоком: пока идет отправка одной пачки, новые события копятся
+ * и уходят следующей пачкой, так медленный frontend задерживает только свои события
+ */
 public class GraphQLSubscribeEvent {
 
     private final static Logger log = LoggerFactory.getLogger(GraphQLSubscribeEvent.class);
 
     private final Component component;
 
+    private final UUID channelId;
+    private final AtomicBoolean flushing;
+
+    private final ConcurrentMap<UUID, FrontendChannel> frontends;
+    private final ExecutorService sender;
+
+    private long sequence;
+    private ArrayList<SubscribeEventItem> pending;
+
     public GraphQLSubscribeEvent(Component component) {
         this.component = component;
+
+        this.channelId = UUID.randomUUID();
+        this.flushing = new AtomicBoolean(false);
+
+        this.frontends = new ConcurrentHashMap<>();
+        //Потоков не больше, чем нод-получателей: у каждой очереди одновременно идет одна отправка
+        this.sender = Executors.newCachedThreadPool(runnable -> {
+            Thread thread = new Thread(runnable, "GraphQLSubscribeEvent-sender");
+            thread.setDaemon(true);
+            return thread;
+        });
+
+        this.sequence = 0;
+        this.pending = new ArrayList<>();
     }
 
     public void pushEvent(GSubscribeEvent subscribeEvent) {
         GSubscribeEvent.SubscribeValue subscribeValue = subscribeEvent.getSubscribeValue();
         SubscribeKey subscribeKey = new SubscribeKey(component, subscribeValue.subscribeKey);
+        synchronized (this) {
+            pending.add(new SubscribeEventItem(++sequence, subscribeKey, subscribeValue.value, System.currentTimeMillis()));
+        }
+        flush();
+    }
+
+    private void flush() {
+        while (flushing.compareAndSet(false, true)) {
+            try {
+                ArrayList<SubscribeEventItem> items;
+                while ((items = takePending()) != null) {
+                    send(items);
+                }
+            } finally {
+                flushing.set(false);
+            }
+            //Пока сбрасывали флаг, могли появиться новые события
+            synchronized (this) {
+                if (pending.isEmpty()) return;
+            }
+        }
+    }
+
+    private synchronized ArrayList<SubscribeEventItem> takePending() {
+        if (pending.isEmpty()) return null;
+        ArrayList<SubscribeEventItem> items = pending;
+        pending = new ArrayList<>();
+        return items;
+    }
+
+    /**
+     * Раскладываем события по очередям нод-получателей, сама отправка идет в потоках очередей
+     */
+    private void send(ArrayList<SubscribeEventItem> items) {
+        Map<UUID, List<RControllerGraphQLSubscribe>> nodeControllers = new HashMap<>();
         for (RControllerGraphQLSubscribe controller : component.getRemotes().getControllers(RControllerGraphQLSubscribe.class)) {
+            nodeControllers.computeIfAbsent(controller.getNodeRuntimeId(), key -> new ArrayList<>()).add(controller);
+        }
+        //Очереди ушедших нод больше не нужны, начатая отправка завершится сама
+        frontends.keySet().retainAll(nodeControllers.keySet());
+        for (Map.Entry<UUID, List<RControllerGraphQLSubscribe>> entry : nodeControllers.entrySet()) {
+            frontends.computeIfAbsent(entry.getKey(), key -> new FrontendChannel()).offer(items, entry.getValue());
+        }
+    }
+
+    private void send(ArrayList<SubscribeEventItem> items, List<RControllerGraphQLSubscribe> controllers) {
+        SubscribeEventBatch batch = new SubscribeEventBatch(
+                component.getRemotes().cluster.node.getRuntimeId(),
+                component.getId(),
+                channelId,
+                items
+        );
+        for (RControllerGraphQLSubscribe controller : controllers) {
             try {
-                controller.pushEvent(subscribeKey, subscribeValue.value);
+                controller.pushEvents(batch);
             } catch (Exception e) {
-                log.error("Error push event", e);
+                //Пропуск обнаружит получатель по номерам событий следующей пачки
+                log.error("Error push events", e);
             }
         }
     }
+
+    /**
+     * Очередь событий одной ноды-получателя
+     */
+    private class FrontendChannel implements Runnable {
+
+        private final AtomicBoolean sending;
+
+        private ArrayList<SubscribeEventItem> pending;
+        private List<RControllerGraphQLSubscribe> controllers;
+
+        private FrontendChannel() {
+            this.sending = new AtomicBoolean(false);
+            this.pending = new ArrayList<>();
+        }
+
+        private void offer(ArrayList<SubscribeEventItem> items, List<RControllerGraphQLSubscribe> controllers) {
+            synchronized (this) {
+                pending.addAll(items);
+                this.controllers = controllers;
+            }
+            if (sending.compareAndSet(false, true)) {
+                sender.execute(this);
+            }
+        }
+
+        @Override
+        public void run() {
+            do {
+                try {
+                    ArrayList<SubscribeEventItem> items;
+                    List<RControllerGraphQLSubscribe> controllers;
+                    while (true) {
+                        synchronized (this) {
+                            if (pending.isEmpty()) break;
+                            items = pending;
+                            pending = new ArrayList<>();
+                            controllers = this.controllers;
+                        }
+                        send(items, controllers);
+                    }
+                } finally {
+                    sending.set(false);
+                }
+                //Пока сбрасывали флаг, могли появиться новые события
+                synchronized (this) {
+                    if (pending.isEmpty()) return;
+                }
+            } while (sending.compareAndSet(false, true));
+        }
+    }
 }
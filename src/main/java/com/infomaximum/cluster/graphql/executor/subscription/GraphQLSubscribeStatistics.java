@@ -0,0 +1,190 @@
+package com.infomaximum.cluster.graphql.executor.subscription;
+
+import com.infomaximum.cluster.graphql.struct.subscribe.SubscribeKey;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Collections;
+import java.util.Map;
+
+/**
+ * Снимок состояния GraphQLSubscribeEngine. Счетчики накопительные - скорость событий считается по разнице двух снимков
+ */
+public class GraphQLSubscribeStatistics {
+
+    public static class KeyStatistics {
+
+        private final int subscribers;
+        private final int disposedSubscribers;
+        private final long events;
+        private final Instant lastEvent;
+
+        KeyStatistics(int subscribers, int disposedSubscribers, long events, Instant lastEvent) {
+            this.subscribers = subscribers;
+            this.disposedSubscribers = disposedSubscribers;
+            this.events = events;
+            this.lastEvent = lastEvent;
+        }
+
+        public int getSubscribers() {
+            return subscribers;
+        }
+
+        /**
+         * Подписчики, которые уже отключены, но так и не отписались - кандидаты на удаление
+         */
+        public int getDisposedSubscribers() {
+            return disposedSubscribers;
+        }
+
+        public long getEvents() {
+            return events;
+        }
+
+        public Instant getLastEvent() {
+            return lastEvent;
+        }
+    }
+
+    private final Instant instant;
+    private final Map<SubscribeKey, KeyStatistics> keys;
+
+    private final long pushedEvents;
+    private final long droppedEvents;
+    private final long deliveredEvents;
+    private final Duration totalDeliveryLag;
+    private final Duration maxDeliveryLag;
+
+    private final long sweptSubscribers;
+    private final long sweptKeys;
+
+    private final long lostEvents;
+    private final long duplicateEvents;
+
+    private final int replayBuffers;
+    private final long resumedSubscribers;
+    private final long replayedEvents;
+
+    GraphQLSubscribeStatistics(
+            Instant instant,
+            Map<SubscribeKey, KeyStatistics> keys,
+            long pushedEvents, long droppedEvents, long deliveredEvents,
+            Duration totalDeliveryLag, Duration maxDeliveryLag,
+            long sweptSubscribers, long sweptKeys,
+            long lostEvents, long duplicateEvents,
+            int replayBuffers, long resumedSubscribers, long replayedEvents
+    ) {
+        this.instant = instant;
+        this.keys = Collections.unmodifiableMap(keys);
+
+        this.pushedEvents = pushedEvents;
+        this.droppedEvents = droppedEvents;
+        this.deliveredEvents = deliveredEvents;
+        this.totalDeliveryLag = totalDeliveryLag;
+        this.maxDeliveryLag = maxDeliveryLag;
+
+        this.sweptSubscribers = sweptSubscribers;
+        this.sweptKeys = sweptKeys;
+
+        this.lostEvents = lostEvents;
+        this.duplicateEvents = duplicateEvents;
+
+        this.replayBuffers = replayBuffers;
+        this.resumedSubscribers = resumedSubscribers;
+        this.replayedEvents = replayedEvents;
+    }
+
+    public Instant getInstant() {
+        return instant;
+    }
+
+    public int getActiveKeys() {
+        return keys.size();
+    }
+
+    public Map<SubscribeKey, KeyStatistics> getKeys() {
+        return keys;
+    }
+
+    public int getSubscribers() {
+        int subscribers = 0;
+        for (KeyStatistics keyStatistics : keys.values()) {
+            subscribers += keyStatistics.subscribers;
+        }
+        return subscribers;
+    }
+
+    public int getDisposedSubscribers() {
+        int disposedSubscribers = 0;
+        for (KeyStatistics keyStatistics : keys.values()) {
+            disposedSubscribers += keyStatistics.disposedSubscribers;
+        }
+        return disposedSubscribers;
+    }
+
+    /**
+     * Все события, пришедшие в движок
+     */
+    public long getPushedEvents() {
+        return pushedEvents;
+    }
+
+    /**
+     * События, для ключа которых не нашлось ни одного подписчика
+     */
+    public long getDroppedEvents() {
+        return droppedEvents;
+    }
+
+    /**
+     * Количество доставок подписчикам (одно событие доставляется каждому подписчику ключа)
+     */
+    public long getDeliveredEvents() {
+        return deliveredEvents;
+    }
+
+    /**
+     * Суммарное время от публикации события компонентом до окончания его раздачи подписчикам
+     */
+    public Duration getTotalDeliveryLag() {
+        return totalDeliveryLag;
+    }
+
+    public Duration getMaxDeliveryLag() {
+        return maxDeliveryLag;
+    }
+
+    public long getSweptSubscribers() {
+        return sweptSubscribers;
+    }
+
+    public long getSweptKeys() {
+        return sweptKeys;
+    }
+
+    /**
+     * События, пропущенные в каналах компонентов (обнаружены по разрыву в нумерации)
+     */
+    public long getLostEvents() {
+        return lostEvents;
+    }
+
+    public long getDuplicateEvents() {
+        return duplicateEvents;
+    }
+
+    public int getReplayBuffers() {
+        return replayBuffers;
+    }
+
+    /**
+     * Подписчики, продолжившие подписку после переподключения без повторного запроса данных
+     */
+    public long getResumedSubscribers() {
+        return resumedSubscribers;
+    }
+
+    public long getReplayedEvents() {
+        return replayedEvents;
+    }
+}
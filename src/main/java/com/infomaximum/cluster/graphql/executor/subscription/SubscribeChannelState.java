@@ -0,0 +1,44 @@
+package com.infomaximum.cluster.graphql.executor.subscription;
+
+import java.util.UUID;
+
+/**
+ * Состояние приема событий из канала одного компонента
+ */
+class SubscribeChannelState {
+
+    /**
+     * Канал - компонент-источник событий
+     */
+    static class Key {
+
+        private final UUID nodeRuntimeId;
+        private final int componentId;
+
+        Key(UUID nodeRuntimeId, int componentId) {
+            this.nodeRuntimeId = nodeRuntimeId;
+            this.componentId = componentId;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (!(o instanceof Key)) return false;
+            Key key = (Key) o;
+            return componentId == key.componentId && nodeRuntimeId.equals(key.nodeRuntimeId);
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * nodeRuntimeId.hashCode() + componentId;
+        }
+    }
+
+    UUID channelId;
+    long lastSequence;
+
+    SubscribeChannelState(UUID channelId) {
+        this.channelId = channelId;
+        this.lastSequence = 0;
+    }
+}
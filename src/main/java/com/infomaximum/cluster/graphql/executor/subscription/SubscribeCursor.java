@@ -0,0 +1,50 @@
+package com.infomaximum.cluster.graphql.executor.subscription;
+
+import com.infomaximum.cluster.core.remote.struct.RemoteObject;
+import com.infomaximum.cluster.graphql.struct.subscribe.SubscribeKey;
+
+import java.util.UUID;
+
+/**
+ * Позиция подписчика в потоке событий ключа подписки.
+ * Frontend хранит курсор вместе с подпиской клиента и при переподключении передает его
+ * через {@link com.infomaximum.cluster.graphql.struct.ContextRequest#getSubscribeCursor()} - тогда подписка
+ * продолжается с пропущенных событий без повторного запроса данных у компонента
+ */
+public class SubscribeCursor implements RemoteObject {
+
+    private volatile UUID epoch;
+    private volatile SubscribeKey subscribeKey;
+    private volatile long offset;
+
+    public SubscribeCursor() {
+    }
+
+    /**
+     * Идентификатор движка подписок, выдавшего курсор. После перезапуска frontend'а курсор недействителен
+     */
+    public UUID getEpoch() {
+        return epoch;
+    }
+
+    public SubscribeKey getSubscribeKey() {
+        return subscribeKey;
+    }
+
+    /**
+     * Смещение последнего полученного подписчиком события
+     */
+    public long getOffset() {
+        return offset;
+    }
+
+    void set(UUID epoch, SubscribeKey subscribeKey, long offset) {
+        this.epoch = epoch;
+        this.subscribeKey = subscribeKey;
+        this.offset = offset;
+    }
+
+    void setOffset(long offset) {
+        this.offset = offset;
+    }
+}
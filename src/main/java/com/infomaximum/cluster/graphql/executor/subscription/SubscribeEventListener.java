@@ -0,0 +1,37 @@
+package com.infomaximum.cluster.graphql.executor.subscription;
+
+import java.lang.ref.WeakReference;
+import java.util.function.Consumer;
+
+/**
+ * Слушатель событий ключа подписки. Владелец слушателя (например, кеш поля) удерживается слабо - после
+ * перестроения схемы слушатели старых полей удаляются сами, без явного снятия регистрации
+ */
+class SubscribeEventListener<T> {
+
+    private final WeakReference<T> owner;
+    private final Consumer<? super T> action;
+
+    SubscribeEventListener(T owner, Consumer<? super T> action) {
+        this.owner = new WeakReference<>(owner);
+        this.action = action;
+    }
+
+    /**
+     * @return false - владелец уже собран, слушатель можно удалить
+     */
+    boolean run() {
+        T owner = this.owner.get();
+        if (owner == null) return false;
+        action.accept(owner);
+        return true;
+    }
+
+    boolean isOwner(Object owner) {
+        return this.owner.get() == owner;
+    }
+
+    boolean isAlive() {
+        return owner.get() != null;
+    }
+}
@@ -0,0 +1,133 @@
+package com.infomaximum.cluster.graphql.executor.subscription;
+
+import com.infomaximum.cluster.core.remote.struct.RemoteObject;
+import com.infomaximum.cluster.graphql.struct.GRequest;
+
+import java.io.Serializable;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Общие результаты вычисления полей для одного события подписки.
+ * Пока событие раздается подписчикам, одинаковые поля (документ, переменные, путь, аргументы)
+ * вычисляются один раз, а остальные подписчики получают уже готовый результат
+ */
+public class SubscribeEventShare {
+
+    @FunctionalInterface
+    public interface Execution {
+        Object execute() throws Throwable;
+    }
+
+    public static class Key {
+
+        private final String graphQLTypeName;
+        private final String graphQLTypeFieldName;
+        private final String path;
+        private final HashMap<String, Serializable> arguments;
+
+        private final String query;
+        private final HashMap<String, Serializable> queryVariables;
+        private final String operationName;
+
+        private final int hash;
+
+        public Key(String graphQLTypeName, String graphQLTypeFieldName, String path, HashMap<String, Serializable> arguments, GRequest request) {
+            this.graphQLTypeName = graphQLTypeName;
+            this.graphQLTypeFieldName = graphQLTypeFieldName;
+            this.path = path;
+            this.arguments = arguments;
+
+            this.query = request.getQuery();
+            this.queryVariables = request.getQueryVariables();
+            this.operationName = request.getOperationName();
+
+            this.hash = Objects.hash(graphQLTypeName, graphQLTypeFieldName, path, arguments, query, queryVariables, operationName);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (!(o instanceof Key)) return false;
+            Key key = (Key) o;
+            return hash == key.hash
+                    && graphQLTypeName.equals(key.graphQLTypeName)
+                    && graphQLTypeFieldName.equals(key.graphQLTypeFieldName)
+                    && path.equals(key.path)
+                    && Objects.equals(arguments, key.arguments)
+                    && Objects.equals(query, key.query)
+                    && Objects.equals(queryVariables, key.queryVariables)
+                    && Objects.equals(operationName, key.operationName);
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+    }
+
+    private final Map<Object, SubscribeEventShare> sources;
+    private final ConcurrentMap<Key, CompletableFuture<Object>> results;
+    private final Queue<Object> registeredSources;
+
+    SubscribeEventShare(Map<Object, SubscribeEventShare> sources) {
+        this.sources = sources;
+        this.results = new ConcurrentHashMap<>();
+        this.registeredSources = new ConcurrentLinkedQueue<>();
+    }
+
+    public Object execute(Key key, Execution execution) throws Throwable {
+        CompletableFuture<Object> future = new CompletableFuture<>();
+        CompletableFuture<Object> prevFuture = results.putIfAbsent(key, future);
+        if (prevFuture != null) {
+            try {
+                return prevFuture.join();
+            } catch (CompletionException e) {
+                throw e.getCause();
+            }
+        }
+
+        try {
+            Object result = execution.execute();
+            //Результат станет источником для вложенных полей - их тоже вычисляем один раз
+            register(result);
+            future.complete(result);
+            return result;
+        } catch (Throwable t) {
+            future.completeExceptionally(t);
+            throw t;
+        }
+    }
+
+    void register(Object source) {
+        if (source instanceof RemoteObject) {
+            registerSource(source);
+        } else if (source instanceof Collection) {
+            for (Object item : (Collection) source) {
+                if (item instanceof RemoteObject) {
+                    registerSource(item);
+                }
+            }
+        }
+    }
+
+    private void registerSource(Object source) {
+        sources.put(source, this);
+        registeredSources.add(source);
+    }
+
+    void close() {
+        Object source;
+        while ((source = registeredSources.poll()) != null) {
+            sources.remove(source, this);
+        }
+    }
+}
@@ -0,0 +1,32 @@
+package com.infomaximum.cluster.graphql.executor.subscription;
+
+import io.reactivex.ObservableEmitter;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.CopyOnWriteArraySet;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Подписчики одного ключа подписки
+ */
+class SubscribeKeyEntry {
+
+    final CopyOnWriteArraySet<ObservableEmitter> emitters;
+
+    //Курсоры подписчиков, которые могут продолжить подписку после переподключения
+    final ConcurrentMap<ObservableEmitter, SubscribeCursor> cursors;
+
+    //Подписчики, которые еще дочитывают пропущенные события после возобновления подписки
+    final ConcurrentMap<ObservableEmitter, SubscribeResumeGate> resumeGates;
+
+    final LongAdder events;
+    volatile long lastEventTime;
+
+    SubscribeKeyEntry() {
+        this.emitters = new CopyOnWriteArraySet<>();
+        this.cursors = new ConcurrentHashMap<>();
+        this.resumeGates = new ConcurrentHashMap<>();
+        this.events = new LongAdder();
+    }
+}
@@ -0,0 +1,85 @@
+package com.infomaximum.cluster.graphql.executor.subscription;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Кольцевой буфер последних событий одного ключа подписки.
+ * Каждое событие получает монотонно возрастающее смещение, по которому переподключившийся подписчик
+ * может дочитать пропущенные события. Синхронизация - на самом буфере
+ */
+class SubscribeReplayBuffer {
+
+    private final Optional<? extends Serializable>[] values;
+    private final long[] times;
+    private final long retentionMillis;
+
+    //Смещение последнего события, 0 - событий еще не было
+    private long lastOffset;
+    private int size;
+
+    private volatile long lastAccessTime;
+
+    @SuppressWarnings("unchecked")
+    SubscribeReplayBuffer(int capacity, long retentionMillis) {
+        if (capacity <= 0) throw new IllegalArgumentException("capacity: " + capacity);
+        this.values = new Optional[capacity];
+        this.times = new long[capacity];
+        this.retentionMillis = retentionMillis;
+
+        this.lastOffset = 0;
+        this.size = 0;
+
+        this.lastAccessTime = System.currentTimeMillis();
+    }
+
+    long append(Optional<? extends Serializable> value, long time) {
+        lastOffset++;
+        int index = (int) (lastOffset % values.length);
+        values[index] = value;
+        times[index] = time;
+        if (size < values.length) size++;
+        lastAccessTime = time;
+        return lastOffset;
+    }
+
+    long getLastOffset() {
+        return lastOffset;
+    }
+
+    /**
+     * События после offset в порядке поступления, либо null, если часть из них уже вытеснена из буфера
+     * или устарела - тогда дочитать нельзя и подписчик должен перезапросить данные целиком
+     */
+    List<Optional<? extends Serializable>> since(long offset, long now) {
+        if (offset < 0 || offset > lastOffset) return null;
+        expire(now);
+        long firstOffset = lastOffset - size + 1;
+        if (offset + 1 < firstOffset) return null;
+
+        List<Optional<? extends Serializable>> result = new ArrayList<>((int) (lastOffset - offset));
+        for (long i = offset + 1; i <= lastOffset; i++) {
+            result.add(values[(int) (i % values.length)]);
+        }
+        lastAccessTime = now;
+        return result;
+    }
+
+    /**
+     * Вытесняем события старше срока хранения
+     */
+    void expire(long now) {
+        while (size > 0) {
+            int index = (int) ((lastOffset - size + 1) % values.length);
+            if (now - times[index] <= retentionMillis) break;
+            values[index] = null;
+            size--;
+        }
+    }
+
+    boolean isExpired(long now) {
+        return now - lastAccessTime > retentionMillis;
+    }
+}
@@ -0,0 +1,53 @@
+package com.infomaximum.cluster.graphql.executor.subscription;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Новые события подписчика, который еще дочитывает пропущенные события: копятся до окончания дочитывания,
+ * чтобы подписчик получил события по порядку
+ */
+class SubscribeResumeGate {
+
+    static class Event {
+
+        final long offset;
+        final Optional<? extends Serializable> value;
+
+        private Event(long offset, Optional<? extends Serializable> value) {
+            this.offset = offset;
+            this.value = value;
+        }
+    }
+
+    //null - дочитывание завершено, события идут подписчику напрямую
+    private ArrayList<Event> events;
+
+    SubscribeResumeGate() {
+        this.events = new ArrayList<>();
+    }
+
+    /**
+     * @return false - дочитывание завершено, событие нужно отдать подписчику сразу
+     */
+    synchronized boolean offer(long offset, Optional<? extends Serializable> value) {
+        if (events == null) return false;
+        events.add(new Event(offset, value));
+        return true;
+    }
+
+    /**
+     * Накопившиеся события, null - событий больше нет и дочитывание завершено
+     */
+    synchronized List<Event> drain() {
+        if (events.isEmpty()) {
+            events = null;
+            return null;
+        }
+        List<Event> result = events;
+        events = new ArrayList<>();
+        return result;
+    }
+}
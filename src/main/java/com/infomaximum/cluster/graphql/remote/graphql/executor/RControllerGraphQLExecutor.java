@@ -3,6 +3,9 @@ package com.infomaximum.cluster.graphql.remote.graphql.executor;
 import com.infomaximum.cluster.core.remote.struct.RController;
 import com.infomaximum.cluster.core.remote.struct.RemoteObject;
 import com.infomaximum.cluster.graphql.schema.struct.RGraphQLType;
+import com.infomaximum.cluster.graphql.schema.struct.out.RGraphQLPrepare;
+import com.infomaximum.cluster.graphql.schema.struct.out.RGraphQLPrepareResult;
+import com.infomaximum.cluster.graphql.schema.struct.out.RGraphQLSelection;
 import com.infomaximum.cluster.graphql.struct.ContextRequest;
 
 import java.io.Serializable;
@@ -18,7 +21,17 @@ public interface RControllerGraphQLExecutor extends RController {
 
     public Serializable prepare(String requestItemKey, String graphQLTypeName, String graphQLTypeFieldName, HashMap<String, Serializable> arguments, ContextRequest context) throws Exception;
 
+    /**
+     * Несколько prepare (в т.ч. разных запросов) за один вызов, результаты в порядке запросов.
+     * Ошибка prepare одного поля - его результат, остальные поля пакета выполняются
+     */
+    public ArrayList<RGraphQLPrepareResult> prepareBatch(ArrayList<RGraphQLPrepare> prepares) throws Exception;
+
     public Serializable executePrepare(String keyFieldRequest, RemoteObject source, ContextRequest context) throws Exception;
 
     public Serializable execute(RemoteObject source, String graphQLTypeName, String graphQLTypeFieldName, HashMap<String, Serializable> arguments, ContextRequest context) throws Exception;
+
+    public Serializable executeSelection(RemoteObject source, RGraphQLSelection selection, ContextRequest context) throws Exception;
+
+    public ArrayList<Serializable> executeFields(RemoteObject source, String graphQLTypeName, ArrayList<String> graphQLTypeFieldNames, ArrayList<HashMap<String, Serializable>> arguments, ContextRequest context) throws Exception;
 }
@@ -0,0 +1,39 @@
+package com.infomaximum.cluster.graphql.remote.graphql.executor;
+
+import com.infomaximum.cluster.core.remote.Remotes;
+import com.infomaximum.cluster.exception.ClusterRemotePackerException;
+
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Найденные удаленные контроллеры graphql-исполнителей компонентов. RemoteTarget строится один раз
+ * на экземпляр компонента, при сбое вызова контроллер сбрасывается (см. {@link RControllerGraphQLExecutorRef})
+ */
+public class RControllerGraphQLExecutorCache {
+
+    private final Remotes remotes;
+    private final ConcurrentMap<UUID, ConcurrentMap<Integer, RControllerGraphQLExecutorRef>> controllers;
+
+    public RControllerGraphQLExecutorCache(Remotes remotes) {
+        this.remotes = remotes;
+        this.controllers = new ConcurrentHashMap<>();
+    }
+
+    public RControllerGraphQLExecutor get(UUID nodeRuntimeId, int componentId) throws ClusterRemotePackerException {
+        return controllers.computeIfAbsent(nodeRuntimeId, key -> new ConcurrentHashMap<>())
+                .computeIfAbsent(componentId, key -> new RControllerGraphQLExecutorRef(nodeRuntimeId, componentId))
+                .get(remotes);
+    }
+
+    public void invalidate(UUID nodeRuntimeId, int componentId) {
+        ConcurrentMap<Integer, RControllerGraphQLExecutorRef> nodeControllers = controllers.get(nodeRuntimeId);
+        if (nodeControllers != null) {
+            RControllerGraphQLExecutorRef controller = nodeControllers.get(componentId);
+            if (controller != null) {
+                controller.invalidate();
+            }
+        }
+    }
+}
@@ -5,9 +5,13 @@ import com.infomaximum.cluster.core.remote.struct.RemoteObject;
 import com.infomaximum.cluster.graphql.exception.GraphQLExecutorDataFetcherException;
 import com.infomaximum.cluster.graphql.exception.GraphQLExecutorException;
 import com.infomaximum.cluster.graphql.executor.component.GraphQLComponentExecutor;
+import com.infomaximum.cluster.graphql.executor.component.GraphQLComponentExecutors;
 import com.infomaximum.cluster.graphql.schema.GraphQLSchemaType;
 import com.infomaximum.cluster.graphql.schema.build.graphqltype.TypeGraphQLFieldConfigurationBuilder;
 import com.infomaximum.cluster.graphql.schema.struct.RGraphQLType;
+import com.infomaximum.cluster.graphql.schema.struct.out.RGraphQLPrepare;
+import com.infomaximum.cluster.graphql.schema.struct.out.RGraphQLPrepareResult;
+import com.infomaximum.cluster.graphql.schema.struct.out.RGraphQLSelection;
 import com.infomaximum.cluster.graphql.struct.ContextRequest;
 import com.infomaximum.cluster.struct.Component;
 import org.slf4j.Logger;
@@ -27,13 +31,19 @@ public class RControllerGraphQLExecutorImpl<T extends Component> extends Abstrac
 
     private final TypeGraphQLFieldConfigurationBuilder fieldConfigurationBuilder;
     private final GraphQLSchemaType fieldArgumentConverter;
+    private final GraphQLComponentExecutors localComponentExecutors;
 
     private GraphQLComponentExecutor graphQLItemExecutor;
 
     public RControllerGraphQLExecutorImpl(T component, TypeGraphQLFieldConfigurationBuilder fieldConfigurationBuilder, GraphQLSchemaType fieldArgumentConverter) throws GraphQLExecutorException {
+        this(component, fieldConfigurationBuilder, fieldArgumentConverter, null);
+    }
+
+    public RControllerGraphQLExecutorImpl(T component, TypeGraphQLFieldConfigurationBuilder fieldConfigurationBuilder, GraphQLSchemaType fieldArgumentConverter, GraphQLComponentExecutors localComponentExecutors) throws GraphQLExecutorException {
         super(component);
         this.fieldConfigurationBuilder = fieldConfigurationBuilder;
         this.fieldArgumentConverter = fieldArgumentConverter;
+        this.localComponentExecutors = localComponentExecutors;
     }
 
     public void init() {
@@ -41,6 +51,9 @@ public class RControllerGraphQLExecutorImpl<T extends Component> extends Abstrac
             throw new IllegalStateException();
         }
         graphQLItemExecutor = new GraphQLComponentExecutor(component, fieldConfigurationBuilder, fieldArgumentConverter);
+        if (localComponentExecutors != null) {
+            localComponentExecutors.register(component.getId(), graphQLItemExecutor);
+        }
     }
 
     @Override
@@ -53,6 +66,23 @@ public class RControllerGraphQLExecutorImpl<T extends Component> extends Abstrac
         return graphQLItemExecutor.prepare(component, keyFieldRequest, graphQLTypeName, graphQLTypeFieldName, arguments, context);
     }
 
+    @Override
+    public ArrayList<RGraphQLPrepareResult> prepareBatch(ArrayList<RGraphQLPrepare> prepares) {
+        ArrayList<RGraphQLPrepareResult> results = new ArrayList<>(prepares.size());
+        for (RGraphQLPrepare prepare : prepares) {
+            try {
+                results.add(RGraphQLPrepareResult.of(graphQLItemExecutor.prepare(component, prepare.keyField, prepare.graphQLTypeName, prepare.name, prepare.arguments, prepare.context)));
+            } catch (GraphQLExecutorDataFetcherException e) {
+                results.add(RGraphQLPrepareResult.of(e));
+            } catch (RuntimeException e) {
+                //Повторять prepare нельзя (у него бывают побочные эффекты) - ошибка достается только запросу этого поля
+                log.error("Error prepare field: {}.{}", prepare.graphQLTypeName, prepare.name, e);
+                results.add(RGraphQLPrepareResult.of(new GraphQLExecutorDataFetcherException(e)));
+            }
+        }
+        return results;
+    }
+
     @Override
     public Serializable executePrepare(String keyFieldRequest, RemoteObject source, ContextRequest context) throws GraphQLExecutorDataFetcherException {
         return graphQLItemExecutor.executePrepare(keyFieldRequest, source, context);
@@ -63,4 +93,14 @@ public class RControllerGraphQLExecutorImpl<T extends Component> extends Abstrac
         return graphQLItemExecutor.execute(source, graphQLTypeName, graphQLTypeFieldName, arguments, context);
     }
 
+    @Override
+    public Serializable executeSelection(RemoteObject source, RGraphQLSelection selection, ContextRequest context) throws GraphQLExecutorDataFetcherException {
+        return graphQLItemExecutor.executeSelection(source, selection, context);
+    }
+
+    @Override
+    public ArrayList<Serializable> executeFields(RemoteObject source, String graphQLTypeName, ArrayList<String> graphQLTypeFieldNames, ArrayList<HashMap<String, Serializable>> arguments, ContextRequest context) throws GraphQLExecutorDataFetcherException {
+        return graphQLItemExecutor.executeFields(source, graphQLTypeName, graphQLTypeFieldNames, arguments, context);
+    }
+
 }
@@ -0,0 +1,47 @@
+package com.infomaximum.cluster.graphql.remote.graphql.executor;
+
+import com.infomaximum.cluster.core.remote.RemoteTarget;
+import com.infomaximum.cluster.core.remote.Remotes;
+import com.infomaximum.cluster.core.service.transport.network.LocationRuntimeComponent;
+import com.infomaximum.cluster.exception.ClusterRemotePackerException;
+
+import java.util.UUID;
+
+/**
+ * Найденный удаленный контроллер graphql-исполнителя компонента. Компонент ищется среди живых компонентов ноды
+ * только при первом вызове и после сброса: вызывающий сбрасывает контроллер при сбое вызова
+ * (компонент остановлен или перезапущен), следующий вызов находит новый экземпляр компонента
+ */
+public class RControllerGraphQLExecutorRef {
+
+    public final UUID nodeRuntimeId;
+    public final int componentId;
+
+    private volatile RControllerGraphQLExecutor controller;
+
+    public RControllerGraphQLExecutorRef(UUID nodeRuntimeId, int componentId) {
+        this.nodeRuntimeId = nodeRuntimeId;
+        this.componentId = componentId;
+    }
+
+    public RControllerGraphQLExecutor get(Remotes remotes) throws ClusterRemotePackerException {
+        RControllerGraphQLExecutor controller = this.controller;
+        if (controller != null) return controller;
+
+        LocationRuntimeComponent runtimeComponentInfo = remotes.component.getTransport().getNetworkTransit().getManagerRuntimeComponent().get(nodeRuntimeId, componentId);
+        if (runtimeComponentInfo == null) {
+            throw new ClusterRemotePackerException();
+        }
+        RemoteTarget target = new RemoteTarget(nodeRuntimeId, componentId, runtimeComponentInfo.component().uuid);
+        controller = remotes.getFromCKey(target, RControllerGraphQLExecutor.class);
+        this.controller = controller;
+        return controller;
+    }
+
+    /**
+     * Сброс найденного контроллера: вызывается при сбое вызова компонента
+     */
+    public void invalidate() {
+        controller = null;
+    }
+}
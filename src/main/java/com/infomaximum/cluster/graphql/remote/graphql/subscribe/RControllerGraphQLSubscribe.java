@@ -1,6 +1,7 @@
 package com.infomaximum.cluster.graphql.remote.graphql.subscribe;
 
 import com.infomaximum.cluster.core.remote.struct.RController;
+import com.infomaximum.cluster.graphql.struct.subscribe.SubscribeEventBatch;
 import com.infomaximum.cluster.graphql.struct.subscribe.SubscribeKey;
 
 import java.io.Serializable;
@@ -11,6 +12,14 @@ import java.util.Optional;
  */
 public interface RControllerGraphQLSubscribe extends RController {
 
+    /**
+     * Событие без нумерации - оставлено для компонентов, собранных со старой версией библиотеки
+     *
+     * @deprecated используйте {@link #pushEvents(SubscribeEventBatch)}
+     */
+    @Deprecated
     void pushEvent(SubscribeKey subscribeKey, Optional<? extends Serializable> value) throws Exception;
 
+    void pushEvents(SubscribeEventBatch batch) throws Exception;
+
 }
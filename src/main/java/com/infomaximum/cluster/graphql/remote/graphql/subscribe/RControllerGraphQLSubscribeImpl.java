@@ -3,6 +3,7 @@ package com.infomaximum.cluster.graphql.remote.graphql.subscribe;
 import com.infomaximum.cluster.core.remote.AbstractRController;
 import com.infomaximum.cluster.graphql.exception.GraphQLExecutorException;
 import com.infomaximum.cluster.graphql.executor.subscription.GraphQLSubscribeEngineImpl;
+import com.infomaximum.cluster.graphql.struct.subscribe.SubscribeEventBatch;
 import com.infomaximum.cluster.graphql.struct.subscribe.SubscribeKey;
 import com.infomaximum.cluster.struct.Component;
 import org.slf4j.Logger;
@@ -26,8 +27,14 @@ public class RControllerGraphQLSubscribeImpl<T extends Component> extends Abstra
         this.subscribeEngine = subscribeEngine;
     }
 
+    @Deprecated
     @Override
     public void pushEvent(SubscribeKey subscribeKey, Optional<? extends Serializable> value) {
         subscribeEngine.pushEvent(subscribeKey, value);
     }
+
+    @Override
+    public void pushEvents(SubscribeEventBatch batch) {
+        subscribeEngine.pushEvents(batch);
+    }
 }
@@ -7,11 +7,14 @@ import java.util.*;
 public class MergeGraphQLTypeOutObject extends MergeGraphQLType {
 
     private Map<String, RGraphQLObjectTypeField> fieldsByExternalName;
+    //Одинаковые поля одного компонента, запущенного на разных нодах
+    private Map<String, List<RGraphQLObjectTypeField>> replicasByExternalName;
     private Set<String> interfaceGraphQLTypeNames;
 
     public MergeGraphQLTypeOutObject(String name, String description) {
         super(name, description);
         this.fieldsByExternalName = new HashMap<>();
+        this.replicasByExternalName = new HashMap<>();
         this.interfaceGraphQLTypeNames = new HashSet<>();
     }
 
@@ -21,6 +24,42 @@ public class MergeGraphQLTypeOutObject extends MergeGraphQLType {
         }
     }
 
+    /**
+     * Как mergeFields, но поле, уже объявленное тем же методом компонента на другой ноде, становится его репликой.
+     * Поля, которые не вызываются в репликах (подготовка, поля объектов), остаются за первым (локальным) компонентом
+     */
+    public void mergeReplicaFields(Set<RGraphQLObjectTypeField> rTypeGraphQLFields) {
+        for (RGraphQLObjectTypeField field: rTypeGraphQLFields) {
+            RGraphQLObjectTypeField primaryField = fieldsByExternalName.get(field.externalName);
+            if (primaryField != null && isReplica(primaryField, field)) {
+                replicasByExternalName.computeIfAbsent(field.externalName, key -> new ArrayList<>(List.of(primaryField))).add(field);
+            } else if (primaryField != null && isSameComponentField(primaryField, field)) {
+                continue;
+            } else {
+                fieldsByExternalName.put(field.externalName, field);
+                replicasByExternalName.remove(field.externalName);
+            }
+        }
+    }
+
+    private static boolean isReplica(RGraphQLObjectTypeField primaryField, RGraphQLObjectTypeField field) {
+        return !primaryField.isField && !field.isField
+                && !primaryField.isPrepare && !field.isPrepare
+                && isSameComponentField(primaryField, field);
+    }
+
+    /**
+     * Поле объявлено тем же методом (полем) компонента, запущенного на другой ноде
+     */
+    private static boolean isSameComponentField(RGraphQLObjectTypeField primaryField, RGraphQLObjectTypeField field) {
+        return primaryField.isField == field.isField
+                && primaryField.isPrepare == field.isPrepare
+                && primaryField.componentId != null && field.componentId != null
+                && !primaryField.nodeRuntimeId.equals(field.nodeRuntimeId)
+                && primaryField.name.equals(field.name)
+                && primaryField.type.equals(field.type);
+    }
+
     public void mergeInterfaces(Set<String> interfaceGraphQLTypeNames) {
         for (String interfaceGraphQLTypeName : interfaceGraphQLTypeNames) {
             this.interfaceGraphQLTypeNames.add(interfaceGraphQLTypeName);
@@ -35,6 +74,13 @@ public class MergeGraphQLTypeOutObject extends MergeGraphQLType {
         return fieldsByExternalName.get(externalName);
     }
 
+    /**
+     * Все экземпляры поля (первым - основное), null - поле есть только в одном компоненте
+     */
+    public List<RGraphQLObjectTypeField> getReplicas(String externalName) {
+        return replicasByExternalName.get(externalName);
+    }
+
     public Set<String> getInterfaceGraphQLTypeNames() {
         return Collections.unmodifiableSet(interfaceGraphQLTypeNames);
     }
@@ -7,16 +7,21 @@ import com.infomaximum.cluster.graphql.anotation.*;
 import com.infomaximum.cluster.graphql.exception.GraphQLExecutorException;
 import com.infomaximum.cluster.graphql.preparecustomfield.PrepareCustomField;
 import com.infomaximum.cluster.graphql.schema.GraphQLSchemaType;
+import com.infomaximum.cluster.graphql.schema.scalartype.GraphQLScalarTypeCustom;
 import com.infomaximum.cluster.graphql.schema.scalartype.GraphQLTypeScalar;
 import com.infomaximum.cluster.graphql.schema.struct.RGraphQLType;
 import com.infomaximum.cluster.graphql.schema.struct.RGraphQLTypeEnum;
 import com.infomaximum.cluster.graphql.schema.struct.in.RGraphQLInputObjectTypeField;
 import com.infomaximum.cluster.graphql.schema.struct.in.RGraphQLTypeInObject;
 import com.infomaximum.cluster.graphql.schema.struct.out.RGraphQLObjectTypeField;
+import com.infomaximum.cluster.graphql.schema.struct.out.RGraphQLObjectTypeFieldCache;
 import com.infomaximum.cluster.graphql.schema.struct.out.RGraphQLObjectTypeMethodArgument;
 import com.infomaximum.cluster.graphql.schema.struct.out.RGraphQLTypeOutObject;
 import com.infomaximum.cluster.graphql.schema.struct.out.RGraphQLTypeOutObjectInterface;
+import com.infomaximum.cluster.graphql.struct.GConnection;
 import com.infomaximum.cluster.graphql.struct.GOptional;
+import com.infomaximum.cluster.graphql.struct.GPage;
+import com.infomaximum.cluster.graphql.struct.GSelectionSet;
 import com.infomaximum.cluster.graphql.struct.GSubscribeEvent;
 import com.infomaximum.cluster.struct.Component;
 import com.infomaximum.cluster.utils.ReflectionUtils;
@@ -28,6 +33,7 @@ import org.slf4j.LoggerFactory;
 import java.io.Serializable;
 import java.lang.annotation.Annotation;
 import java.lang.reflect.*;
+import java.nio.charset.StandardCharsets;
 import java.util.*;
 
 /**
@@ -289,6 +295,7 @@ public class TypeGraphQLBuilder {
         String graphQLFieldDeprecated = getGraphQLFieldDeprecated(method);
 
         List<RGraphQLObjectTypeMethodArgument> arguments = new ArrayList<>();
+        boolean isSelectionSet = false;
         Class[] parameterTypes = method.getParameterTypes();
         Annotation[][] parametersAnnotations = method.getParameterAnnotations();
         AnnotatedType[] annotatedParameterTypes = method.getAnnotatedParameterTypes();
@@ -317,7 +324,20 @@ public class TypeGraphQLBuilder {
             }
 
             if (aGraphQLTarget != null) continue;//В эту переменную будет передаваться объект для которого вызывается
-            if (aGraphQLName == null) continue;//В эту переменную будет передаваться внешняя переменная
+            if (aGraphQLName == null) {
+                //В эту переменную будет передаваться внешняя переменная
+                if (GSelectionSet.class.isAssignableFrom(parameterTypes[index])) {
+                    if (isPrepereField) {
+                        throw new GraphQLExecutorException("Method: " + method.getName() + " in class " + method.getDeclaringClass().getName() + " can't accept GSelectionSet");
+                    }
+                    isSelectionSet = true;
+                } else if (GPage.class.isAssignableFrom(parameterTypes[index])) {
+                    //Аргументы страницы добавляются в схему автоматически
+                    arguments.add(new RGraphQLObjectTypeMethodArgument(GraphQLScalarTypeCustom.GraphQLInt.getName(), GPage.ARGUMENT_FIRST, GPage.ARGUMENT_FIRST, false, "Page size, max " + GPage.MAX_SIZE));
+                    arguments.add(new RGraphQLObjectTypeMethodArgument(GraphQLScalarTypeCustom.GraphQLString.getName(), GPage.ARGUMENT_AFTER, GPage.ARGUMENT_AFTER, false, "Cursor after which the page starts"));
+                }
+                continue;
+            }
 
             String typeArgument;
             try {
@@ -340,7 +360,22 @@ public class TypeGraphQLBuilder {
         GraphQLDescription aGraphQLDescription = method.getAnnotation(GraphQLDescription.class);
         String description = (aGraphQLDescription != null && !aGraphQLDescription.value().isEmpty()) ? aGraphQLDescription.value() : null;
 
-        return new RGraphQLObjectTypeField(nodeRuntimeId, componentId, false, isPrepereField, typeField, nameMethod, graphQLFieldName, arguments, fieldConfiguration, description, graphQLFieldDeprecated);
+        boolean isIdempotent = (method.getAnnotation(GraphQLNonIdempotent.class) == null);
+
+        RGraphQLObjectTypeFieldCache cache = null;
+        GraphQLCache aGraphQLCache = method.getAnnotation(GraphQLCache.class);
+        if (aGraphQLCache != null) {
+            if (isPrepereField || !isIdempotent || method.getReturnType().isAssignableFrom(GSubscribeEvent.class)) {
+                throw new GraphQLExecutorException("Method: " + method.getName() + " in class " + method.getDeclaringClass().getName() + " can't be cached");
+            }
+            ArrayList<byte[]> invalidateOn = new ArrayList<>();
+            for (String subscribeKey : aGraphQLCache.invalidateOn()) {
+                invalidateOn.add(subscribeKey.getBytes(StandardCharsets.UTF_8));
+            }
+            cache = new RGraphQLObjectTypeFieldCache(aGraphQLCache.ttl(), aGraphQLCache.maxEntries(), aGraphQLCache.byArguments(), aGraphQLCache.bySource(), invalidateOn);
+        }
+
+        return new RGraphQLObjectTypeField(nodeRuntimeId, componentId, false, isPrepereField, typeField, nameMethod, graphQLFieldName, arguments, fieldConfiguration, description, graphQLFieldDeprecated, isIdempotent, cache, isSelectionSet);
     }
 
     private String getGraphQLType(Type type) throws ClassNotFoundException {
@@ -370,6 +405,13 @@ public class TypeGraphQLBuilder {
             return "collection:" + getGraphQLType(clazzGenericType);
         }
 
+        //Проверяем на страницу коллекции
+        if (rawType == GConnection.class) {
+            String genericTypeName = ((ParameterizedType) type).getActualTypeArguments()[0].getTypeName();
+            Class clazzGenericType = Class.forName(genericTypeName, true, Thread.currentThread().getContextClassLoader());
+            return "connection:" + getGraphQLType(clazzGenericType);
+        }
+
         //Проверяем на GOptional
         if (rawType == GOptional.class) {
             Type iGenericType = ((ParameterizedType) type).getActualTypeArguments()[0];
@@ -1,24 +1,52 @@
 package com.infomaximum.cluster.graphql.schema.datafetcher;
 
-import com.infomaximum.cluster.core.remote.RemoteTarget;
 import com.infomaximum.cluster.core.remote.Remotes;
 import com.infomaximum.cluster.core.remote.struct.RemoteObject;
-import com.infomaximum.cluster.core.service.transport.network.LocationRuntimeComponent;
 import com.infomaximum.cluster.exception.ClusterRemotePackerException;
+import com.infomaximum.cluster.graphql.exception.GraphQLExecutorCancelledException;
+import com.infomaximum.cluster.graphql.exception.GraphQLExecutorCircuitOpenException;
 import com.infomaximum.cluster.graphql.exception.GraphQLExecutorDataFetcherException;
+import com.infomaximum.cluster.graphql.exception.GraphQLExecutorDeadlineExceededException;
+import com.infomaximum.cluster.graphql.exception.GraphQLExecutorException;
+import com.infomaximum.cluster.graphql.exception.GraphQLExecutorOverloadException;
+import com.infomaximum.cluster.graphql.executor.bulkhead.GraphQLBulkhead;
+import com.infomaximum.cluster.graphql.executor.bulkhead.GraphQLBulkheads;
+import com.infomaximum.cluster.graphql.executor.circuitbreaker.GraphQLCircuitBreaker;
+import com.infomaximum.cluster.graphql.executor.circuitbreaker.GraphQLCircuitBreakers;
 import com.infomaximum.cluster.graphql.executor.component.GraphQLComponentExecutor;
+import com.infomaximum.cluster.graphql.executor.component.GraphQLComponentExecutors;
+import com.infomaximum.cluster.graphql.executor.hedging.GraphQLHedging;
+import com.infomaximum.cluster.graphql.executor.limiter.GraphQLConcurrencyLimiter;
+import com.infomaximum.cluster.graphql.executor.limiter.GraphQLConcurrencyLimiters;
 import com.infomaximum.cluster.graphql.executor.subscription.GraphQLSubscribeEngineImpl;
+import com.infomaximum.cluster.graphql.executor.subscription.SubscribeCursor;
+import com.infomaximum.cluster.graphql.executor.subscription.SubscribeEventShare;
 import com.infomaximum.cluster.graphql.preparecustomfield.PrepareCustomFieldUtils;
 import com.infomaximum.cluster.graphql.remote.graphql.executor.RControllerGraphQLExecutor;
+import com.infomaximum.cluster.graphql.remote.graphql.executor.RControllerGraphQLExecutorRef;
 import com.infomaximum.cluster.graphql.schema.datafetcher.utils.ExtResult;
 import com.infomaximum.cluster.graphql.schema.struct.out.RGraphQLObjectTypeField;
+import com.infomaximum.cluster.graphql.schema.struct.out.RGraphQLObjectTypeFieldCache;
+import com.infomaximum.cluster.graphql.schema.struct.out.RGraphQLSelection;
+import com.infomaximum.cluster.graphql.schema.struct.out.RGraphQLSelectionNode;
 import com.infomaximum.cluster.graphql.struct.ContextRequest;
+import com.infomaximum.cluster.graphql.struct.GCancellationToken;
+import com.infomaximum.cluster.graphql.struct.GSelectionSet;
 import com.infomaximum.cluster.graphql.struct.GSubscribeEvent;
+import com.infomaximum.cluster.graphql.struct.subscribe.SubscribeKey;
+import graphql.GraphQLContext;
+import graphql.execution.CoercedVariables;
+import graphql.execution.ExecutionStepInfo;
+import graphql.execution.MergedField;
+import graphql.execution.ValuesResolver;
 import graphql.language.Argument;
 import graphql.language.Field;
+import graphql.language.OperationDefinition;
 import graphql.language.VariableReference;
 import graphql.schema.DataFetcher;
 import graphql.schema.DataFetchingEnvironment;
+import graphql.schema.DataFetchingFieldSelectionSet;
+import graphql.schema.SelectedField;
 import io.reactivex.BackpressureStrategy;
 import io.reactivex.Observable;
 import io.reactivex.ObservableEmitter;
@@ -28,10 +56,18 @@ import org.slf4j.LoggerFactory;
 
 import java.io.Serializable;
 import java.lang.reflect.InvocationTargetException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.Objects;
 import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.Callable;
 import java.util.concurrent.ExecutionException;
+import java.util.function.Supplier;
 
 /**
  * Created by kris on 11.01.17.
@@ -40,6 +76,8 @@ public class ComponentDataFetcher implements DataFetcher {
 
     protected final static Logger log = LoggerFactory.getLogger(ComponentDataFetcher.class);
 
+    private final static int ARGUMENT_PLANS_MAX_SIZE = 8;
+
     protected final Remotes remotes;
     protected final GraphQLComponentExecutor sdkGraphQLItemExecutor;
     protected final GraphQLSubscribeEngineImpl subscribeEngine;
@@ -47,6 +85,34 @@ public class ComponentDataFetcher implements DataFetcher {
     protected final String graphQLTypeName;
     protected final RGraphQLObjectTypeField rTypeGraphQLField;
 
+    private final ComponentDataFetcherCache fieldCache;
+
+    private GraphQLComponentExecutors localComponentExecutors;
+
+    private boolean requestMemoization;
+    private boolean siblingFieldFusion;
+    private boolean subtreePushdown;
+
+    private volatile ComponentDataFetcherFusion.Plan fusionPlan;
+
+    private volatile ComponentDataFetcherPushdown pushdownPlan;
+
+    private ComponentDataFetcherReplicas replicas;
+
+    private GraphQLHedging hedging;
+    private GraphQLHedging.Field hedgingField;
+
+    private GraphQLCircuitBreakers circuitBreakers;
+    private GraphQLConcurrencyLimiters concurrencyLimiters;
+    private GraphQLBulkheads bulkheads;
+
+    //Планы разбора аргументов поля по форме аргументов в запросе (имя аргумента и переменная), а не по узлу документа:
+    //форма совпадает у всех запросов с одинаковым текстом поля, планов немного и поиск идет без блокировок
+    private volatile ArgumentPlan[] argumentPlans = new ArgumentPlan[0];
+
+    //Контроллер компонента-владельца поля, сбрасывается при ошибке удаленного вызова
+    private final RControllerGraphQLExecutorRef remoteExecutor;
+
     public ComponentDataFetcher(Remotes remotes, GraphQLComponentExecutor sdkGraphQLItemExecutor, GraphQLSubscribeEngineImpl subscribeEngine, String graphQLTypeName, RGraphQLObjectTypeField rTypeGraphQLField) {
         this.remotes = remotes;
         this.sdkGraphQLItemExecutor = sdkGraphQLItemExecutor;
@@ -54,6 +120,103 @@ public class ComponentDataFetcher implements DataFetcher {
 
         this.graphQLTypeName = graphQLTypeName;
         this.rTypeGraphQLField = rTypeGraphQLField;
+        this.remoteExecutor = (rTypeGraphQLField.componentId == null) ? null : new RControllerGraphQLExecutorRef(rTypeGraphQLField.nodeRuntimeId, rTypeGraphQLField.componentId);
+
+        RGraphQLObjectTypeFieldCache cache = rTypeGraphQLField.cache;
+        if (cache != null) {
+            fieldCache = new ComponentDataFetcherCache(cache.ttl, cache.maxEntries);
+            if (subscribeEngine != null && rTypeGraphQLField.componentId != null) {
+                //Кеш поля сбрасывается по событиям компонента-владельца
+                for (byte[] subscribeKey : cache.invalidateOn) {
+                    subscribeEngine.addEventListener(
+                            new SubscribeKey(rTypeGraphQLField.nodeRuntimeId, rTypeGraphQLField.componentId, subscribeKey),
+                            fieldCache, ComponentDataFetcherCache::invalidate
+                    );
+                }
+            }
+        } else {
+            fieldCache = null;
+        }
+    }
+
+    /**
+     * Поля компонентов этой ноды будут вызываться напрямую, null - всегда удаленный вызов
+     */
+    public void setLocalComponentExecutors(GraphQLComponentExecutors localComponentExecutors) {
+        this.localComponentExecutors = localComponentExecutors;
+    }
+
+    /**
+     * Одинаковые вызовы поля (тот же источник и аргументы) в рамках запроса выполняются один раз.
+     * Не применяется к мутациям, подпискам и полям, помеченным {@link com.infomaximum.cluster.graphql.anotation.GraphQLNonIdempotent}
+     */
+    public void setRequestMemoization(boolean requestMemoization) {
+        this.requestMemoization = requestMemoization;
+    }
+
+    /**
+     * Соседние поля объекта, принадлежащие тому же компоненту, вычисляются одним удаленным вызовом
+     */
+    public void setSiblingFieldFusion(boolean siblingFieldFusion) {
+        this.siblingFieldFusion = siblingFieldFusion;
+    }
+
+    /**
+     * Поддерево запроса, все методы которого принадлежат тому же компоненту, вычисляется в компоненте одним вызовом
+     */
+    public void setSubtreePushdown(boolean subtreePushdown) {
+        this.subtreePushdown = subtreePushdown;
+    }
+
+    /**
+     * Экземпляры компонента-владельца на разных нодах (первым - основной), null - компонент запущен на одной ноде.
+     * Подготовка полей и подписки всегда выполняются в основном экземпляре
+     */
+    public void setReplicas(List<RGraphQLObjectTypeField> replicas) {
+        if (replicas == null || replicas.size() < 2) {
+            this.replicas = null;
+            return;
+        }
+        this.replicas = new ComponentDataFetcherReplicas(replicas);
+        if (fieldCache != null && subscribeEngine != null) {
+            for (RGraphQLObjectTypeField replica : replicas.subList(1, replicas.size())) {
+                for (byte[] subscribeKey : rTypeGraphQLField.cache.invalidateOn) {
+                    subscribeEngine.addEventListener(
+                            new SubscribeKey(replica.nodeRuntimeId, replica.componentId, subscribeKey),
+                            fieldCache, ComponentDataFetcherCache::invalidate
+                    );
+                }
+            }
+        }
+    }
+
+    /**
+     * Медленный вызов идемпотентного поля дублируется в другой экземпляр компонента (нужны реплики), null - без дублирования
+     */
+    public void setHedging(GraphQLHedging hedging) {
+        this.hedging = hedging;
+        this.hedgingField = (hedging == null) ? null : hedging.getField(graphQLTypeName, rTypeGraphQLField.externalName);
+    }
+
+    /**
+     * Цепи вызовов экземпляров компонентов, null - без размыкания
+     */
+    public void setCircuitBreakers(GraphQLCircuitBreakers circuitBreakers) {
+        this.circuitBreakers = circuitBreakers;
+    }
+
+    /**
+     * Адаптивные пределы одновременных вызовов экземпляров компонентов, null - без ограничения
+     */
+    public void setConcurrencyLimiters(GraphQLConcurrencyLimiters concurrencyLimiters) {
+        this.concurrencyLimiters = concurrencyLimiters;
+    }
+
+    /**
+     * Пределы потоков, занятых полями компонентов, null - без изоляции
+     */
+    public void setBulkheads(GraphQLBulkheads bulkheads) {
+        this.bulkheads = bulkheads;
     }
 
     @Override
@@ -70,46 +233,50 @@ public class ComponentDataFetcher implements DataFetcher {
     }
 
     protected Object execute(DataFetchingEnvironment environment) throws Throwable {
+        if (environment.getSource() instanceof RGraphQLSelectionNode) {
+            //Поддерево уже вычислено в компоненте-владельце
+            return ExtResult.get(((RGraphQLSelectionNode) environment.getSource()).get(environment.getField().getResultKey()));
+        }
+
         ContextRequest context = environment.getContext();
         try {
-            Object result;
-            if (rTypeGraphQLField.componentId == null) {
-                //У этого объекта нет родительской подсистемы - вызываем прямо тут
+            //Запрос отменен - поля больше не вычисляем
+            context.checkCancelled();
 
-                if (rTypeGraphQLField.isPrepare) throw new RuntimeException("Not implemented");
+            SubscribeCursor subscribeCursor = isSubscription(environment) ? context.getSubscribeCursor() : null;
+            if (subscribeCursor != null && subscribeEngine != null && subscribeEngine.isResumable(subscribeCursor)) {
+                //Клиент переподключился - дочитываем пропущенные события вместо повторного запроса к компоненту
+                ObservableOnSubscribe observableOnSubscribe = new ObservableOnSubscribe() {
+                    @Override
+                    public void subscribe(ObservableEmitter emitter) {
+                        if (!subscribeEngine.resume(subscribeCursor, emitter)) {
+                            emitter.onError(new GraphQLExecutorException("Subscribe cursor expired"));
+                        }
+                    }
+                };
+                return Observable.create(observableOnSubscribe).toFlowable(BackpressureStrategy.LATEST);
+            }
 
-                result = sdkGraphQLItemExecutor.execute(
-                        environment.getSource(), graphQLTypeName, rTypeGraphQLField.name,
-                        getArguments(rTypeGraphQLField, environment, context.getRequest().getQueryVariables()),
-                        context
-                );
+            Object result;
+            if (rTypeGraphQLField.isPrepare) {
+                result = executePrepare(environment, context);
             } else {
-                //Этот объект принадлежит определенной подсистеме - необходимо вызывать метод удаленно именно не родительской подсистеме
-                LocationRuntimeComponent runtimeComponentInfo = remotes.component.getTransport().getNetworkTransit().getManagerRuntimeComponent().get(rTypeGraphQLField.nodeRuntimeId, rTypeGraphQLField.componentId);
-                if (runtimeComponentInfo == null) {
-                    throw new ClusterRemotePackerException();
-                }
-                RemoteTarget target = new RemoteTarget(rTypeGraphQLField.nodeRuntimeId, rTypeGraphQLField.componentId, runtimeComponentInfo.component().uuid);
+                HashMap<String, Serializable> arguments = getArguments(environment, context.getRequest().getQueryVariables());
 
-                RControllerGraphQLExecutor rControllerGraphQLExecutor = remotes.getFromCKey(target, RControllerGraphQLExecutor.class);
-
-                RemoteObject source = null;
-                if (environment.getSource() instanceof RemoteObject) {
-                    source = environment.getSource();
-                }
-
-                if (rTypeGraphQLField.isPrepare) {
-                    result = rControllerGraphQLExecutor.executePrepare(
-                            PrepareCustomFieldUtils.getKeyField(environment),
-                            source,
-                            context
+                SubscribeEventShare eventShare = (subscribeEngine == null) ? null : subscribeEngine.getEventShare(environment.getSource());
+                if (fieldCache != null && environment.getOperationDefinition().getOperation() == OperationDefinition.Operation.QUERY) {
+                    result = executeCached(environment, arguments, context);
+                } else if (eventShare != null) {
+                    //Источник пришел из события подписки - это поле для всех одинаковых подписчиков вычисляем один раз
+                    result = eventShare.execute(
+                            new SubscribeEventShare.Key(graphQLTypeName, rTypeGraphQLField.name, environment.getExecutionStepInfo().getPath().toString(), arguments, context.getRequest()),
+                            () -> executeField(environment, arguments, context)
                     );
+                } else if (isMemoizable(environment)) {
+                    ComponentDataFetcherMemo memo = getRequestState(environment.getGraphQlContext(), ComponentDataFetcherMemo.class, ComponentDataFetcherMemo::new);
+                    result = memo.execute(this, environment.getSource(), arguments, () -> executeField(environment, arguments, context));
                 } else {
-                    result = rControllerGraphQLExecutor.execute(
-                            source, graphQLTypeName, rTypeGraphQLField.name,
-                            getArguments(rTypeGraphQLField, environment, context.getRequest().getQueryVariables()),
-                            context
-                    );
+                    result = executeField(environment, arguments, context);
                 }
             }
 
@@ -121,7 +288,7 @@ public class ComponentDataFetcher implements DataFetcher {
                     @Override
                     public void subscribe(ObservableEmitter emitter) {
                         emitter.onNext(resultSubscribeValue.value);
-                        subscribeEngine.subscribe(rTypeGraphQLField.nodeRuntimeId, rTypeGraphQLField.componentId, resultSubscribeValue.subscribeKey, emitter);
+                        subscribeEngine.subscribe(rTypeGraphQLField.nodeRuntimeId, rTypeGraphQLField.componentId, resultSubscribeValue.subscribeKey, emitter, subscribeCursor);
                     }
                 };
                 return Observable.create(observableOnSubscribe).toFlowable(BackpressureStrategy.LATEST);
@@ -139,50 +306,611 @@ public class ComponentDataFetcher implements DataFetcher {
             } else {
                 e = t;
             }
+            if (!(e instanceof GraphQLExecutorCancelledException)) {
+                cancelIfResultLost(environment, context);
+            }
             throw e;
         }
     }
 
+    private Object executeCached(DataFetchingEnvironment environment, HashMap<String, Serializable> arguments, ContextRequest context) throws Exception {
+        ComponentDataFetcherCache.Key cacheKey = new ComponentDataFetcherCache.Key(
+                rTypeGraphQLField.cache.bySource ? environment.getSource() : null,
+                rTypeGraphQLField.cache.byArguments ? arguments : getSelectionArguments(arguments)
+        );
+        Object result = fieldCache.get(cacheKey, System.currentTimeMillis());
+        if (result == null) {
+            long generation = fieldCache.getGeneration();
+            result = executeField(environment, arguments, context);
+            fieldCache.put(cacheKey, result, generation, System.currentTimeMillis());
+        }
+        return result;
+    }
+
+    /**
+     * Результат метода зависит от запрошенных вложенных полей, даже если кеш не учитывает аргументы
+     */
+    private HashMap<String, Serializable> getSelectionArguments(HashMap<String, Serializable> arguments) {
+        if (!rTypeGraphQLField.isSelectionSet) return null;
+        HashMap<String, Serializable> selectionArguments = new HashMap<>();
+        selectionArguments.put(GSelectionSet.ARGUMENT_NAME, arguments.get(GSelectionSet.ARGUMENT_NAME));
+        return selectionArguments;
+    }
+
+    private boolean isMemoizable(DataFetchingEnvironment environment) {
+        return requestMemoization
+                && rTypeGraphQLField.isIdempotent
+                && environment.getOperationDefinition().getOperation() == OperationDefinition.Operation.QUERY;
+    }
+
+    /**
+     * Состояние, общее для всех полей запроса: создается при первом обращении (в GraphQLContext нет computeIfAbsent)
+     */
+    static <T> T getRequestState(GraphQLContext graphQLContext, Class<T> key, Supplier<T> factory) {
+        T state = graphQLContext.get(key);
+        if (state != null) {
+            return state;
+        }
+        synchronized (graphQLContext) {
+            state = graphQLContext.get(key);
+            if (state == null) {
+                state = factory.get();
+                graphQLContext.put(key, state);
+            }
+            return state;
+        }
+    }
+
+    private static boolean isSubscription(DataFetchingEnvironment environment) {
+        return environment.getOperationDefinition().getOperation() == OperationDefinition.Operation.SUBSCRIPTION
+                && environment.getExecutionStepInfo().getPath().getLevel() == 1;
+    }
+
+    private Object executePrepare(DataFetchingEnvironment environment, ContextRequest context) throws Exception {
+        if (rTypeGraphQLField.componentId == null) {
+            //У этого объекта нет родительской подсистемы - вызываем прямо тут
+            throw new RuntimeException("Not implemented");
+        }
+        return isolate(rTypeGraphQLField.nodeRuntimeId, rTypeGraphQLField.componentId, () -> executeComponentPrepare(environment, context));
+    }
+
+    private Object executeComponentPrepare(DataFetchingEnvironment environment, ContextRequest context) throws Exception {
+        GraphQLComponentExecutor localExecutor = getLocalExecutor();
+        if (localExecutor != null) {
+            return localExecutor.executePrepare(
+                    PrepareCustomFieldUtils.getKeyField(environment),
+                    getRemoteSource(environment),
+                    context
+            );
+        }
+        try {
+            return callRemote(rTypeGraphQLField.nodeRuntimeId, rTypeGraphQLField.componentId, context, () -> getRemoteExecutor().executePrepare(
+                    PrepareCustomFieldUtils.getKeyField(environment),
+                    getRemoteSource(environment),
+                    context
+            ));
+        } catch (Exception e) {
+            if (isComponentFailure(e)) {
+                remoteExecutor.invalidate();
+            }
+            throw e;
+        }
+    }
+
+    private Object executeField(DataFetchingEnvironment environment, HashMap<String, Serializable> arguments, ContextRequest context) throws Exception {
+        if (rTypeGraphQLField.componentId == null) {
+            //У этого объекта нет родительской подсистемы - вызываем прямо тут
+            return sdkGraphQLItemExecutor.execute(
+                    environment.getSource(), graphQLTypeName, rTypeGraphQLField.name,
+                    arguments,
+                    context
+            );
+        }
+        if (replicas != null && !isSubscription(environment)) {
+            //Предел потоков - того экземпляра, в который фактически уходит вызов
+            return executeReplica(environment, arguments, context);
+        }
+        return isolate(rTypeGraphQLField.nodeRuntimeId, rTypeGraphQLField.componentId, () -> executeComponentField(environment, arguments, context));
+    }
+
+    private Object executeComponentField(DataFetchingEnvironment environment, HashMap<String, Serializable> arguments, ContextRequest context) throws Exception {
+        GraphQLComponentExecutor localExecutor = getLocalExecutor();
+        if (localExecutor != null) {
+            //Компонент-владелец на этой же ноде - вызываем напрямую
+            return localExecutor.execute(
+                    getRemoteSource(environment), graphQLTypeName, rTypeGraphQLField.name,
+                    arguments,
+                    context
+            );
+        } else {
+            if (subtreePushdown && environment.getOperationDefinition().getOperation() == OperationDefinition.Operation.QUERY) {
+                Object result = executePushdown(environment, context);
+                if (result != ComponentDataFetcherPushdown.NOT_PUSHED_DOWN) {
+                    return result;
+                }
+            }
+
+            if (siblingFieldFusion && fieldCache == null && environment.getSource() instanceof RemoteObject
+                    && environment.getOperationDefinition().getOperation() == OperationDefinition.Operation.QUERY) {
+                Object result = executeFused(environment, arguments, context);
+                if (result != ComponentDataFetcherFusion.NOT_FUSED) {
+                    return result;
+                }
+            }
+
+            //Этот объект принадлежит определенной подсистеме - необходимо вызывать метод удаленно именно не родительской подсистеме
+            try {
+                return callRemote(rTypeGraphQLField.nodeRuntimeId, rTypeGraphQLField.componentId, context, () -> getRemoteExecutor().execute(
+                        getRemoteSource(environment), graphQLTypeName, rTypeGraphQLField.name,
+                        arguments,
+                        context
+                ));
+            } catch (Exception e) {
+                if (isComponentFailure(e)) {
+                    remoteExecutor.invalidate();
+                }
+                throw e;
+            }
+        }
+    }
+
+    private Object executeReplica(DataFetchingEnvironment environment, HashMap<String, Serializable> arguments, ContextRequest context) throws Exception {
+        UUID localNodeRuntimeId = remotes.cluster.node.getRuntimeId();
+        ComponentDataFetcherReplicas.Replica replica = replicas.select(localNodeRuntimeId, null);
+        GraphQLComponentExecutor localExecutor = getLocalExecutor(replica.nodeRuntimeId, replica.componentId);
+        if (localExecutor != null) {
+            return isolate(replica.nodeRuntimeId, replica.componentId, () -> localExecutor.execute(
+                    getRemoteSource(environment), graphQLTypeName, rTypeGraphQLField.name,
+                    arguments,
+                    context
+            ));
+        }
+
+        try {
+            if (hedging != null && rTypeGraphQLField.isIdempotent
+                    && environment.getOperationDefinition().getOperation() == OperationDefinition.Operation.QUERY) {
+                ComponentDataFetcherReplicas.Replica primaryReplica = replica;
+                return hedging.execute(
+                        hedgingField,
+                        context.getDeadline(),
+                        () -> executeReplica(primaryReplica, environment, arguments, context),
+                        () -> {
+                            ComponentDataFetcherReplicas.Replica hedgeReplica = replicas.select(localNodeRuntimeId, primaryReplica);
+                            return (hedgeReplica == null) ? null : () -> executeReplica(hedgeReplica, environment, arguments, context);
+                        }
+                );
+            }
+            return executeReplica(replica, environment, arguments, context);
+        } catch (GraphQLExecutorDataFetcherException | GraphQLExecutorDeadlineExceededException | GraphQLExecutorCancelledException e) {
+            throw e;
+        } catch (Exception e) {
+            //Повторный вызов в другом экземпляре безопасен только для полей без побочных эффектов
+            ComponentDataFetcherReplicas.Replica nextReplica = rTypeGraphQLField.isIdempotent ? replicas.select(localNodeRuntimeId, replica) : null;
+            if (nextReplica == null) {
+                throw e;
+            }
+            log.debug("Error execute in replica, node: {}, failover", replica.nodeRuntimeId, e);
+            return executeReplica(nextReplica, environment, arguments, context);
+        }
+    }
+
+    private Object executeReplica(ComponentDataFetcherReplicas.Replica replica, DataFetchingEnvironment environment, HashMap<String, Serializable> arguments, ContextRequest context) throws Exception {
+        return isolate(replica.nodeRuntimeId, replica.componentId, () -> callReplica(replica, environment, arguments, context));
+    }
+
+    private Object callReplica(ComponentDataFetcherReplicas.Replica replica, DataFetchingEnvironment environment, HashMap<String, Serializable> arguments, ContextRequest context) throws Exception {
+        replica.begin();
+        try {
+            return callRemote(replica.nodeRuntimeId, replica.componentId, context, () -> replica.getExecutor(remotes).execute(
+                    getRemoteSource(environment), graphQLTypeName, rTypeGraphQLField.name,
+                    arguments,
+                    context
+            ));
+        } catch (Exception e) {
+            if (isComponentFailure(e)) {
+                replica.invalidate();
+            }
+            throw e;
+        } finally {
+            replica.end();
+        }
+    }
+
+    /**
+     * Вычисление поля вместе с поддеревом в компоненте-владельце, null - поддерево нельзя (или не удалось) так вычислить
+     */
+    private Object executePushdown(DataFetchingEnvironment environment, ContextRequest context) {
+        Field field = environment.getField();
+        ComponentDataFetcherPushdown plan = pushdownPlan;
+        if (plan == null || plan.field != field) {
+            plan = ComponentDataFetcherPushdown.build(environment, this);
+            pushdownPlan = plan;
+        }
+        if (!plan.isApplicable()) return ComponentDataFetcherPushdown.NOT_PUSHED_DOWN;
+
+        Set<String> externalNameVariables = context.getRequest().getQueryVariables().keySet();
+        RGraphQLSelection selection = new RGraphQLSelection(
+                field.getResultKey(), graphQLTypeName, rTypeGraphQLField.name, false,
+                getArguments(environment, context.getRequest().getQueryVariables()),
+                plan.toSelections(environment, externalNameVariables)
+        );
+        try {
+            return callRemote(rTypeGraphQLField.nodeRuntimeId, rTypeGraphQLField.componentId, context, () -> getRemoteExecutor().executeSelection(getRemoteSource(environment), selection, context));
+        } catch (Exception e) {
+            //Вычисляем обычным способом - ошибку поля (если она повторится) получит клиент
+            if (isComponentFailure(e)) {
+                remoteExecutor.invalidate();
+            }
+            log.debug("Error pushdown selection, fallback", e);
+            return ComponentDataFetcherPushdown.NOT_PUSHED_DOWN;
+        }
+    }
+
+    private Object executeFused(DataFetchingEnvironment environment, HashMap<String, Serializable> arguments, ContextRequest context) {
+        //У полей корневого объекта нет родительского поля
+        ExecutionStepInfo parentStepInfo = environment.getExecutionStepInfo().getParent();
+        MergedField parentMergedField = (parentStepInfo == null) ? null : parentStepInfo.getField();
+        if (parentMergedField == null) return ComponentDataFetcherFusion.NOT_FUSED;
+
+        Field parentField = parentMergedField.getSingleField();
+        ComponentDataFetcherFusion.Plan plan = fusionPlan;
+        if (plan == null || plan.parentField != parentField) {
+            plan = ComponentDataFetcherFusion.Plan.build(environment, this);
+            if (plan == null) return ComponentDataFetcherFusion.NOT_FUSED;
+            fusionPlan = plan;
+        }
+        if (plan.siblings == null) return ComponentDataFetcherFusion.NOT_FUSED;
+
+        ComponentDataFetcherFusion fusion = getRequestState(environment.getGraphQlContext(), ComponentDataFetcherFusion.class, ComponentDataFetcherFusion::new);
+        ComponentDataFetcherFusion.Plan fusedPlan = plan;
+        return fusion.get(
+                environment.getExecutionStepInfo().getPath().getParent().toString(),
+                environment.getField().getResultKey(),
+                plan,
+                () -> executeFields(environment, fusedPlan, arguments, context)
+        );
+    }
+
+    private Map<String, Object> executeFields(DataFetchingEnvironment environment, ComponentDataFetcherFusion.Plan plan, HashMap<String, Serializable> arguments, ContextRequest context) throws Exception {
+        Set<String> externalNameVariables = context.getRequest().getQueryVariables().keySet();
+        ArrayList<String> fieldNames = new ArrayList<>(plan.siblings.size());
+        ArrayList<HashMap<String, Serializable>> fieldArguments = new ArrayList<>(plan.siblings.size());
+        for (ComponentDataFetcherFusion.Sibling sibling : plan.siblings) {
+            fieldNames.add(sibling.dataFetcher.rTypeGraphQLField.name);
+            if (sibling.resultKey.equals(environment.getField().getResultKey())) {
+                fieldArguments.add(arguments);
+            } else if (sibling.field.getArguments().isEmpty()) {
+                fieldArguments.add(new HashMap<>());
+            } else {
+                fieldArguments.add(filterArguments(
+                        sibling.field,
+                        ValuesResolver.getArgumentValues(
+                                environment.getGraphQLSchema().getCodeRegistry(),
+                                sibling.fieldDefinition.getArguments(),
+                                sibling.field.getArguments(),
+                                CoercedVariables.of(environment.getVariables())
+                        ),
+                        externalNameVariables
+                ));
+            }
+        }
+
+        ArrayList<Serializable> values;
+        try {
+            values = callRemote(rTypeGraphQLField.nodeRuntimeId, rTypeGraphQLField.componentId, context, () -> getRemoteExecutor().executeFields(getRemoteSource(environment), graphQLTypeName, fieldNames, fieldArguments, context));
+        } catch (Exception e) {
+            if (isComponentFailure(e)) {
+                remoteExecutor.invalidate();
+            }
+            throw e;
+        }
+
+        Map<String, Object> results = new HashMap<>();
+        for (int i = 0; i < plan.siblings.size(); i++) {
+            results.put(plan.siblings.get(i).resultKey, values.get(i));
+        }
+        return results;
+    }
+
+    boolean isFusableWith(ComponentDataFetcher other) {
+        return other.siblingFieldFusion
+                && other.fieldCache == null
+                && !other.rTypeGraphQLField.isSelectionSet
+                && !other.rTypeGraphQLField.isPrepare
+                && other.rTypeGraphQLField.isIdempotent
+                && other.rTypeGraphQLField.componentId != null
+                && other.rTypeGraphQLField.componentId.equals(rTypeGraphQLField.componentId)
+                && other.rTypeGraphQLField.nodeRuntimeId.equals(rTypeGraphQLField.nodeRuntimeId)
+                && other.graphQLTypeName.equals(graphQLTypeName);
+    }
+
+    boolean isPushdownCompatible(ComponentDataFetcher other) {
+        return other.subtreePushdown
+                && other.fieldCache == null
+                && !other.rTypeGraphQLField.isSelectionSet
+                && !other.rTypeGraphQLField.isPrepare
+                && other.rTypeGraphQLField.isIdempotent
+                && other.rTypeGraphQLField.componentId != null
+                && other.rTypeGraphQLField.componentId.equals(rTypeGraphQLField.componentId)
+                && other.rTypeGraphQLField.nodeRuntimeId.equals(rTypeGraphQLField.nodeRuntimeId);
+    }
+
+    /**
+     * Вызов поля экземпляра компонента с учетом предела потоков, которые могут быть им заняты
+     */
+    private <T> T isolate(UUID nodeRuntimeId, int componentId, Callable<T> call) throws Exception {
+        GraphQLBulkhead bulkhead = (bulkheads == null) ? null : bulkheads.get(graphQLTypeName, nodeRuntimeId, componentId);
+        if (bulkhead == null) {
+            return call.call();
+        }
+        bulkhead.acquire(nodeRuntimeId, componentId);
+        try {
+            return call.call();
+        } finally {
+            bulkhead.release();
+        }
+    }
+
+    /**
+     * Удаленный вызов через цепь и предел одновременных вызовов экземпляра компонента: при разомкнутой цепи сразу
+     * GraphQLExecutorCircuitOpenException, при перегрузке - GraphQLExecutorOverloadException.
+     * Ошибки бизнес-логики (GraphQLExecutorDataFetcherException) - ответ компонента, а не его сбой.
+     * Если запрос отменен или срок его выполнения истек - вызов не выполняется
+     */
+    private <T> T callRemote(UUID nodeRuntimeId, int componentId, ContextRequest context, Callable<T> call) throws Exception {
+        context.checkCancelled();
+        context.checkDeadline();
+
+        GraphQLCircuitBreaker circuitBreaker = (circuitBreakers == null) ? null : circuitBreakers.get(nodeRuntimeId, componentId);
+        GraphQLConcurrencyLimiter concurrencyLimiter = (concurrencyLimiters == null) ? null : concurrencyLimiters.get(nodeRuntimeId, componentId);
+        if (circuitBreaker == null && concurrencyLimiter == null) {
+            return call.call();
+        }
+
+        GraphQLCircuitBreaker.Permit permit = (circuitBreaker == null) ? null : circuitBreaker.acquire(System.currentTimeMillis());
+        if (concurrencyLimiter != null) {
+            try {
+                concurrencyLimiter.acquire();
+            } catch (Throwable t) {
+                if (circuitBreaker != null) circuitBreaker.onIgnore(permit);
+                throw t;
+            }
+        }
+
+        long start = System.nanoTime();
+        boolean isReleased = false;
+        try {
+            T result = call.call();
+            long duration = System.nanoTime() - start;
+            isReleased = true;
+            if (circuitBreaker != null) circuitBreaker.onSuccess(permit, duration, System.currentTimeMillis());
+            if (concurrencyLimiter != null) concurrencyLimiter.onSuccess(duration);
+            return result;
+        } catch (GraphQLExecutorDataFetcherException e) {
+            long duration = System.nanoTime() - start;
+            isReleased = true;
+            if (circuitBreaker != null) circuitBreaker.onSuccess(permit, duration, System.currentTimeMillis());
+            if (concurrencyLimiter != null) concurrencyLimiter.onSuccess(duration);
+            throw e;
+        } catch (Exception e) {
+            isReleased = true;
+            if (circuitBreaker != null) circuitBreaker.onFailure(permit, System.currentTimeMillis());
+            if (concurrencyLimiter != null) concurrencyLimiter.onOverload();
+            throw e;
+        } finally {
+            if (!isReleased) {
+                //Error - исход вызова неизвестен, только возвращаем разрешения
+                if (circuitBreaker != null) circuitBreaker.onIgnore(permit);
+                if (concurrencyLimiter != null) concurrencyLimiter.onIgnore();
+            }
+        }
+    }
+
+    /**
+     * Ошибка поля, которое вплоть до корня не может быть null, обнуляет весь результат запроса -
+     * остальные поля вычислять незачем. Мутации не отменяем: их побочные эффекты нужны и без результата
+     */
+    private static void cancelIfResultLost(DataFetchingEnvironment environment, ContextRequest context) {
+        GCancellationToken cancellationToken = context.getCancellationToken();
+        if (cancellationToken == null || environment.getOperationDefinition().getOperation() != OperationDefinition.Operation.QUERY) {
+            return;
+        }
+        for (ExecutionStepInfo stepInfo = environment.getExecutionStepInfo(); stepInfo.getParent() != null; stepInfo = stepInfo.getParent()) {
+            if (!stepInfo.isNonNullType()) {
+                return;
+            }
+        }
+        cancellationToken.cancel();
+    }
+
+    /**
+     * Ошибка говорит о сбое вызова компонента (найденный контроллер надо сбросить), а не об ответе компонента
+     * или отказе выполнять вызов на стороне frontend'а
+     */
+    private static boolean isComponentFailure(Exception e) {
+        return !(e instanceof GraphQLExecutorDataFetcherException)
+                && !(e instanceof GraphQLExecutorCircuitOpenException)
+                && !(e instanceof GraphQLExecutorOverloadException)
+                && !(e instanceof GraphQLExecutorDeadlineExceededException)
+                && !(e instanceof GraphQLExecutorCancelledException);
+    }
+
+    /**
+     * Исполнитель компонента-владельца поля, если компонент находится на этой же ноде
+     */
+    private GraphQLComponentExecutor getLocalExecutor() {
+        return getLocalExecutor(rTypeGraphQLField.nodeRuntimeId, rTypeGraphQLField.componentId);
+    }
+
+    private GraphQLComponentExecutor getLocalExecutor(UUID nodeRuntimeId, int componentId) {
+        if (localComponentExecutors == null) return null;
+        UUID localNodeRuntimeId = remotes.cluster.node.getRuntimeId();
+        if (!nodeRuntimeId.equals(localNodeRuntimeId)) return null;
+        GraphQLComponentExecutor executor = localComponentExecutors.get(componentId);
+        if (executor == null) return null;
+        //Остановка компонента не снимает исполнитель с регистрации - сверяемся с живыми компонентами ноды,
+        //исполнитель остановленного компонента снимается здесь
+        if (remotes.component.getTransport().getNetworkTransit().getManagerRuntimeComponent().get(localNodeRuntimeId, componentId) == null) {
+            localComponentExecutors.unregister(componentId, executor);
+            return null;
+        }
+        return executor;
+    }
+
+    private RControllerGraphQLExecutor getRemoteExecutor() throws ClusterRemotePackerException {
+        return remoteExecutor.get(remotes);
+    }
+
+    private static RemoteObject getRemoteSource(DataFetchingEnvironment environment) {
+        if (environment.getSource() instanceof RemoteObject) {
+            return environment.getSource();
+        }
+        return null;
+    }
 
     /**
      * Вытаскиваем из запроса пришедшие аргументы
      */
-    protected static HashMap<String, Serializable> getArguments(RGraphQLObjectTypeField rTypeGraphQLField, DataFetchingEnvironment environment, HashMap<String, Serializable> externalVariables) {
-        Field field = null;
-        for (Field iField : environment.getMergedField().getFields()) {
-            if (iField.getName().equals(rTypeGraphQLField.externalName)) {
-                field = iField;
-                break;
+    protected HashMap<String, Serializable> getArguments(DataFetchingEnvironment environment, HashMap<String, Serializable> externalVariables) {
+        Field field = findField(rTypeGraphQLField, environment);
+        ArgumentPlan plan = getArgumentPlan((field == null) ? Collections.emptyList() : field.getArguments());
+        HashMap<String, Serializable> arguments = (plan.variables == null) ? new HashMap<>() : plan.filter(environment.getArguments(), externalVariables.keySet());
+        if (rTypeGraphQLField.isSelectionSet) {
+            arguments.put(GSelectionSet.ARGUMENT_NAME, buildSelectionSet(environment.getSelectionSet()));
+        }
+        return arguments;
+    }
+
+    private ArgumentPlan getArgumentPlan(List<Argument> arguments) {
+        ArgumentPlan[] plans = argumentPlans;
+        for (ArgumentPlan plan : plans) {
+            if (plan.isMatch(arguments)) return plan;
+        }
+        ArgumentPlan plan = new ArgumentPlan(arguments);
+        if (plans.length < ARGUMENT_PLANS_MAX_SIZE) {
+            //Одновременно добавленный другим потоком план может потеряться - он просто построится еще раз
+            ArgumentPlan[] newPlans = Arrays.copyOf(plans, plans.length + 1);
+            newPlans[plans.length] = plan;
+            argumentPlans = newPlans;
+        }
+        return plan;
+    }
+
+    private static GSelectionSet buildSelectionSet(DataFetchingFieldSelectionSet selectionSet) {
+        HashMap<String, GSelectionSet> fields = new HashMap<>();
+        for (SelectedField selectedField : selectionSet.getImmediateFields()) {
+            //Служебные поля (__typename) вычисляются по типу
+            if (selectedField.getName().startsWith("__")) continue;
+            GSelectionSet child = selectedField.getSelectionSet().getImmediateFields().isEmpty() ? null : buildSelectionSet(selectedField.getSelectionSet());
+            putSelectionSet(fields, selectedField.getName(), child);
+        }
+        return new GSelectionSet(fields);
+    }
+
+    /**
+     * Одно поле может быть запрошено несколько раз (алиасы, фрагменты) - объединяем вложенные поля
+     */
+    private static void putSelectionSet(HashMap<String, GSelectionSet> fields, String fieldName, GSelectionSet child) {
+        if (!fields.containsKey(fieldName)) {
+            fields.put(fieldName, child);
+            return;
+        }
+        GSelectionSet prevChild = fields.get(fieldName);
+        if (prevChild == null) {
+            fields.put(fieldName, child);
+        } else if (child != null) {
+            HashMap<String, GSelectionSet> mergeFields = new HashMap<>();
+            for (GSelectionSet selectionSet : new GSelectionSet[]{ prevChild, child }) {
+                for (String childFieldName : selectionSet.getFieldNames()) {
+                    putSelectionSet(mergeFields, childFieldName, selectionSet.get(childFieldName));
+                }
             }
+            fields.put(fieldName, new GSelectionSet(mergeFields));
         }
+    }
+
+    protected static HashMap<String, Serializable> getArguments(RGraphQLObjectTypeField rTypeGraphQLField, DataFetchingEnvironment environment, HashMap<String, Serializable> externalVariables) {
+        Field field = findField(rTypeGraphQLField, environment);
         if (field == null || field.getArguments().isEmpty()) return new HashMap<>();
 
         return filterArguments(field, environment.getArguments(), externalVariables.keySet());
     }
 
+    private static Field findField(RGraphQLObjectTypeField rTypeGraphQLField, DataFetchingEnvironment environment) {
+        for (Field iField : environment.getMergedField().getFields()) {
+            if (iField.getName().equals(rTypeGraphQLField.externalName)) {
+                return iField;
+            }
+        }
+        return null;
+    }
+
     /**
      * Фильтруем из запроса пришедшие аргументы
      */
     public static HashMap<String, Serializable> filterArguments(Field field, Map<String, Object> arguments, Set<String> externalNameVariables) {
-        HashMap<String, Serializable> result = new HashMap<String, Serializable>();
-        for (Map.Entry<String, Object> entry : arguments.entrySet()) {
-            Argument argument = getArgument(field, entry.getKey());
-            if (argument.getValue() instanceof VariableReference) {
-                //Проверим хитрую ситуацию, если аргумент в методе был зарезервирован под переменную из variables
-                //но этот variable не был передан, то считаем, что этот агрумент и не собирались отправлять
-                VariableReference variableReference = (VariableReference) argument.getValue();
-                if (!externalNameVariables.contains(variableReference.getName())) continue;
+        return new ArgumentPlan(field.getArguments()).filter(arguments, externalNameVariables);
+    }
+
+    /**
+     * Для каждого аргумента поля - имя переменной, через которую он передан (null - задан в запросе явно)
+     */
+    private static class ArgumentPlan {
+
+        private final String[] names;
+        private final String[] variableNames;
+        private final Map<String, String> variables;
+
+        private ArgumentPlan(List<Argument> arguments) {
+            this.names = new String[arguments.size()];
+            this.variableNames = new String[arguments.size()];
+            for (int i = 0; i < arguments.size(); i++) {
+                Argument argument = arguments.get(i);
+                names[i] = argument.getName();
+                variableNames[i] = getVariableName(argument);
+            }
+            if (arguments.isEmpty()) {
+                this.variables = null;
+            } else {
+                this.variables = new HashMap<>(arguments.size() * 2);
+                for (int i = 0; i < names.length; i++) {
+                    if (variables.containsKey(names[i])) continue;
+                    variables.put(names[i], variableNames[i]);
+                }
             }
-            result.put(entry.getKey(), (Serializable) entry.getValue());
         }
-        return result;
-    }
 
-    private static Argument getArgument(Field field, String name) {
-        for (Argument argument : field.getArguments()) {
-            if (argument.getName().equals(name)) return argument;
+        /**
+         * Аргументы поля в запросе той же формы, что и у плана
+         */
+        private boolean isMatch(List<Argument> arguments) {
+            if (arguments.size() != names.length) return false;
+            for (int i = 0; i < names.length; i++) {
+                Argument argument = arguments.get(i);
+                if (!names[i].equals(argument.getName()) || !Objects.equals(variableNames[i], getVariableName(argument))) {
+                    return false;
+                }
+            }
+            return true;
         }
-        throw new RuntimeException();//Такого быть не должно в принципе
-    }
 
+        private static String getVariableName(Argument argument) {
+            return (argument.getValue() instanceof VariableReference) ? ((VariableReference) argument.getValue()).getName() : null;
+        }
+
+        private HashMap<String, Serializable> filter(Map<String, Object> arguments, Set<String> externalNameVariables) {
+            HashMap<String, Serializable> result = new HashMap<String, Serializable>();
+            for (Map.Entry<String, Object> entry : arguments.entrySet()) {
+                if (variables == null || !variables.containsKey(entry.getKey())) {
+                    throw new RuntimeException();//Такого быть не должно в принципе
+                }
+                String variableName = variables.get(entry.getKey());
+                //Проверим хитрую ситуацию, если аргумент в методе был зарезервирован под переменную из variables
+                //но этот variable не был передан, то считаем, что этот агрумент и не собирались отправлять
+                if (variableName != null && !externalNameVariables.contains(variableName)) continue;
+                result.put(entry.getKey(), (Serializable) entry.getValue());
+            }
+            return result;
+        }
+    }
 }
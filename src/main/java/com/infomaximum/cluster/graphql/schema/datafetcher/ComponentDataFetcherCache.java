@@ -0,0 +1,99 @@
+package com.infomaximum.cluster.graphql.schema.datafetcher;
+
+import java.io.Serializable;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Кеш результатов поля между запросами: время жизни значений, ограничение по количеству (вытесняются давно
+ * не использованные) и полный сброс по событию. Значение, вычисление которого началось до сброса, в кеш не попадает
+ */
+class ComponentDataFetcherCache {
+
+    static class Key {
+
+        private final Object source;
+        private final HashMap<String, Serializable> arguments;
+        private final int hash;
+
+        Key(Object source, HashMap<String, Serializable> arguments) {
+            this.source = source;
+            this.arguments = arguments;
+            this.hash = Objects.hash(source, arguments);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (!(o instanceof Key)) return false;
+            Key key = (Key) o;
+            return hash == key.hash
+                    && Objects.equals(source, key.source)
+                    && Objects.equals(arguments, key.arguments);
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+    }
+
+    private static class Entry {
+
+        private final Object value;
+        private final long expireTime;
+
+        private Entry(Object value, long expireTime) {
+            this.value = value;
+            this.expireTime = expireTime;
+        }
+    }
+
+    private final long ttl;
+    private final LinkedHashMap<Key, Entry> entries;
+
+    private long generation;
+
+    ComponentDataFetcherCache(long ttl, int maxEntries) {
+        this.ttl = ttl;
+        this.entries = new LinkedHashMap<Key, Entry>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Key, Entry> eldest) {
+                return size() > maxEntries;
+            }
+        };
+        this.generation = 0;
+    }
+
+    /**
+     * Значение из кеша, либо null
+     */
+    synchronized Object get(Key key, long now) {
+        Entry entry = entries.get(key);
+        if (entry == null) return null;
+        if (entry.expireTime < now) {
+            entries.remove(key);
+            return null;
+        }
+        return entry.value;
+    }
+
+    /**
+     * Поколение кеша - запоминается перед вычислением значения и передается в put
+     */
+    synchronized long getGeneration() {
+        return generation;
+    }
+
+    synchronized void put(Key key, Object value, long generation, long now) {
+        if (value == null || this.generation != generation) return;
+        entries.put(key, new Entry(value, now + ttl));
+    }
+
+    synchronized void invalidate() {
+        generation++;
+        entries.clear();
+    }
+}
@@ -0,0 +1,158 @@
+package com.infomaximum.cluster.graphql.schema.datafetcher;
+
+import graphql.execution.MergedField;
+import graphql.language.*;
+import graphql.schema.DataFetcher;
+import graphql.schema.DataFetchingEnvironment;
+import graphql.schema.FieldCoordinates;
+import graphql.schema.GraphQLFieldDefinition;
+import graphql.schema.GraphQLObjectType;
+
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Объединение соседних полей одного объекта, принадлежащих одному компоненту, в один удаленный вызов.
+ * Первое из полей вычисляет всю группу, остальные забирают свои готовые значения. Хранится в контексте запроса
+ */
+class ComponentDataFetcherFusion {
+
+    //Поле не удалось вычислить в группе - вычисляем отдельно
+    static final Object NOT_FUSED = new Object();
+
+    @FunctionalInterface
+    interface Execution {
+        Map<String, Object> execute() throws Throwable;
+    }
+
+    static class Sibling {
+
+        final String resultKey;
+        final Field field;
+        final GraphQLFieldDefinition fieldDefinition;
+        final ComponentDataFetcher dataFetcher;
+
+        private Sibling(String resultKey, Field field, GraphQLFieldDefinition fieldDefinition, ComponentDataFetcher dataFetcher) {
+            this.resultKey = resultKey;
+            this.field = field;
+            this.fieldDefinition = fieldDefinition;
+            this.dataFetcher = dataFetcher;
+        }
+    }
+
+    /**
+     * Группа соседних полей для узла родительского поля документа
+     */
+    static class Plan {
+
+        final Field parentField;
+        final GraphQLObjectType objectType;
+        final List<Sibling> siblings;
+
+        private Plan(Field parentField, GraphQLObjectType objectType, List<Sibling> siblings) {
+            this.parentField = parentField;
+            this.objectType = objectType;
+            this.siblings = siblings;
+        }
+
+        static Plan build(DataFetchingEnvironment environment, ComponentDataFetcher dataFetcher) {
+            if (!(environment.getParentType() instanceof GraphQLObjectType)) return null;
+            GraphQLObjectType objectType = (GraphQLObjectType) environment.getParentType();
+
+            MergedField parentMergedField = environment.getExecutionStepInfo().getParent().getField();
+            if (parentMergedField == null) return null;
+
+            Map<String, Sibling> siblings = new LinkedHashMap<>();
+            for (Field parentField : parentMergedField.getFields()) {
+                collect(environment, dataFetcher, objectType, parentField.getSelectionSet(), siblings);
+            }
+            if (siblings.size() < 2 || !siblings.containsKey(environment.getField().getResultKey())) {
+                return new Plan(parentMergedField.getSingleField(), objectType, null);
+            }
+            return new Plan(parentMergedField.getSingleField(), objectType, new ArrayList<>(siblings.values()));
+        }
+
+        private static void collect(DataFetchingEnvironment environment, ComponentDataFetcher dataFetcher, GraphQLObjectType objectType, SelectionSet selectionSet, Map<String, Sibling> siblings) {
+            if (selectionSet == null) return;
+            for (Selection selection : selectionSet.getSelections()) {
+                //Поля с директивами (@skip, @include) могут не вычисляться - их не трогаем
+                if (selection instanceof Field field) {
+                    if (!field.getDirectives().isEmpty() || siblings.containsKey(field.getResultKey())) continue;
+                    GraphQLFieldDefinition fieldDefinition = objectType.getFieldDefinition(field.getName());
+                    if (fieldDefinition == null) continue;
+                    DataFetcher siblingDataFetcher = environment.getGraphQLSchema().getCodeRegistry().getDataFetcher(
+                            FieldCoordinates.coordinates(objectType, fieldDefinition), fieldDefinition
+                    );
+                    if (siblingDataFetcher instanceof ComponentDataFetcher sibling && dataFetcher.isFusableWith(sibling)) {
+                        siblings.put(field.getResultKey(), new Sibling(field.getResultKey(), field, fieldDefinition, sibling));
+                    }
+                } else if (selection instanceof InlineFragment inlineFragment) {
+                    if (!inlineFragment.getDirectives().isEmpty()) continue;
+                    TypeName typeCondition = inlineFragment.getTypeCondition();
+                    if (typeCondition == null || typeCondition.getName().equals(objectType.getName())) {
+                        collect(environment, dataFetcher, objectType, inlineFragment.getSelectionSet(), siblings);
+                    }
+                } else if (selection instanceof FragmentSpread fragmentSpread) {
+                    if (!fragmentSpread.getDirectives().isEmpty()) continue;
+                    FragmentDefinition fragmentDefinition = environment.getFragmentsByName().get(fragmentSpread.getName());
+                    if (fragmentDefinition != null && fragmentDefinition.getTypeCondition().getName().equals(objectType.getName())) {
+                        collect(environment, dataFetcher, objectType, fragmentDefinition.getSelectionSet(), siblings);
+                    }
+                }
+            }
+        }
+    }
+
+    private static class Group {
+
+        private final CompletableFuture<Map<String, Object>> results;
+        private final Set<String> pending;
+
+        private Group(Plan plan) {
+            this.results = new CompletableFuture<>();
+            this.pending = ConcurrentHashMap.newKeySet();
+            for (Sibling sibling : plan.siblings) {
+                pending.add(sibling.resultKey);
+            }
+        }
+    }
+
+    private final ConcurrentMap<String, Group> groups;
+
+    ComponentDataFetcherFusion() {
+        this.groups = new ConcurrentHashMap<>();
+    }
+
+    /**
+     * Значение поля resultKey объекта parentPath, либо NOT_FUSED
+     */
+    Object get(String parentPath, String resultKey, Plan plan, Execution execution) {
+        Group group = new Group(plan);
+        Group prevGroup = groups.putIfAbsent(parentPath, group);
+        if (prevGroup == null) {
+            try {
+                group.results.complete(execution.execute());
+            } catch (Throwable t) {
+                group.results.completeExceptionally(t);
+            }
+        } else {
+            group = prevGroup;
+        }
+
+        if (!group.pending.remove(resultKey)) return NOT_FUSED;
+        if (group.pending.isEmpty()) {
+            groups.remove(parentPath, group);
+        }
+
+        Map<String, Object> results;
+        try {
+            results = group.results.join();
+        } catch (Throwable t) {
+            return NOT_FUSED;
+        }
+        if (!results.containsKey(resultKey)) return NOT_FUSED;
+        return results.get(resultKey);
+    }
+}
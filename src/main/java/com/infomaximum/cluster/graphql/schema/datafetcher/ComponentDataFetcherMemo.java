@@ -0,0 +1,82 @@
+package com.infomaximum.cluster.graphql.schema.datafetcher;
+
+import java.io.Serializable;
+import java.util.HashMap;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Результаты полей компонентов в рамках одного запроса. Одно и то же поле с тем же источником (по ссылке)
+ * и теми же аргументами вычисляется один раз, повторные обращения получают готовый результат
+ */
+class ComponentDataFetcherMemo {
+
+    @FunctionalInterface
+    interface Execution {
+        Object execute() throws Throwable;
+    }
+
+    private static class Key {
+
+        private final ComponentDataFetcher dataFetcher;
+        private final Object source;
+        private final HashMap<String, Serializable> arguments;
+
+        private final int hash;
+
+        private Key(ComponentDataFetcher dataFetcher, Object source, HashMap<String, Serializable> arguments) {
+            this.dataFetcher = dataFetcher;
+            this.source = source;
+            this.arguments = arguments;
+
+            this.hash = Objects.hash(System.identityHashCode(dataFetcher), System.identityHashCode(source), arguments);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (!(o instanceof Key)) return false;
+            Key key = (Key) o;
+            return hash == key.hash
+                    && dataFetcher == key.dataFetcher
+                    && source == key.source
+                    && arguments.equals(key.arguments);
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+    }
+
+    private final ConcurrentMap<Key, CompletableFuture<Object>> results;
+
+    ComponentDataFetcherMemo() {
+        this.results = new ConcurrentHashMap<>();
+    }
+
+    Object execute(ComponentDataFetcher dataFetcher, Object source, HashMap<String, Serializable> arguments, Execution execution) throws Throwable {
+        Key key = new Key(dataFetcher, source, arguments);
+        CompletableFuture<Object> future = new CompletableFuture<>();
+        CompletableFuture<Object> prevFuture = results.putIfAbsent(key, future);
+        if (prevFuture != null) {
+            try {
+                return prevFuture.join();
+            } catch (CompletionException e) {
+                throw e.getCause();
+            }
+        }
+
+        try {
+            Object result = execution.execute();
+            future.complete(result);
+            return result;
+        } catch (Throwable t) {
+            future.completeExceptionally(t);
+            throw t;
+        }
+    }
+}
@@ -0,0 +1,186 @@
+package com.infomaximum.cluster.graphql.schema.datafetcher;
+
+import com.infomaximum.cluster.graphql.schema.struct.out.RGraphQLSelection;
+import graphql.execution.CoercedVariables;
+import graphql.execution.ValuesResolver;
+import graphql.language.*;
+import graphql.schema.*;
+
+import java.io.Serializable;
+import java.util.*;
+
+/**
+ * План вычисления поддерева запроса в компоненте-владельце: все вложенные поля принадлежат тому же компоненту
+ * (методы) или являются обычными полями объектов. Тогда поддерево отправляется в компонент одним вызовом,
+ * и промежуточные объекты не возвращаются на frontend, чтобы затем уйти обратно источниками следующего уровня
+ */
+class ComponentDataFetcherPushdown {
+
+    //Поддерево не вычислялось в компоненте - вычисляем обычным способом (null - допустимое значение поля)
+    static final Object NOT_PUSHED_DOWN = new Object();
+
+    private static class PlanNode {
+
+        private final String resultKey;
+        private final List<Field> fields;
+        private final GraphQLFieldDefinition fieldDefinition;
+        private final String graphQLTypeName;
+        private final String name;
+        private final boolean isField;
+        private final List<PlanNode> children;
+
+        private PlanNode(String resultKey, List<Field> fields, GraphQLFieldDefinition fieldDefinition, String graphQLTypeName, String name, boolean isField, List<PlanNode> children) {
+            this.resultKey = resultKey;
+            this.fields = fields;
+            this.fieldDefinition = fieldDefinition;
+            this.graphQLTypeName = graphQLTypeName;
+            this.name = name;
+            this.isField = isField;
+            this.children = children;
+        }
+    }
+
+    final Field field;
+    //null - поддерево нельзя вычислить в компоненте
+    private final List<PlanNode> children;
+
+    private ComponentDataFetcherPushdown(Field field, List<PlanNode> children) {
+        this.field = field;
+        this.children = children;
+    }
+
+    boolean isApplicable() {
+        return children != null;
+    }
+
+    static ComponentDataFetcherPushdown build(DataFetchingEnvironment environment, ComponentDataFetcher dataFetcher) {
+        Field field = environment.getField();
+        GraphQLObjectType objectType = getObjectType(environment.getFieldType());
+        if (objectType == null) {
+            return new ComponentDataFetcherPushdown(field, null);
+        }
+
+        boolean[] hasMethods = new boolean[1];
+        List<PlanNode> children = buildChildren(environment, dataFetcher, objectType, environment.getMergedField().getFields(), hasMethods);
+        //Если в поддереве нет методов, то и вычислять в компоненте нечего
+        return new ComponentDataFetcherPushdown(field, hasMethods[0] ? children : null);
+    }
+
+    ArrayList<RGraphQLSelection> toSelections(DataFetchingEnvironment environment, Set<String> externalNameVariables) {
+        return toSelections(environment, children, externalNameVariables);
+    }
+
+    private static ArrayList<RGraphQLSelection> toSelections(DataFetchingEnvironment environment, List<PlanNode> nodes, Set<String> externalNameVariables) {
+        if (nodes == null) return null;
+        ArrayList<RGraphQLSelection> selections = new ArrayList<>(nodes.size());
+        for (PlanNode node : nodes) {
+            HashMap<String, Serializable> arguments;
+            Field field = node.fields.get(0);
+            if (node.isField || field.getArguments().isEmpty()) {
+                arguments = new HashMap<>();
+            } else {
+                arguments = ComponentDataFetcher.filterArguments(
+                        field,
+                        ValuesResolver.getArgumentValues(
+                                environment.getGraphQLSchema().getCodeRegistry(),
+                                node.fieldDefinition.getArguments(),
+                                field.getArguments(),
+                                CoercedVariables.of(environment.getVariables())
+                        ),
+                        externalNameVariables
+                );
+            }
+            selections.add(new RGraphQLSelection(
+                    node.resultKey, node.graphQLTypeName, node.name, node.isField, arguments,
+                    toSelections(environment, node.children, externalNameVariables)
+            ));
+        }
+        return selections;
+    }
+
+    /**
+     * Вложенные поля, либо null, если хотя бы одно из них нельзя вычислить в компоненте
+     */
+    private static List<PlanNode> buildChildren(DataFetchingEnvironment environment, ComponentDataFetcher dataFetcher, GraphQLObjectType objectType, List<Field> fields, boolean[] hasMethods) {
+        Map<String, List<Field>> selections = new LinkedHashMap<>();
+        for (Field field : fields) {
+            if (!collect(environment, objectType, field.getSelectionSet(), selections)) return null;
+        }
+
+        GraphQLCodeRegistry codeRegistry = environment.getGraphQLSchema().getCodeRegistry();
+        List<PlanNode> children = new ArrayList<>(selections.size());
+        for (Map.Entry<String, List<Field>> entry : selections.entrySet()) {
+            List<Field> childFields = entry.getValue();
+            GraphQLFieldDefinition fieldDefinition = objectType.getFieldDefinition(childFields.get(0).getName());
+            if (fieldDefinition == null) return null;
+
+            String name;
+            boolean isField;
+            DataFetcher childDataFetcher = codeRegistry.getDataFetcher(FieldCoordinates.coordinates(objectType, fieldDefinition), fieldDefinition);
+            if (childDataFetcher instanceof ComponentDataFetcher child) {
+                if (!dataFetcher.isPushdownCompatible(child)) return null;
+                name = child.rTypeGraphQLField.name;
+                isField = false;
+                hasMethods[0] = true;
+            } else if (childDataFetcher instanceof ExtPropertyDataFetcher child) {
+                name = child.getPropertyName();
+                isField = true;
+            } else {
+                return null;
+            }
+
+            GraphQLType childType = unwrap(fieldDefinition.getType());
+            List<PlanNode> grandChildren;
+            if (childType instanceof GraphQLObjectType) {
+                grandChildren = buildChildren(environment, dataFetcher, (GraphQLObjectType) childType, childFields, hasMethods);
+                if (grandChildren == null) return null;
+            } else if (childType instanceof GraphQLScalarType || childType instanceof GraphQLEnumType) {
+                grandChildren = null;
+            } else {
+                //Для интерфейсов тип определяется по классу объекта - его нужно вернуть как есть
+                return null;
+            }
+
+            children.add(new PlanNode(entry.getKey(), childFields, fieldDefinition, objectType.getName(), name, isField, grandChildren));
+        }
+        return children;
+    }
+
+    private static boolean collect(DataFetchingEnvironment environment, GraphQLObjectType objectType, SelectionSet selectionSet, Map<String, List<Field>> selections) {
+        if (selectionSet == null) return true;
+        for (Selection selection : selectionSet.getSelections()) {
+            if (selection instanceof DirectivesContainer<?> directivesContainer && !directivesContainer.getDirectives().isEmpty()) {
+                return false;
+            }
+            if (selection instanceof Field field) {
+                //Служебные поля (__typename) вычисляются по типу
+                if (field.getName().startsWith("__")) continue;
+                selections.computeIfAbsent(field.getResultKey(), key -> new ArrayList<>()).add(field);
+            } else if (selection instanceof InlineFragment inlineFragment) {
+                TypeName typeCondition = inlineFragment.getTypeCondition();
+                if (typeCondition == null || typeCondition.getName().equals(objectType.getName())) {
+                    if (!collect(environment, objectType, inlineFragment.getSelectionSet(), selections)) return false;
+                }
+            } else if (selection instanceof FragmentSpread fragmentSpread) {
+                FragmentDefinition fragmentDefinition = environment.getFragmentsByName().get(fragmentSpread.getName());
+                if (fragmentDefinition == null) return false;
+                if (fragmentDefinition.getTypeCondition().getName().equals(objectType.getName())) {
+                    if (!collect(environment, objectType, fragmentDefinition.getSelectionSet(), selections)) return false;
+                }
+            }
+        }
+        return true;
+    }
+
+    private static GraphQLObjectType getObjectType(GraphQLOutputType type) {
+        GraphQLType unwrapType = unwrap(type);
+        return (unwrapType instanceof GraphQLObjectType) ? (GraphQLObjectType) unwrapType : null;
+    }
+
+    private static GraphQLType unwrap(GraphQLType type) {
+        while (type instanceof GraphQLModifiedType) {
+            type = ((GraphQLModifiedType) type).getWrappedType();
+        }
+        return type;
+    }
+}
@@ -0,0 +1,89 @@
+package com.infomaximum.cluster.graphql.schema.datafetcher;
+
+import com.infomaximum.cluster.core.remote.Remotes;
+import com.infomaximum.cluster.exception.ClusterRemotePackerException;
+import com.infomaximum.cluster.graphql.remote.graphql.executor.RControllerGraphQLExecutor;
+import com.infomaximum.cluster.graphql.remote.graphql.executor.RControllerGraphQLExecutorRef;
+import com.infomaximum.cluster.graphql.schema.struct.out.RGraphQLObjectTypeField;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Экземпляры компонента-владельца поля на разных нодах. Вызов уходит в экземпляр этой ноды,
+ * иначе - в наименее загруженный (по числу выполняющихся вызовов с этого frontend)
+ */
+class ComponentDataFetcherReplicas {
+
+    static class Replica {
+
+        final UUID nodeRuntimeId;
+        final int componentId;
+
+        private final AtomicInteger inFlight;
+        private final RControllerGraphQLExecutorRef executor;
+
+        private Replica(UUID nodeRuntimeId, int componentId) {
+            this.nodeRuntimeId = nodeRuntimeId;
+            this.componentId = componentId;
+            this.inFlight = new AtomicInteger();
+            this.executor = new RControllerGraphQLExecutorRef(nodeRuntimeId, componentId);
+        }
+
+        RControllerGraphQLExecutor getExecutor(Remotes remotes) throws ClusterRemotePackerException {
+            return executor.get(remotes);
+        }
+
+        void invalidate() {
+            executor.invalidate();
+        }
+
+        void begin() {
+            inFlight.incrementAndGet();
+        }
+
+        void end() {
+            inFlight.decrementAndGet();
+        }
+    }
+
+    private final List<Replica> replicas;
+
+    ComponentDataFetcherReplicas(List<RGraphQLObjectTypeField> fields) {
+        this.replicas = new ArrayList<>(fields.size());
+        for (RGraphQLObjectTypeField field : fields) {
+            replicas.add(new Replica(field.nodeRuntimeId, field.componentId));
+        }
+    }
+
+    List<Replica> getReplicas() {
+        return replicas;
+    }
+
+    /**
+     * @param exclude экземпляр, вызов в который уже не удался, может быть null
+     * @return null - других экземпляров нет
+     */
+    Replica select(UUID localNodeRuntimeId, Replica exclude) {
+        Replica result = null;
+        int resultInFlight = Integer.MAX_VALUE;
+        //Начинаем со случайного экземпляра, чтобы при равной загрузке вызовы распределялись равномерно
+        int offset = ThreadLocalRandom.current().nextInt(replicas.size());
+        for (int i = 0; i < replicas.size(); i++) {
+            Replica replica = replicas.get((offset + i) % replicas.size());
+            if (replica == exclude) continue;
+            if (replica.nodeRuntimeId.equals(localNodeRuntimeId)) {
+                return replica;
+            }
+            int replicaInFlight = replica.inFlight.get();
+            if (replicaInFlight < resultInFlight) {
+                result = replica;
+                resultInFlight = replicaInFlight;
+            }
+        }
+        return result;
+    }
+}
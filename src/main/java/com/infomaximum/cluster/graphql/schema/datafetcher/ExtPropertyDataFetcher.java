@@ -1,6 +1,7 @@
 package com.infomaximum.cluster.graphql.schema.datafetcher;
 
 import com.infomaximum.cluster.graphql.schema.datafetcher.utils.ExtResult;
+import com.infomaximum.cluster.graphql.schema.struct.out.RGraphQLSelectionNode;
 import graphql.schema.DataFetchingEnvironment;
 import graphql.schema.PropertyDataFetcher;
 
@@ -15,6 +16,10 @@ public class ExtPropertyDataFetcher extends PropertyDataFetcher {
 
     @Override
     public Object get(DataFetchingEnvironment environment) {
+        if (environment.getSource() instanceof RGraphQLSelectionNode) {
+            //Поддерево уже вычислено в компоненте-владельце
+            return ExtResult.get(((RGraphQLSelectionNode) environment.getSource()).get(environment.getField().getResultKey()));
+        }
         Object result = super.get(environment);
         return ExtResult.get(result);
     }
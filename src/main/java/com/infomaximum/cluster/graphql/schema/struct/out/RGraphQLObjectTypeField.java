@@ -24,11 +24,26 @@ public class RGraphQLObjectTypeField implements RemoteObject {
     public final String description;
     public final String deprecated;
 
+    //Повторный вызов с теми же аргументами и источником возвращает тот же результат
+    public final boolean isIdempotent;
+    //Кеширование результата между запросами, null - не кешируется
+    public final RGraphQLObjectTypeFieldCache cache;
+    //Метод принимает запрошенные вложенные поля (GSelectionSet)
+    public final boolean isSelectionSet;
+
     public RGraphQLObjectTypeField(UUID nodeRuntimeId, Integer componentId, boolean isField, boolean isPrepare, String type, String name, String externalName, RemoteObject configuration, String description, String deprecated) {
         this(nodeRuntimeId, componentId, isField, isPrepare, type, name, externalName, null, configuration, description, deprecated);
     }
 
     public RGraphQLObjectTypeField(UUID nodeRuntimeId, Integer componentId, boolean isField, boolean isPrepare, String type, String name, String externalName, List<RGraphQLObjectTypeMethodArgument> arguments, RemoteObject configuration, String description, String deprecated) {
+        this(nodeRuntimeId, componentId, isField, isPrepare, type, name, externalName, arguments, configuration, description, deprecated, true, null);
+    }
+
+    public RGraphQLObjectTypeField(UUID nodeRuntimeId, Integer componentId, boolean isField, boolean isPrepare, String type, String name, String externalName, List<RGraphQLObjectTypeMethodArgument> arguments, RemoteObject configuration, String description, String deprecated, boolean isIdempotent, RGraphQLObjectTypeFieldCache cache) {
+        this(nodeRuntimeId, componentId, isField, isPrepare, type, name, externalName, arguments, configuration, description, deprecated, isIdempotent, cache, false);
+    }
+
+    public RGraphQLObjectTypeField(UUID nodeRuntimeId, Integer componentId, boolean isField, boolean isPrepare, String type, String name, String externalName, List<RGraphQLObjectTypeMethodArgument> arguments, RemoteObject configuration, String description, String deprecated, boolean isIdempotent, RGraphQLObjectTypeFieldCache cache, boolean isSelectionSet) {
         this.nodeRuntimeId = nodeRuntimeId;
         this.componentId = componentId;
 
@@ -42,6 +57,10 @@ public class RGraphQLObjectTypeField implements RemoteObject {
         this.configuration = configuration;
         this.description = description;
         this.deprecated = deprecated;
+
+        this.isIdempotent = isIdempotent;
+        this.cache = cache;
+        this.isSelectionSet = isSelectionSet;
     }
 
     @Override
@@ -0,0 +1,22 @@
+package com.infomaximum.cluster.graphql.schema.struct.out;
+
+import com.infomaximum.cluster.core.remote.struct.RemoteObject;
+
+import java.util.ArrayList;
+
+public class RGraphQLObjectTypeFieldCache implements RemoteObject {
+
+    public final long ttl;
+    public final int maxEntries;
+    public final boolean byArguments;
+    public final boolean bySource;
+    public final ArrayList<byte[]> invalidateOn;
+
+    public RGraphQLObjectTypeFieldCache(long ttl, int maxEntries, boolean byArguments, boolean bySource, ArrayList<byte[]> invalidateOn) {
+        this.ttl = ttl;
+        this.maxEntries = maxEntries;
+        this.byArguments = byArguments;
+        this.bySource = bySource;
+        this.invalidateOn = invalidateOn;
+    }
+}
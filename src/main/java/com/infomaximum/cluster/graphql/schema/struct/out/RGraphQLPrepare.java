@@ -0,0 +1,27 @@
+package com.infomaximum.cluster.graphql.schema.struct.out;
+
+import com.infomaximum.cluster.core.remote.struct.RemoteObject;
+import com.infomaximum.cluster.graphql.struct.ContextRequest;
+
+import java.io.Serializable;
+import java.util.HashMap;
+
+/**
+ * Вызов prepare поля компонента в составе пакета
+ */
+public class RGraphQLPrepare implements RemoteObject {
+
+    public final String keyField;
+    public final String graphQLTypeName;
+    public final String name;
+    public final HashMap<String, Serializable> arguments;
+    public final ContextRequest context;
+
+    public RGraphQLPrepare(String keyField, String graphQLTypeName, String name, HashMap<String, Serializable> arguments, ContextRequest context) {
+        this.keyField = keyField;
+        this.graphQLTypeName = graphQLTypeName;
+        this.name = name;
+        this.arguments = arguments;
+        this.context = context;
+    }
+}
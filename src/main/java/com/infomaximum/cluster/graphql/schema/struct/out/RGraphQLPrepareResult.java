@@ -0,0 +1,28 @@
+package com.infomaximum.cluster.graphql.schema.struct.out;
+
+import com.infomaximum.cluster.core.remote.struct.RemoteObject;
+import com.infomaximum.cluster.graphql.exception.GraphQLExecutorDataFetcherException;
+
+import java.io.Serializable;
+
+/**
+ * Результат prepare поля в составе пакета: значение или ошибка только этого поля
+ */
+public class RGraphQLPrepareResult implements RemoteObject {
+
+    public final Serializable value;
+    public final GraphQLExecutorDataFetcherException exception;
+
+    private RGraphQLPrepareResult(Serializable value, GraphQLExecutorDataFetcherException exception) {
+        this.value = value;
+        this.exception = exception;
+    }
+
+    public static RGraphQLPrepareResult of(Serializable value) {
+        return new RGraphQLPrepareResult(value, null);
+    }
+
+    public static RGraphQLPrepareResult of(GraphQLExecutorDataFetcherException exception) {
+        return new RGraphQLPrepareResult(null, exception);
+    }
+}
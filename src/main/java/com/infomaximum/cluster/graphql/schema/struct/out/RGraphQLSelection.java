@@ -0,0 +1,31 @@
+package com.infomaximum.cluster.graphql.schema.struct.out;
+
+import com.infomaximum.cluster.core.remote.struct.RemoteObject;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.HashMap;
+
+/**
+ * Часть запроса, которая целиком вычисляется в компоненте-владельце полей
+ */
+public class RGraphQLSelection implements RemoteObject {
+
+    public final String resultKey;
+    public final String graphQLTypeName;
+    public final String name;
+    //Обычное поле объекта, иначе метод
+    public final boolean isField;
+    public final HashMap<String, Serializable> arguments;
+    //Вложенные поля результата, null - результат возвращается как есть
+    public final ArrayList<RGraphQLSelection> children;
+
+    public RGraphQLSelection(String resultKey, String graphQLTypeName, String name, boolean isField, HashMap<String, Serializable> arguments, ArrayList<RGraphQLSelection> children) {
+        this.resultKey = resultKey;
+        this.graphQLTypeName = graphQLTypeName;
+        this.name = name;
+        this.isField = isField;
+        this.arguments = arguments;
+        this.children = children;
+    }
+}
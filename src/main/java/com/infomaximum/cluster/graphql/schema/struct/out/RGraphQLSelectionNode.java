@@ -0,0 +1,22 @@
+package com.infomaximum.cluster.graphql.schema.struct.out;
+
+import com.infomaximum.cluster.core.remote.struct.RemoteObject;
+
+import java.io.Serializable;
+import java.util.HashMap;
+
+/**
+ * Вычисленный в компоненте объект: значения выбранных полей по ключам результата (alias или имя поля)
+ */
+public class RGraphQLSelectionNode implements RemoteObject {
+
+    private final HashMap<String, Serializable> values;
+
+    public RGraphQLSelectionNode(HashMap<String, Serializable> values) {
+        this.values = values;
+    }
+
+    public Serializable get(String resultKey) {
+        return values.get(resultKey);
+    }
+}
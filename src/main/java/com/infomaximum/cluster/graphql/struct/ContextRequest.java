@@ -1,8 +1,69 @@
 package com.infomaximum.cluster.graphql.struct;
 
 import com.infomaximum.cluster.core.remote.struct.RemoteObject;
+import com.infomaximum.cluster.graphql.exception.GraphQLExecutorCancelledException;
+import com.infomaximum.cluster.graphql.exception.GraphQLExecutorDeadlineExceededException;
+import com.infomaximum.cluster.graphql.executor.subscription.SubscribeCursor;
+
+import java.time.Instant;
 
 public interface ContextRequest extends RemoteObject {
 
     GRequest getRequest();
+
+    /**
+     * Курсор подписки клиента. Если курсор ранее был выдан этим frontend'ом и пропущенные события еще хранятся,
+     * подписка возобновляется с них без повторного запроса данных у компонента
+     */
+    default SubscribeCursor getSubscribeCursor() {
+        return null;
+    }
+
+    /**
+     * Срок выполнения запроса, null - без ограничения. Передается во все компоненты, участвующие в запросе:
+     * долгие методы компонентов могут сами проверять его и прекращать работу
+     */
+    default Instant getDeadline() {
+        GRequest request = getRequest();
+        return (request == null) ? null : request.getDeadline();
+    }
+
+    default boolean isDeadlineExceeded() {
+        Instant deadline = getDeadline();
+        return deadline != null && !Instant.now().isBefore(deadline);
+    }
+
+    default void checkDeadline() throws GraphQLExecutorDeadlineExceededException {
+        if (isDeadlineExceeded()) {
+            throw new GraphQLExecutorDeadlineExceededException(getDeadline());
+        }
+    }
+
+    /**
+     * Класс приоритета запроса при допуске к выполнению (см. {@link com.infomaximum.cluster.graphql.executor.admission.GraphQLAdmission})
+     */
+    default GRequestPriority getPriority() {
+        return GRequestPriority.NORMAL;
+    }
+
+    /**
+     * Признак отмены запроса, null - запрос не может быть отменен.
+     * Ограничение: удаленный вызов получает копию признака, снятую в момент вызова. Отмена после начала
+     * удаленного вызова в компонент другой ноды не передается (отдельного вызова отмены нет) - компонент
+     * доработает вызов до конца, отмена действует только на последующие вызовы
+     */
+    default GCancellationToken getCancellationToken() {
+        return null;
+    }
+
+    default boolean isCancelled() {
+        GCancellationToken cancellationToken = getCancellationToken();
+        return cancellationToken != null && cancellationToken.isCancelled();
+    }
+
+    default void checkCancelled() throws GraphQLExecutorCancelledException {
+        if (isCancelled()) {
+            throw new GraphQLExecutorCancelledException();
+        }
+    }
 }
@@ -0,0 +1,21 @@
+package com.infomaximum.cluster.graphql.struct;
+
+import com.infomaximum.cluster.core.remote.struct.RemoteObject;
+
+/**
+ * Признак отмены запроса, создается вызывающей стороной на каждый запрос (см. {@link ContextRequest#getCancellationToken()}).
+ * После отмены новые вызовы компонентов не выполняются. Компоненты этой ноды видят отмену сразу,
+ * компоненты других нод - только в момент вызова (в компонент передается копия)
+ */
+public class GCancellationToken implements RemoteObject {
+
+    private volatile boolean cancelled;
+
+    public void cancel() {
+        cancelled = true;
+    }
+
+    public boolean isCancelled() {
+        return cancelled;
+    }
+}
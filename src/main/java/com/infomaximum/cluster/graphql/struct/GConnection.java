@@ -0,0 +1,34 @@
+package com.infomaximum.cluster.graphql.struct;
+
+import com.infomaximum.cluster.core.remote.struct.RemoteObject;
+
+import java.util.ArrayList;
+
+/**
+ * Страница коллекции. Метод компонента возвращает только запрошенную страницу ({@link GPage}),
+ * следующая страница запрашивается клиентом по endCursor
+ */
+public class GConnection<T> implements RemoteObject {
+
+    private final ArrayList<T> items;
+    private final String endCursor;
+    private final boolean hasNextPage;
+
+    public GConnection(ArrayList<T> items, String endCursor, boolean hasNextPage) {
+        this.items = items;
+        this.endCursor = endCursor;
+        this.hasNextPage = hasNextPage;
+    }
+
+    public ArrayList<T> getItems() {
+        return items;
+    }
+
+    public String getEndCursor() {
+        return endCursor;
+    }
+
+    public boolean getHasNextPage() {
+        return hasNextPage;
+    }
+}
@@ -0,0 +1,48 @@
+package com.infomaximum.cluster.graphql.struct;
+
+import com.infomaximum.cluster.core.remote.struct.RemoteObject;
+import com.infomaximum.cluster.graphql.exception.GraphQLExecutorInvalidSyntaxException;
+
+/**
+ * Запрошенная страница коллекции: аргументы first и after поля, возвращающего {@link GConnection}.
+ * Передается в метод компонента особым аргументом
+ */
+public class GPage implements RemoteObject {
+
+    public static final String ARGUMENT_FIRST = "first";
+    public static final String ARGUMENT_AFTER = "after";
+
+    public static final int DEFAULT_SIZE = 100;
+    public static final int MAX_SIZE = 1000;
+
+    private final int first;
+    private final String after;
+
+    public GPage(int first, String after) {
+        this.first = first;
+        this.after = after;
+    }
+
+    /**
+     * Размер страницы, не больше {@link #MAX_SIZE}
+     */
+    public int getFirst() {
+        return first;
+    }
+
+    /**
+     * Курсор, после которого начинается страница, null - с начала коллекции
+     */
+    public String getAfter() {
+        return after;
+    }
+
+    public static GPage of(Integer first, String after) {
+        if (first == null) {
+            first = DEFAULT_SIZE;
+        } else if (first < 0) {
+            throw new GraphQLExecutorInvalidSyntaxException("Argument first must be non-negative: " + first);
+        }
+        return new GPage(Math.min(first, MAX_SIZE), after);
+    }
+}
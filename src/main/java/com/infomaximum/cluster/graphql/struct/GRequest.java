@@ -20,11 +20,24 @@ public class GRequest implements RemoteObject {
 
     private final String xTraceId;
 
+    //Срок, после которого ответ клиенту уже не нужен, null - без ограничения
+    private final Instant deadline;
+
     public GRequest(
             Instant instant,
             RemoteAddress remoteAddress,
             String query, HashMap<String, Serializable> queryVariables, String operationName,
             String xTraceId
+    ) {
+        this(instant, remoteAddress, query, queryVariables, operationName, xTraceId, null);
+    }
+
+    public GRequest(
+            Instant instant,
+            RemoteAddress remoteAddress,
+            String query, HashMap<String, Serializable> queryVariables, String operationName,
+            String xTraceId,
+            Instant deadline
     ) {
         this.instant = instant;
 
@@ -35,6 +48,8 @@ public class GRequest implements RemoteObject {
         this.operationName = operationName;
 
         this.xTraceId = xTraceId;
+
+        this.deadline = deadline;
     }
 
     public Instant getInstant() {
@@ -61,6 +76,10 @@ public class GRequest implements RemoteObject {
         return xTraceId;
     }
 
+    public Instant getDeadline() {
+        return deadline;
+    }
+
     public static class RemoteAddress implements RemoteObject {
 
         public final String rawRemoteAddress;
@@ -0,0 +1,14 @@
+package com.infomaximum.cluster.graphql.struct;
+
+/**
+ * Класс приоритета запроса при перегрузке: интерактивные запросы допускаются к выполнению первыми,
+ * фоновые (BATCH) дольше ждут в очереди
+ */
+public enum GRequestPriority {
+
+    INTERACTIVE,
+
+    NORMAL,
+
+    BATCH
+}
@@ -0,0 +1,51 @@
+package com.infomaximum.cluster.graphql.struct;
+
+import com.infomaximum.cluster.core.remote.struct.RemoteObject;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Objects;
+import java.util.Set;
+
+/**
+ * Запрошенные клиентом вложенные поля (по имени поля в схеме, алиасы и фрагменты уже раскрыты).
+ * Передается в метод компонента особым аргументом, чтобы загружать только нужные данные
+ */
+public class GSelectionSet implements RemoteObject {
+
+    //Зарезервированное имя аргумента, под которым набор полей передается в компонент
+    public static final String ARGUMENT_NAME = "__selection";
+
+    private final HashMap<String, GSelectionSet> fields;
+
+    public GSelectionSet(HashMap<String, GSelectionSet> fields) {
+        this.fields = fields;
+    }
+
+    public Set<String> getFieldNames() {
+        return Collections.unmodifiableSet(fields.keySet());
+    }
+
+    public boolean contains(String fieldName) {
+        return fields.containsKey(fieldName);
+    }
+
+    /**
+     * Вложенные поля запрошенного поля, null - поле не запрошено или не имеет вложенных полей
+     */
+    public GSelectionSet get(String fieldName) {
+        return fields.get(fieldName);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        return Objects.equals(fields, ((GSelectionSet) o).fields);
+    }
+
+    @Override
+    public int hashCode() {
+        return fields.hashCode();
+    }
+}
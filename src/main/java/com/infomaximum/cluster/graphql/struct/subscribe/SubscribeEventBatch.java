@@ -0,0 +1,25 @@
+package com.infomaximum.cluster.graphql.struct.subscribe;
+
+import com.infomaximum.cluster.core.remote.struct.RemoteObject;
+
+import java.util.ArrayList;
+import java.util.UUID;
+
+/**
+ * Пачка событий одного канала компонент -> frontend. События идут строго по возрастанию sequence,
+ * channelId меняется при перезапуске компонента
+ */
+public class SubscribeEventBatch implements RemoteObject {
+
+    public final UUID nodeRuntimeId;
+    public final int componentId;
+    public final UUID channelId;
+    public final ArrayList<SubscribeEventItem> items;
+
+    public SubscribeEventBatch(UUID nodeRuntimeId, int componentId, UUID channelId, ArrayList<SubscribeEventItem> items) {
+        this.nodeRuntimeId = nodeRuntimeId;
+        this.componentId = componentId;
+        this.channelId = channelId;
+        this.items = items;
+    }
+}
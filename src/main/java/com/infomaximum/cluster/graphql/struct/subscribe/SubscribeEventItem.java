@@ -0,0 +1,22 @@
+package com.infomaximum.cluster.graphql.struct.subscribe;
+
+import com.infomaximum.cluster.core.remote.struct.RemoteObject;
+
+import java.io.Serializable;
+import java.util.Optional;
+
+public class SubscribeEventItem implements RemoteObject {
+
+    public final long sequence;
+    public final SubscribeKey subscribeKey;
+    public final Optional<? extends Serializable> value;
+    //Время публикации события компонентом
+    public final long time;
+
+    public SubscribeEventItem(long sequence, SubscribeKey subscribeKey, Optional<? extends Serializable> value, long time) {
+        this.sequence = sequence;
+        this.subscribeKey = subscribeKey;
+        this.value = value;
+        this.time = time;
+    }
+}
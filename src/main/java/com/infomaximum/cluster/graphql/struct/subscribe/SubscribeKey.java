@@ -24,6 +24,16 @@ public class SubscribeKey implements RemoteObject {
                 .array();
     }
 
+    /**
+     * Ключ подписки на события компонента componentId ноды nodeRuntimeId
+     */
+    public boolean isComponent(UUID nodeRuntimeId, int componentId) {
+        ByteBuffer buffer = ByteBuffer.wrap(key);
+        return buffer.getLong() == nodeRuntimeId.getMostSignificantBits()
+                && buffer.getLong() == nodeRuntimeId.getLeastSignificantBits()
+                && buffer.getInt() == componentId;
+    }
+
     @Override
     public boolean equals(Object other) {
         if (!(other instanceof SubscribeKey)) {
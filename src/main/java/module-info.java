@@ -18,6 +18,13 @@ module com.infomaximum.cluster.graphql {
     exports com.infomaximum.cluster.graphql.schema.struct.out;
     exports com.infomaximum.cluster.graphql.schema.build.graphqltype;
     exports com.infomaximum.cluster.graphql.executor.component;
+    exports com.infomaximum.cluster.graphql.executor.hedging;
+    exports com.infomaximum.cluster.graphql.executor.circuitbreaker;
+    exports com.infomaximum.cluster.graphql.executor.limiter;
+    exports com.infomaximum.cluster.graphql.executor.bulkhead;
+    exports com.infomaximum.cluster.graphql.executor.admission;
+    exports com.infomaximum.cluster.graphql.executor.coalescing;
+    exports com.infomaximum.cluster.graphql.executor.persisted;
     exports com.infomaximum.cluster.graphql.schema.datafetcher;
     exports com.infomaximum.cluster.graphql.preparecustomfield;
     exports com.infomaximum.cluster.graphql.anotation;
@@ -1,6 +1,7 @@
 package com.infomaximum;
 
 import com.infomaximum.cluster.exception.ClusterException;
+import com.infomaximum.cluster.graphql.GraphQLEngine;
 import com.infomaximum.cluster.graphql.executor.struct.GExecutionResult;
 import com.infomaximum.cluster.graphql.struct.ContextRequest;
 import com.infomaximum.cluster.graphql.struct.GRequest;
@@ -17,6 +18,7 @@ import java.io.IOException;
 import java.time.Instant;
 import java.util.Collections;
 import java.util.HashMap;
+import java.util.function.Consumer;
 
 /**
  * Created by kris on 22.04.17.
@@ -31,19 +33,20 @@ public abstract class BaseTest {
         server = new Server();
     }
 
+    protected static void initServer(Consumer<GraphQLEngine.Builder> configure) throws ClusterException {
+        server = new Server(configure);
+    }
+
     public static Server getServer() {
         return server;
     }
 
     public static GExecutionResult grapqhlExecutor(String query) {
-        FrontendComponent frontendComponent = getServer().getCluster().getAnyLocalComponent(FrontendComponent.class);
+        return grapqhlExecutor(query, buildRequest());
+    }
 
-        GRequest gRequest = new GRequest(
-                Instant.now(),
-                new GRequest.RemoteAddress("127.0.0.1"),
-                "{}", new HashMap<>(), null,
-                "123e4567-e89b-12d3-a456-426655440000"
-        );
+    public static GExecutionResult grapqhlExecutor(String query, GRequest gRequest) {
+        FrontendComponent frontendComponent = getServer().getCluster().getAnyLocalComponent(FrontendComponent.class);
 
         ExecutionInput executionInput = ExecutionInput.newExecutionInput()
                 .query(query)
@@ -56,6 +59,15 @@ public abstract class BaseTest {
 
     }
 
+    public static GRequest buildRequest() {
+        return new GRequest(
+                Instant.now(),
+                new GRequest.RemoteAddress("127.0.0.1"),
+                "{}", new HashMap<>(), null,
+                "123e4567-e89b-12d3-a456-426655440000"
+        );
+    }
+
     public static class TestContextRequest implements ContextRequest {
 
         private final GRequest gRequest;
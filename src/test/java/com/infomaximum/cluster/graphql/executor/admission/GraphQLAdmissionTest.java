@@ -0,0 +1,90 @@
+package com.infomaximum.cluster.graphql.executor.admission;
+
+import com.infomaximum.cluster.graphql.exception.GraphQLExecutorRejectedException;
+import com.infomaximum.cluster.graphql.struct.ContextRequest;
+import com.infomaximum.cluster.graphql.struct.GRequest;
+import com.infomaximum.cluster.graphql.struct.GRequestPriority;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+public class GraphQLAdmissionTest {
+
+    @Test
+    public void shedding() {
+        GraphQLAdmission admission = new GraphQLAdmission(new GraphQLAdmissionPolicy(1, 10, 1, Duration.ofSeconds(1), Duration.ofSeconds(1), Duration.ofSeconds(1)));
+
+        GraphQLAdmission.Permit permit = admission.admit(context(GRequestPriority.NORMAL, "a", Instant.now()));
+        Assertions.assertEquals(1, admission.getRunning());
+
+        //Запрос уже ждал дольше допустимого до вызова
+        Assertions.assertThrows(GraphQLExecutorRejectedException.class, () -> admission.admit(context(GRequestPriority.NORMAL, "b", Instant.now().minusSeconds(2))));
+        Assertions.assertEquals(1, admission.getRejected());
+
+        permit.close();
+        permit.close();
+        Assertions.assertEquals(0, admission.getRunning());
+        admission.admit(context(GRequestPriority.NORMAL, "b", Instant.now().minusSeconds(2))).close();
+    }
+
+    @Test
+    public void priority() throws Exception {
+        GraphQLAdmission admission = new GraphQLAdmission(new GraphQLAdmissionPolicy(1, 10, 10, Duration.ofSeconds(10), Duration.ofSeconds(10), Duration.ofSeconds(10)));
+        GraphQLAdmission.Permit permit = admission.admit(context(GRequestPriority.NORMAL, "a", Instant.now()));
+
+        List<String> order = new CopyOnWriteArrayList<>();
+        Thread batch1 = waiter(admission, order, GRequestPriority.BATCH, "batch", "batch1");
+        awaitQueued(admission, 1);
+        Thread batch2 = waiter(admission, order, GRequestPriority.BATCH, "batch", "batch2");
+        awaitQueued(admission, 2);
+        Thread other = waiter(admission, order, GRequestPriority.BATCH, "other", "other");
+        awaitQueued(admission, 3);
+        Thread interactive = waiter(admission, order, GRequestPriority.INTERACTIVE, "batch", "interactive");
+        awaitQueued(admission, 4);
+
+        permit.close();
+        for (Thread thread : List.of(batch1, batch2, other, interactive)) {
+            thread.join(10_000);
+        }
+
+        //Сначала интерактивный запрос, затем клиенты по очереди
+        Assertions.assertEquals(List.of("interactive", "batch1", "other", "batch2"), order);
+        Assertions.assertEquals(0, admission.getRunning());
+    }
+
+    private static Thread waiter(GraphQLAdmission admission, List<String> order, GRequestPriority priority, String address, String name) {
+        Thread thread = new Thread(() -> {
+            try (GraphQLAdmission.Permit ignore = admission.admit(context(priority, address, Instant.now()))) {
+                order.add(name);
+            }
+        });
+        thread.start();
+        return thread;
+    }
+
+    private static void awaitQueued(GraphQLAdmission admission, int queued) throws InterruptedException {
+        while (admission.getQueued() < queued) {
+            Thread.sleep(1);
+        }
+    }
+
+    private static ContextRequest context(GRequestPriority priority, String address, Instant instant) {
+        GRequest request = new GRequest(instant, new GRequest.RemoteAddress(address), "{}", new HashMap<>(), null, null);
+        return new ContextRequest() {
+            @Override
+            public GRequest getRequest() {
+                return request;
+            }
+
+            @Override
+            public GRequestPriority getPriority() {
+                return priority;
+            }
+        };
+    }
+}
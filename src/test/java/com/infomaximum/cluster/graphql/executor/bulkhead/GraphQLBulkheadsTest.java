@@ -0,0 +1,54 @@
+package com.infomaximum.cluster.graphql.executor.bulkhead;
+
+import com.infomaximum.cluster.graphql.exception.GraphQLExecutorOverloadException;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.UUID;
+
+public class GraphQLBulkheadsTest {
+
+    @Test
+    public void isolation() {
+        UUID nodeRuntimeId = UUID.randomUUID();
+        GraphQLBulkheads bulkheads = new GraphQLBulkheads(new GraphQLBulkheadPolicy(2, Duration.ZERO), Map.of(), Map.of());
+
+        GraphQLBulkhead slow = bulkheads.get("slow", nodeRuntimeId, 1);
+        slow.acquire(nodeRuntimeId, 1);
+        slow.acquire(nodeRuntimeId, 1);
+        Assertions.assertThrows(GraphQLExecutorOverloadException.class, () -> slow.acquire(nodeRuntimeId, 1));
+        Assertions.assertEquals(1, slow.getRejected());
+        Assertions.assertEquals(1.0, slow.getSaturation());
+
+        //Исчерпанный предел одного компонента не влияет на другие
+        GraphQLBulkhead other = bulkheads.get("other", nodeRuntimeId, 2);
+        other.acquire(nodeRuntimeId, 2);
+        Assertions.assertEquals(1, other.getInFlight());
+
+        slow.release();
+        slow.acquire(nodeRuntimeId, 1);
+        Assertions.assertEquals(2, slow.getPeakInFlight());
+        Assertions.assertSame(slow, bulkheads.get("slow2", nodeRuntimeId, 1));
+    }
+
+    @Test
+    public void group() {
+        UUID nodeRuntimeId = UUID.randomUUID();
+        GraphQLBulkheads bulkheads = new GraphQLBulkheads(
+                null,
+                Map.of("reports", new GraphQLBulkheadPolicy(1, Duration.ZERO)),
+                Map.of("report", "reports", "chart", "reports")
+        );
+
+        Assertions.assertNull(bulkheads.get("user", nodeRuntimeId, 1));
+
+        GraphQLBulkhead report = bulkheads.get("report", nodeRuntimeId, 2);
+        Assertions.assertSame(report, bulkheads.get("chart", UUID.randomUUID(), 3));
+        Assertions.assertEquals("reports", report.getName());
+        Assertions.assertEquals(1, bulkheads.getBulkheads().size());
+
+        Assertions.assertThrows(IllegalArgumentException.class, () -> new GraphQLBulkheads(null, Map.of(), Map.of("report", "reports")));
+    }
+}
@@ -0,0 +1,113 @@
+package com.infomaximum.cluster.graphql.executor.circuitbreaker;
+
+import com.infomaximum.cluster.graphql.exception.GraphQLExecutorCircuitOpenException;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.UUID;
+
+public class GraphQLCircuitBreakerTest {
+
+    private static final long FAST = Duration.ofMillis(1).toNanos();
+    private static final long SLOW = Duration.ofSeconds(2).toNanos();
+
+    @Test
+    public void openOnFailures() {
+        GraphQLCircuitBreaker circuitBreaker = circuitBreaker();
+
+        //Пока вызовов меньше minimumCalls - цепь не размыкается
+        for (int i = 0; i < 3; i++) {
+            circuitBreaker.onFailure(circuitBreaker.acquire(0), 0);
+        }
+        Assertions.assertEquals(GraphQLCircuitBreaker.State.CLOSED, circuitBreaker.getState());
+
+        circuitBreaker.onFailure(circuitBreaker.acquire(0), 0);
+        Assertions.assertEquals(GraphQLCircuitBreaker.State.OPEN, circuitBreaker.getState());
+        Assertions.assertThrows(GraphQLExecutorCircuitOpenException.class, () -> circuitBreaker.acquire(999));
+    }
+
+    @Test
+    public void openOnSlowCalls() {
+        GraphQLCircuitBreaker circuitBreaker = circuitBreaker();
+        for (int i = 0; i < 2; i++) {
+            circuitBreaker.onSuccess(circuitBreaker.acquire(0), FAST, 0);
+        }
+        for (int i = 0; i < 2; i++) {
+            circuitBreaker.onSuccess(circuitBreaker.acquire(0), SLOW, 0);
+        }
+        Assertions.assertEquals(GraphQLCircuitBreaker.State.OPEN, circuitBreaker.getState());
+    }
+
+    @Test
+    public void halfOpen() {
+        GraphQLCircuitBreaker circuitBreaker = circuitBreaker();
+        open(circuitBreaker);
+
+        //По истечении openDuration пропускается один пробный вызов
+        GraphQLCircuitBreaker.Permit probe = circuitBreaker.acquire(1000);
+        Assertions.assertEquals(GraphQLCircuitBreaker.State.HALF_OPEN, circuitBreaker.getState());
+        Assertions.assertThrows(GraphQLExecutorCircuitOpenException.class, () -> circuitBreaker.acquire(1000));
+
+        circuitBreaker.onFailure(probe, 1000);
+        Assertions.assertEquals(GraphQLCircuitBreaker.State.OPEN, circuitBreaker.getState());
+        Assertions.assertThrows(GraphQLExecutorCircuitOpenException.class, () -> circuitBreaker.acquire(1500));
+
+        circuitBreaker.onSuccess(circuitBreaker.acquire(2000), FAST, 2000);
+        Assertions.assertEquals(GraphQLCircuitBreaker.State.CLOSED, circuitBreaker.getState());
+
+        //После замыкания окно начинается заново
+        for (int i = 0; i < 3; i++) {
+            circuitBreaker.onFailure(circuitBreaker.acquire(2000), 2000);
+        }
+        Assertions.assertEquals(GraphQLCircuitBreaker.State.CLOSED, circuitBreaker.getState());
+    }
+
+    @Test
+    public void staleCallsIgnored() {
+        GraphQLCircuitBreaker circuitBreaker = circuitBreaker();
+        //Вызовы, допущенные в замкнутой цепи, завершаются уже после ее размыкания
+        GraphQLCircuitBreaker.Permit staleSuccess = circuitBreaker.acquire(0);
+        GraphQLCircuitBreaker.Permit staleFailure = circuitBreaker.acquire(0);
+        open(circuitBreaker);
+
+        GraphQLCircuitBreaker.Permit probe = circuitBreaker.acquire(1000);
+        Assertions.assertEquals(GraphQLCircuitBreaker.State.HALF_OPEN, circuitBreaker.getState());
+
+        //Не пробные вызовы не меняют состояние и не освобождают место пробного
+        circuitBreaker.onSuccess(staleSuccess, FAST, 1000);
+        circuitBreaker.onFailure(staleFailure, 1000);
+        circuitBreaker.onIgnore(staleFailure);
+        Assertions.assertEquals(GraphQLCircuitBreaker.State.HALF_OPEN, circuitBreaker.getState());
+        Assertions.assertThrows(GraphQLExecutorCircuitOpenException.class, () -> circuitBreaker.acquire(1000));
+
+        circuitBreaker.onSuccess(probe, FAST, 1000);
+        Assertions.assertEquals(GraphQLCircuitBreaker.State.CLOSED, circuitBreaker.getState());
+    }
+
+    @Test
+    public void ignoredProbe() {
+        GraphQLCircuitBreaker circuitBreaker = circuitBreaker();
+        open(circuitBreaker);
+
+        //Пробный вызов не выполнялся - место пробного освобождается
+        circuitBreaker.onIgnore(circuitBreaker.acquire(1000));
+        Assertions.assertEquals(GraphQLCircuitBreaker.State.HALF_OPEN, circuitBreaker.getState());
+
+        circuitBreaker.onSuccess(circuitBreaker.acquire(1000), FAST, 1000);
+        Assertions.assertEquals(GraphQLCircuitBreaker.State.CLOSED, circuitBreaker.getState());
+    }
+
+    private static void open(GraphQLCircuitBreaker circuitBreaker) {
+        for (int i = 0; i < 4; i++) {
+            circuitBreaker.onFailure(circuitBreaker.acquire(0), 0);
+        }
+    }
+
+    private static GraphQLCircuitBreaker circuitBreaker() {
+        GraphQLCircuitBreakerPolicy policy = new GraphQLCircuitBreakerPolicy(
+                10, 4, 0.5, Duration.ofSeconds(1), Duration.ofSeconds(1), 1
+        );
+        return new GraphQLCircuitBreakers(policy).get(UUID.randomUUID(), 1);
+    }
+}
@@ -0,0 +1,185 @@
+package com.infomaximum.cluster.graphql.executor.coalescing;
+
+import com.infomaximum.cluster.graphql.exception.GraphQLExecutorDeadlineExceededException;
+import com.infomaximum.cluster.graphql.executor.GraphQLExecutor;
+import com.infomaximum.cluster.graphql.executor.struct.GExecutionResult;
+import com.infomaximum.cluster.graphql.struct.ContextRequest;
+import com.infomaximum.cluster.graphql.struct.GCancellationToken;
+import com.infomaximum.cluster.graphql.struct.GRequest;
+import graphql.ExecutionInput;
+import graphql.ExecutionResultImpl;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+public class GraphQLExecutorCoalescingTest {
+
+    @Test
+    public void coalesce() throws Exception {
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        AtomicInteger executions = new AtomicInteger();
+        GraphQLExecutor executor = new GraphQLExecutor() {
+            @Override
+            public GExecutionResult execute(ExecutionInput executionInput) {
+                executions.incrementAndGet();
+                started.countDown();
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    throw new RuntimeException(e);
+                }
+                return new GExecutionResult(ExecutionResultImpl.newExecutionResult().data(Map.of("value", 1)).build());
+            }
+
+            @Override
+            public void requestCompleted(ContextRequest context) {
+            }
+        };
+        GraphQLExecutorCoalescing coalescing = new GraphQLExecutorCoalescing(executor, Set.of("dashboard"));
+
+        AtomicReference<GExecutionResult> leaderResult = new AtomicReference<>();
+        Thread leader = new Thread(() -> leaderResult.set(coalescing.execute(input("dashboard", 1))));
+        leader.start();
+        started.await();
+
+        AtomicReference<GExecutionResult> followerResult = new AtomicReference<>();
+        Thread follower = new Thread(() -> followerResult.set(coalescing.execute(input("dashboard", 1))));
+        follower.start();
+        while (coalescing.getCoalesced() == 0) {
+            Thread.sleep(1);
+        }
+
+        release.countDown();
+        leader.join(10_000);
+        follower.join(10_000);
+
+        Assertions.assertEquals(1, executions.get());
+        Assertions.assertSame(leaderResult.get(), followerResult.get());
+
+        //Другие переменные и необъявленные операции выполняются отдельно
+        coalescing.execute(input("dashboard", 2));
+        coalescing.execute(input("other", 1));
+        Assertions.assertEquals(3, executions.get());
+        Assertions.assertEquals(2, coalescing.getExecuted());
+    }
+
+    @Test
+    public void followerDeadline() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        GraphQLExecutorCoalescing coalescing = new GraphQLExecutorCoalescing(blockingExecutor(new AtomicInteger(), new CountDownLatch(1), release), Set.of("dashboard"));
+
+        Thread leader = new Thread(() -> coalescing.execute(input("dashboard", 1)));
+        leader.start();
+        while (coalescing.getExecuted() == 0) {
+            Thread.sleep(1);
+        }
+
+        //Ожидающий не ждет дольше своего срока, даже если первый запрос еще выполняется
+        GExecutionResult result = coalescing.execute(input("dashboard", 1, new TestContext(null, Instant.now().plusMillis(100))));
+        Assertions.assertEquals(1, result.getErrors().size());
+        Assertions.assertInstanceOf(GraphQLExecutorDeadlineExceededException.class, result.getErrors().get(0));
+
+        release.countDown();
+        leader.join(10_000);
+    }
+
+    @Test
+    public void leaderCancelled() throws Exception {
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        AtomicInteger executions = new AtomicInteger();
+        GraphQLExecutorCoalescing coalescing = new GraphQLExecutorCoalescing(blockingExecutor(executions, started, release), Set.of("dashboard"));
+
+        GCancellationToken leaderToken = new GCancellationToken();
+        Thread leader = new Thread(() -> coalescing.execute(input("dashboard", 1, new TestContext(leaderToken, null))));
+        leader.start();
+        started.await();
+
+        AtomicReference<GExecutionResult> followerResult = new AtomicReference<>();
+        Thread follower = new Thread(() -> followerResult.set(coalescing.execute(input("dashboard", 1, new TestContext(new GCancellationToken(), null)))));
+        follower.start();
+        while (coalescing.getCoalesced() == 0) {
+            Thread.sleep(1);
+        }
+
+        //Отмена первого запроса не должна отменять ожидающих - они выполняют запрос сами
+        leaderToken.cancel();
+        release.countDown();
+        leader.join(10_000);
+        follower.join(10_000);
+
+        Assertions.assertEquals(2, executions.get());
+        Assertions.assertNotNull(followerResult.get());
+        Assertions.assertTrue(followerResult.get().getErrors().isEmpty());
+    }
+
+    private static GraphQLExecutor blockingExecutor(AtomicInteger executions, CountDownLatch started, CountDownLatch release) {
+        return new GraphQLExecutor() {
+            @Override
+            public GExecutionResult execute(ExecutionInput executionInput) {
+                executions.incrementAndGet();
+                started.countDown();
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    throw new RuntimeException(e);
+                }
+                return new GExecutionResult(ExecutionResultImpl.newExecutionResult().data(Map.of("value", 1)).build());
+            }
+
+            @Override
+            public void requestCompleted(ContextRequest context) {
+            }
+        };
+    }
+
+    private static class TestContext implements ContextRequest {
+
+        private final GCancellationToken cancellationToken;
+        private final Instant deadline;
+
+        private TestContext(GCancellationToken cancellationToken, Instant deadline) {
+            this.cancellationToken = cancellationToken;
+            this.deadline = deadline;
+        }
+
+        @Override
+        public GRequest getRequest() {
+            return null;
+        }
+
+        @Override
+        public Instant getDeadline() {
+            return deadline;
+        }
+
+        @Override
+        public GCancellationToken getCancellationToken() {
+            return cancellationToken;
+        }
+    }
+
+    private static ExecutionInput input(String operationName, int id, ContextRequest context) {
+        return ExecutionInput.newExecutionInput()
+                .query("query " + operationName + "($id: Int) { value(id: $id) }")
+                .operationName(operationName)
+                .variables(Map.of("id", id))
+                .context(context)
+                .build();
+    }
+
+    private static ExecutionInput input(String operationName, int id) {
+        return ExecutionInput.newExecutionInput()
+                .query("query " + operationName + "($id: Int) { value(id: $id) }")
+                .operationName(operationName)
+                .variables(Map.of("id", id))
+                .build();
+    }
+}
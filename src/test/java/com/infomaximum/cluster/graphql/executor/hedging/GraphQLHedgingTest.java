@@ -0,0 +1,147 @@
+package com.infomaximum.cluster.graphql.executor.hedging;
+
+import com.infomaximum.cluster.graphql.exception.GraphQLExecutorDeadlineExceededException;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+public class GraphQLHedgingTest {
+
+    @Test
+    public void hedgeWins() throws Exception {
+        try (GraphQLHedging hedging = new GraphQLHedging(new GraphQLHedgingPolicy(50, Duration.ofMillis(1), 1))) {
+            GraphQLHedging.Field field = hedging.getField("query", "value");
+            warmUp(hedging, field);
+
+            String result = hedging.execute(field, null, () -> {
+                Thread.sleep(1000);
+                return "primary";
+            }, () -> () -> "hedge");
+            Assertions.assertEquals("hedge", result);
+
+            GraphQLHedgingStatistics.FieldStatistics statistics = hedging.getStatistics().getFields().get("query.value");
+            Assertions.assertEquals(1, statistics.getHedges());
+            Assertions.assertEquals(1, statistics.getHedgeWins());
+            Assertions.assertNotNull(statistics.getDelay());
+        }
+    }
+
+    @Test
+    public void budget() throws Exception {
+        try (GraphQLHedging hedging = new GraphQLHedging(new GraphQLHedgingPolicy(50, Duration.ofMillis(1), 0))) {
+            GraphQLHedging.Field field = hedging.getField("query", "value");
+            warmUp(hedging, field);
+
+            String result = hedging.execute(field, null, () -> {
+                Thread.sleep(50);
+                return "primary";
+            }, () -> () -> "hedge");
+            Assertions.assertEquals("primary", result);
+            Assertions.assertEquals(0, hedging.getStatistics().getFields().get("query.value").getHedges());
+        }
+    }
+
+    @Test
+    public void error() throws Exception {
+        try (GraphQLHedging hedging = new GraphQLHedging(new GraphQLHedgingPolicy(50, Duration.ofMillis(1), 1))) {
+            GraphQLHedging.Field field = hedging.getField("query", "value");
+            warmUp(hedging, field);
+
+            //Ошибка основного вызова не мешает успешному дублю
+            String result = hedging.execute(field, null, () -> {
+                Thread.sleep(100);
+                throw new IllegalStateException();
+            }, () -> () -> "hedge");
+            Assertions.assertEquals("hedge", result);
+
+            Assertions.assertThrows(IllegalStateException.class, () -> hedging.execute(field, null, () -> {
+                throw new IllegalStateException();
+            }, () -> null));
+        }
+    }
+
+    @Test
+    public void primaryOnCallerThread() throws Exception {
+        try (GraphQLHedging hedging = new GraphQLHedging(new GraphQLHedgingPolicy(50, Duration.ofMillis(1), 1))) {
+            GraphQLHedging.Field field = hedging.getField("query", "value");
+            warmUp(hedging, field);
+
+            Thread caller = Thread.currentThread();
+            String result = hedging.execute(field, null, () -> {
+                Assertions.assertSame(caller, Thread.currentThread());
+                Thread.sleep(1000);
+                return "primary";
+            }, () -> () -> {
+                Assertions.assertNotSame(caller, Thread.currentThread());
+                return "hedge";
+            });
+            Assertions.assertEquals("hedge", result);
+            //Прерывание основного вызова не остается на вызывающем потоке
+            Assertions.assertFalse(Thread.currentThread().isInterrupted());
+        }
+    }
+
+    @Test
+    public void deadline() throws Exception {
+        try (GraphQLHedging hedging = new GraphQLHedging(new GraphQLHedgingPolicy(50, Duration.ofMillis(1), 1))) {
+            GraphQLHedging.Field field = hedging.getField("query", "value");
+            warmUp(hedging, field);
+
+            //Основной вызов упал, дубль не успевает к сроку запроса
+            Instant deadline = Instant.now().plusMillis(200);
+            Assertions.assertThrows(GraphQLExecutorDeadlineExceededException.class, () -> hedging.execute(field, deadline, () -> {
+                Thread.sleep(50);
+                throw new IllegalStateException();
+            }, () -> () -> {
+                Thread.sleep(5000);
+                return "hedge";
+            }));
+        }
+    }
+
+    @Test
+    public void maxConcurrentHedges() throws Exception {
+        try (GraphQLHedging hedging = new GraphQLHedging(new GraphQLHedgingPolicy(50, Duration.ofMillis(1), 1, 1))) {
+            GraphQLHedging.Field field = hedging.getField("query", "value");
+            warmUp(hedging, field);
+
+            CountDownLatch hedgeStarted = new CountDownLatch(1);
+            CountDownLatch hedgeRelease = new CountDownLatch(1);
+            Thread blocker = new Thread(() -> {
+                try {
+                    hedging.execute(field, null, () -> {
+                        Thread.sleep(5000);
+                        return "primary";
+                    }, () -> () -> {
+                        hedgeStarted.countDown();
+                        hedgeRelease.await();
+                        return "hedge";
+                    });
+                } catch (Exception ignore) {
+                }
+            });
+            blocker.start();
+            Assertions.assertTrue(hedgeStarted.await(5, TimeUnit.SECONDS));
+
+            //Единственный поток дублей занят - дубль не отправляется, ждем основной вызов
+            String result = hedging.execute(field, null, () -> {
+                Thread.sleep(100);
+                return "primary";
+            }, () -> () -> "hedge");
+            Assertions.assertEquals("primary", result);
+
+            hedgeRelease.countDown();
+            blocker.join();
+        }
+    }
+
+    private static void warmUp(GraphQLHedging hedging, GraphQLHedging.Field field) throws Exception {
+        for (int i = 0; i < 16; i++) {
+            hedging.execute(field, null, () -> "warm", () -> null);
+        }
+    }
+}
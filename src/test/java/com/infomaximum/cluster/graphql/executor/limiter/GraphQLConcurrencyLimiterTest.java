@@ -0,0 +1,74 @@
+package com.infomaximum.cluster.graphql.executor.limiter;
+
+import com.infomaximum.cluster.graphql.exception.GraphQLExecutorOverloadException;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.UUID;
+
+public class GraphQLConcurrencyLimiterTest {
+
+    @Test
+    public void reject() {
+        GraphQLConcurrencyLimiter limiter = limiter();
+        for (int i = 0; i < 4; i++) {
+            limiter.acquire();
+        }
+        Assertions.assertThrows(GraphQLExecutorOverloadException.class, limiter::acquire);
+        Assertions.assertEquals(1, limiter.getRejected());
+
+        limiter.onIgnore();
+        limiter.acquire();
+        Assertions.assertEquals(4, limiter.getInFlight());
+    }
+
+    @Test
+    public void increase() {
+        GraphQLConcurrencyLimiter limiter = limiter();
+        //Пока компонент загружен и отвечает быстро - предел растет
+        for (int i = 0; i < 20; i++) {
+            fill(limiter);
+            limiter.onSuccess(1000);
+            release(limiter);
+        }
+        Assertions.assertTrue(limiter.getLimit() > 4);
+    }
+
+    @Test
+    public void decrease() {
+        GraphQLConcurrencyLimiter limiter = limiter();
+        limiter.acquire();
+        limiter.onSuccess(1000);
+
+        //Замедление ответов - признак перегрузки
+        limiter.acquire();
+        limiter.onSuccess(10_000);
+        Assertions.assertEquals(3, limiter.getLimit());
+
+        limiter.acquire();
+        limiter.onOverload();
+        limiter.acquire();
+        limiter.onOverload();
+        limiter.acquire();
+        limiter.onOverload();
+        Assertions.assertEquals(2, limiter.getLimit());
+    }
+
+    private static void fill(GraphQLConcurrencyLimiter limiter) {
+        while (limiter.getInFlight() < limiter.getLimit()) {
+            limiter.acquire();
+        }
+    }
+
+    private static void release(GraphQLConcurrencyLimiter limiter) {
+        while (limiter.getInFlight() > 0) {
+            limiter.onIgnore();
+        }
+    }
+
+    private static GraphQLConcurrencyLimiter limiter() {
+        GraphQLConcurrencyLimitPolicy policy = new GraphQLConcurrencyLimitPolicy(4, 2, 100, 2, 0.75, Duration.ZERO);
+        return new GraphQLConcurrencyLimiters(policy).get(UUID.randomUUID(), 1);
+    }
+}
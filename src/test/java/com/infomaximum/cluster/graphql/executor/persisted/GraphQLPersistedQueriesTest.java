@@ -0,0 +1,137 @@
+package com.infomaximum.cluster.graphql.executor.persisted;
+
+import com.infomaximum.cluster.graphql.exception.GraphQLExecutorPersistedQueryNotFoundException;
+import graphql.ErrorType;
+import graphql.ExecutionInput;
+import graphql.GraphqlErrorBuilder;
+import graphql.execution.preparsed.PreparsedDocumentEntry;
+import graphql.parser.Parser;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+public class GraphQLPersistedQueriesTest {
+
+    private static final String QUERY = "{ hello }";
+
+    @Test
+    public void hash() {
+        Assertions.assertEquals(
+                "e3b0c44298fc1c149afbf4c8996fb92427ae41e4649b934ca495991b7852b855",
+                GraphQLPersistedQueries.hash("")
+        );
+    }
+
+    @Test
+    public void registerOnce() {
+        GraphQLPersistedQueries persistedQueries = new GraphQLPersistedQueries(10);
+        GraphQLPersistedQueryDocuments documents = new GraphQLPersistedQueryDocuments(persistedQueries);
+        String hash = GraphQLPersistedQueries.hash(QUERY);
+        AtomicInteger parsed = new AtomicInteger();
+        Function<ExecutionInput, PreparsedDocumentEntry> parse = input -> {
+            parsed.incrementAndGet();
+            return new PreparsedDocumentEntry(Parser.parse(input.getQuery()));
+        };
+
+        //Хеш неизвестен - клиент должен прислать текст
+        PreparsedDocumentEntry notFound = documents.getDocument(input("", hash), parse);
+        Assertions.assertTrue(notFound.hasErrors());
+        Assertions.assertEquals(GraphQLExecutorPersistedQueryNotFoundException.CODE, notFound.getErrors().get(0).getExtensions().get("code"));
+
+        //Регистрация
+        PreparsedDocumentEntry registered = documents.getDocument(input(QUERY, hash), parse);
+        Assertions.assertFalse(registered.hasErrors());
+        Assertions.assertEquals(1, parsed.get());
+
+        //Далее - только хеш, документ из кеша
+        PreparsedDocumentEntry cached = documents.getDocument(input("", hash.toUpperCase()), parse);
+        Assertions.assertSame(registered, cached);
+        Assertions.assertEquals(1, parsed.get());
+        Assertions.assertEquals(QUERY, persistedQueries.resolve(hash, null));
+    }
+
+    @Test
+    public void hashMismatch() {
+        GraphQLPersistedQueries persistedQueries = new GraphQLPersistedQueries(10);
+        String hash = GraphQLPersistedQueries.hash("{ other }");
+
+        PreparsedDocumentEntry entry = new GraphQLPersistedQueryDocuments(persistedQueries).getDocument(input(QUERY, hash), input -> Assertions.fail("Запрос не должен разбираться"));
+        Assertions.assertTrue(entry.hasErrors());
+        Assertions.assertEquals(0, persistedQueries.getSize());
+    }
+
+    @Test
+    public void withoutHash() {
+        GraphQLPersistedQueries persistedQueries = new GraphQLPersistedQueries(10);
+
+        PreparsedDocumentEntry entry = new GraphQLPersistedQueryDocuments(persistedQueries).getDocument(
+                ExecutionInput.newExecutionInput().query(QUERY).build(),
+                input -> new PreparsedDocumentEntry(Parser.parse(input.getQuery()))
+        );
+        Assertions.assertFalse(entry.hasErrors());
+        Assertions.assertEquals(0, persistedQueries.getSize());
+    }
+
+    @Test
+    public void documentsPerSchema() {
+        GraphQLPersistedQueries persistedQueries = new GraphQLPersistedQueries(10);
+        GraphQLPersistedQueryDocuments documents1 = new GraphQLPersistedQueryDocuments(persistedQueries);
+        GraphQLPersistedQueryDocuments documents2 = new GraphQLPersistedQueryDocuments(persistedQueries);
+        String hash = GraphQLPersistedQueries.hash(QUERY);
+        AtomicInteger parsed = new AtomicInteger();
+        Function<ExecutionInput, PreparsedDocumentEntry> parse = input -> {
+            parsed.incrementAndGet();
+            return new PreparsedDocumentEntry(Parser.parse(input.getQuery()));
+        };
+
+        //Запрос зарегистрирован через один исполнитель
+        Assertions.assertFalse(documents1.getDocument(input(QUERY, hash), parse).hasErrors());
+
+        //Другой исполнитель получает текст по хешу, но разбирает и проверяет документ по своей схеме
+        PreparsedDocumentEntry entry = documents2.getDocument(input("", hash), parse);
+        Assertions.assertFalse(entry.hasErrors());
+        Assertions.assertEquals(2, parsed.get());
+        Assertions.assertEquals(1, persistedQueries.getSize());
+        Assertions.assertEquals(1, documents1.getSize());
+        Assertions.assertEquals(1, documents2.getSize());
+
+        //Документ, не прошедший проверку схемой исполнителя, не кешируется и не влияет на другие исполнители
+        GraphQLPersistedQueryDocuments documents3 = new GraphQLPersistedQueryDocuments(persistedQueries);
+        PreparsedDocumentEntry invalid = documents3.getDocument(input("", hash), input -> new PreparsedDocumentEntry(
+                GraphqlErrorBuilder.newError().message("invalid").errorType(ErrorType.ValidationError).build()
+        ));
+        Assertions.assertTrue(invalid.hasErrors());
+        Assertions.assertEquals(0, documents3.getSize());
+        Assertions.assertFalse(documents1.getDocument(input("", hash), parse).hasErrors());
+    }
+
+    @Test
+    public void evictLeastRecentlyUsed() {
+        GraphQLPersistedQueries persistedQueries = new GraphQLPersistedQueries(2);
+        String hash1 = GraphQLPersistedQueries.hash("{ a }");
+        String hash2 = GraphQLPersistedQueries.hash("{ b }");
+        String hash3 = GraphQLPersistedQueries.hash("{ c }");
+
+        persistedQueries.resolve(hash1, "{ a }");
+        persistedQueries.resolve(hash2, "{ b }");
+        persistedQueries.resolve(hash1, null);
+        persistedQueries.resolve(hash3, "{ c }");
+
+        Assertions.assertEquals(2, persistedQueries.getSize());
+        Assertions.assertEquals("{ a }", persistedQueries.resolve(hash1, null));
+        Assertions.assertThrows(GraphQLExecutorPersistedQueryNotFoundException.class, () -> persistedQueries.resolve(hash2, null));
+    }
+
+    private static ExecutionInput input(String query, String hash) {
+        return ExecutionInput.newExecutionInput()
+                .query(query)
+                .extensions(Map.of(
+                        GraphQLPersistedQueries.EXTENSION_PERSISTED_QUERY,
+                        Map.of("version", 1, GraphQLPersistedQueries.EXTENSION_SHA256_HASH, hash)
+                ))
+                .build();
+    }
+}
@@ -0,0 +1,94 @@
+package com.infomaximum.cluster.graphql.executor.struct;
+
+import graphql.ExecutionResultImpl;
+import graphql.GraphqlErrorBuilder;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+public class GExecutionResultTest {
+
+    @Test
+    public void writeData() throws IOException {
+        Map<String, Object> item = new LinkedHashMap<>();
+        item.put("name", "Тест \"1\"\n\uD83D\uDE00");
+        item.put("value", 12L);
+        item.put("active", true);
+        item.put("parent", null);
+        item.put("tags", Arrays.asList("a", "b"));
+
+        Map<String, Object> data = new LinkedHashMap<>();
+        data.put("items", Collections.singletonList(item));
+
+        GExecutionResult result = new GExecutionResult(new ExecutionResultImpl(data, null));
+
+        Assertions.assertEquals(
+                "{\"data\":{\"items\":[{\"name\":\"Тест \\\"1\\\"\\n\uD83D\uDE00\",\"value\":12,\"active\":true,\"parent\":null,\"tags\":[\"a\",\"b\"]}]}}",
+                write(result)
+        );
+    }
+
+    @Test
+    public void writeNonFiniteNumbers() throws IOException {
+        Map<String, Object> data = new LinkedHashMap<>();
+        data.put("nan", Double.NaN);
+        data.put("positive", Double.POSITIVE_INFINITY);
+        data.put("negative", Float.NEGATIVE_INFINITY);
+        data.put("value", 1.5d);
+        data.put("floatValue", 2.5f);
+
+        GExecutionResult result = new GExecutionResult(new ExecutionResultImpl(data, null));
+
+        Assertions.assertEquals(
+                "{\"data\":{\"nan\":null,\"positive\":null,\"negative\":null,\"value\":1.5,\"floatValue\":2.5}}",
+                write(result)
+        );
+    }
+
+    @Test
+    public void writeErrors() throws IOException {
+        GExecutionResult result = new GExecutionResult(new ExecutionResultImpl(
+                GraphqlErrorBuilder.newError().message("error").build()
+        ));
+
+        Assertions.assertTrue(write(result).startsWith("{\"errors\":[{\"message\":\"error\""));
+    }
+
+    @Test
+    public void writeLarge() throws IOException {
+        List<Map<String, Object>> items = new ArrayList<>();
+        StringBuilder expected = new StringBuilder("{\"data\":{\"items\":[");
+        for (int i = 0; i < 10000; i++) {
+            Map<String, Object> item = new LinkedHashMap<>();
+            item.put("id", i);
+            items.add(item);
+            if (i > 0) expected.append(',');
+            expected.append("{\"id\":").append(i).append('}');
+        }
+        expected.append("]}}");
+
+        Map<String, Object> data = new LinkedHashMap<>();
+        data.put("items", items);
+        GExecutionResult result = new GExecutionResult(new ExecutionResultImpl(data, null));
+
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        result.writeTo(Channels.newChannel(outputStream));
+        Assertions.assertEquals(expected.toString(), outputStream.toString(StandardCharsets.UTF_8));
+    }
+
+    private static String write(GExecutionResult result) throws IOException {
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        result.writeTo(outputStream);
+        return outputStream.toString(StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,336 @@
+package com.infomaximum.cluster.graphql.executor.subscription;
+
+import com.infomaximum.cluster.graphql.exception.GraphQLExecutorSubscribeEventsLostException;
+import com.infomaximum.cluster.graphql.struct.subscribe.SubscribeEventBatch;
+import com.infomaximum.cluster.graphql.struct.subscribe.SubscribeEventItem;
+import com.infomaximum.cluster.graphql.struct.subscribe.SubscribeKey;
+import io.reactivex.ObservableEmitter;
+import io.reactivex.disposables.Disposable;
+import io.reactivex.functions.Cancellable;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class GraphQLSubscribeEngineImplTest {
+
+    private static final UUID NODE_RUNTIME_ID = UUID.randomUUID();
+
+    @Test
+    public void statistics() {
+        GraphQLSubscribeEngineImpl subscribeEngine = new GraphQLSubscribeEngineImpl();
+        TestEmitter emitter1 = new TestEmitter();
+        TestEmitter emitter2 = new TestEmitter();
+        subscribeEngine.subscribe(NODE_RUNTIME_ID, 1, new byte[]{ 1 }, emitter1);
+        subscribeEngine.subscribe(NODE_RUNTIME_ID, 1, new byte[]{ 1 }, emitter2);
+
+        subscribeEngine.pushEvent(key(1), Optional.of("a"), System.currentTimeMillis() - 1000);
+        subscribeEngine.pushEvent(key(2), Optional.of("b"));
+
+        GraphQLSubscribeStatistics statistics = subscribeEngine.getStatistics();
+        Assertions.assertEquals(1, statistics.getActiveKeys());
+        Assertions.assertEquals(2, statistics.getSubscribers());
+        Assertions.assertEquals(2, statistics.getPushedEvents());
+        Assertions.assertEquals(1, statistics.getDroppedEvents());
+        Assertions.assertEquals(2, statistics.getDeliveredEvents());
+        Assertions.assertEquals(1, statistics.getKeys().get(key(1)).getEvents());
+        Assertions.assertNotNull(statistics.getKeys().get(key(1)).getLastEvent());
+
+        //Задержка считается от публикации события компонентом
+        Assertions.assertTrue(statistics.getMaxDeliveryLag().toMillis() >= 1000);
+        Assertions.assertTrue(statistics.getTotalDeliveryLag().toMillis() >= 1000);
+
+        Assertions.assertEquals(List.of(Optional.of("a")), emitter1.values);
+    }
+
+    @Test
+    public void sweep() {
+        GraphQLSubscribeEngineImpl subscribeEngine = new GraphQLSubscribeEngineImpl();
+        TestEmitter emitter1 = new TestEmitter();
+        TestEmitter emitter2 = new TestEmitter();
+        subscribeEngine.subscribe(NODE_RUNTIME_ID, 1, new byte[]{ 1 }, emitter1);
+        subscribeEngine.subscribe(NODE_RUNTIME_ID, 1, new byte[]{ 2 }, emitter2);
+
+        //Отключился, но отписка не пришла
+        emitter1.disposed = true;
+        Assertions.assertEquals(1, subscribeEngine.getStatistics().getDisposedSubscribers());
+
+        Assertions.assertEquals(1, subscribeEngine.sweep());
+        GraphQLSubscribeStatistics statistics = subscribeEngine.getStatistics();
+        Assertions.assertEquals(1, statistics.getActiveKeys());
+        Assertions.assertEquals(1, statistics.getSweptSubscribers());
+        Assertions.assertEquals(1, statistics.getSweptKeys());
+
+        //Отписка удаляет пустой ключ сразу
+        emitter2.cancel();
+        Assertions.assertEquals(0, subscribeEngine.getStatistics().getActiveKeys());
+        Assertions.assertEquals(0, subscribeEngine.sweep());
+    }
+
+    @Test
+    public void pushEventsBatch() {
+        GraphQLSubscribeEngineImpl subscribeEngine = new GraphQLSubscribeEngineImpl();
+        TestEmitter emitter = new TestEmitter();
+        subscribeEngine.subscribe(NODE_RUNTIME_ID, 1, new byte[]{ 1 }, emitter);
+
+        UUID channelId = UUID.randomUUID();
+        subscribeEngine.pushEvents(batch(channelId, item(1, "a"), item(2, "b")));
+
+        //Пачка раздается по порядку номеров
+        Assertions.assertEquals(List.of(Optional.of("a"), Optional.of("b")), emitter.values);
+        Assertions.assertEquals(2, subscribeEngine.getStatistics().getPushedEvents());
+        Assertions.assertEquals(0, subscribeEngine.getStatistics().getLostEvents());
+    }
+
+    @Test
+    public void pushEventsGapAndDuplicate() {
+        GraphQLSubscribeEngineImpl subscribeEngine = new GraphQLSubscribeEngineImpl();
+        TestEmitter emitter = new TestEmitter();
+        subscribeEngine.subscribe(NODE_RUNTIME_ID, 1, new byte[]{ 1 }, emitter);
+
+        UUID channelId = UUID.randomUUID();
+        subscribeEngine.pushEvents(batch(channelId, item(1, "a")));
+        //События 2 и 3 потеряны - подписка завершается ошибкой до раздачи следующего события
+        subscribeEngine.pushEvents(batch(channelId, item(4, "d")));
+        Assertions.assertEquals(List.of(Optional.of("a")), emitter.values);
+        Assertions.assertTrue(emitter.error instanceof GraphQLExecutorSubscribeEventsLostException);
+        Assertions.assertEquals(0, subscribeEngine.getStatistics().getActiveKeys());
+
+        //Клиент подписался заново, повтор уже полученного события не раздается
+        TestEmitter resubscribed = new TestEmitter();
+        subscribeEngine.subscribe(NODE_RUNTIME_ID, 1, new byte[]{ 1 }, resubscribed);
+        subscribeEngine.pushEvents(batch(channelId, item(4, "d"), item(5, "e")));
+
+        GraphQLSubscribeStatistics statistics = subscribeEngine.getStatistics();
+        Assertions.assertEquals(2, statistics.getLostEvents());
+        Assertions.assertEquals(1, statistics.getDuplicateEvents());
+        Assertions.assertEquals(List.of(Optional.of("e")), resubscribed.values);
+
+        //Компонент перезапустился - нумерация нового канала начинается заново, это не повтор и не пропуск
+        subscribeEngine.pushEvents(batch(UUID.randomUUID(), item(1, "f")));
+        statistics = subscribeEngine.getStatistics();
+        Assertions.assertEquals(2, statistics.getLostEvents());
+        Assertions.assertEquals(1, statistics.getDuplicateEvents());
+        Assertions.assertEquals(List.of(Optional.of("e"), Optional.of("f")), resubscribed.values);
+        Assertions.assertNull(resubscribed.error);
+    }
+
+    @Test
+    public void pushEventsGapOtherComponent() {
+        GraphQLSubscribeEngineImpl subscribeEngine = new GraphQLSubscribeEngineImpl();
+        TestEmitter emitter = new TestEmitter();
+        subscribeEngine.subscribe(NODE_RUNTIME_ID, 2, new byte[]{ 1 }, emitter);
+
+        //Пропуск в канале компонента 1 не затрагивает подписчиков компонента 2
+        subscribeEngine.pushEvents(batch(UUID.randomUUID(), item(3, "c")));
+        Assertions.assertNull(emitter.error);
+        Assertions.assertEquals(1, subscribeEngine.getStatistics().getActiveKeys());
+    }
+
+    @Test
+    public void pushEventsChannelsIndependent() {
+        GraphQLSubscribeEngineImpl subscribeEngine = new GraphQLSubscribeEngineImpl();
+
+        subscribeEngine.pushEvents(batch(UUID.randomUUID(), item(1, "a")));
+        //Другой компонент - своя нумерация
+        subscribeEngine.pushEvents(new SubscribeEventBatch(NODE_RUNTIME_ID, 2, UUID.randomUUID(), new ArrayList<>(List.of(
+                new SubscribeEventItem(1, new SubscribeKey(NODE_RUNTIME_ID, 2, new byte[]{ 1 }), Optional.of("b"), System.currentTimeMillis())
+        ))));
+
+        GraphQLSubscribeStatistics statistics = subscribeEngine.getStatistics();
+        Assertions.assertEquals(0, statistics.getLostEvents());
+        Assertions.assertEquals(0, statistics.getDuplicateEvents());
+        Assertions.assertEquals(2, statistics.getPushedEvents());
+    }
+
+    @Test
+    public void resume() {
+        GraphQLSubscribeEngineImpl subscribeEngine = new GraphQLSubscribeEngineImpl(false, null, 10, Duration.ofMinutes(1));
+        SubscribeCursor cursor = new SubscribeCursor();
+        TestEmitter emitter1 = new TestEmitter();
+        subscribeEngine.subscribe(NODE_RUNTIME_ID, 1, new byte[]{ 1 }, emitter1, cursor);
+
+        subscribeEngine.pushEvent(key(1), Optional.of("a"));
+        Assertions.assertEquals(1, cursor.getOffset());
+
+        //Клиент отключился, событие "b" пропущено
+        emitter1.cancel();
+        subscribeEngine.pushEvent(key(1), Optional.of("b"));
+        Assertions.assertTrue(subscribeEngine.isResumable(cursor));
+
+        TestEmitter emitter2 = new TestEmitter();
+        Assertions.assertTrue(subscribeEngine.resume(cursor, emitter2));
+        Assertions.assertEquals(List.of(Optional.of("b")), emitter2.values);
+        Assertions.assertEquals(2, cursor.getOffset());
+
+        //Далее подписчик получает новые события
+        subscribeEngine.pushEvent(key(1), Optional.of("c"));
+        Assertions.assertEquals(List.of(Optional.of("b"), Optional.of("c")), emitter2.values);
+        Assertions.assertEquals(3, cursor.getOffset());
+
+        GraphQLSubscribeStatistics statistics = subscribeEngine.getStatistics();
+        Assertions.assertEquals(1, statistics.getResumedSubscribers());
+        Assertions.assertEquals(1, statistics.getReplayedEvents());
+    }
+
+    @Test
+    public void replayBufferExpiresWithoutSweepInterval() throws InterruptedException {
+        //Период очистки не задан - буферы очищаются с периодом retention
+        GraphQLSubscribeEngineImpl subscribeEngine = new GraphQLSubscribeEngineImpl(false, null, 10, Duration.ofMillis(50));
+        try {
+            TestEmitter emitter = new TestEmitter();
+            subscribeEngine.subscribe(NODE_RUNTIME_ID, 1, new byte[]{ 1 }, emitter, new SubscribeCursor());
+            subscribeEngine.pushEvent(key(1), Optional.of("a"));
+            emitter.cancel();
+            Assertions.assertEquals(1, subscribeEngine.getStatistics().getReplayBuffers());
+
+            long deadline = System.currentTimeMillis() + 5000;
+            while (subscribeEngine.getStatistics().getReplayBuffers() > 0 && System.currentTimeMillis() < deadline) {
+                Thread.sleep(10);
+            }
+            Assertions.assertEquals(0, subscribeEngine.getStatistics().getReplayBuffers());
+        } finally {
+            subscribeEngine.close();
+        }
+    }
+
+    @Test
+    public void resumeKeepsOrderWithConcurrentEvents() {
+        GraphQLSubscribeEngineImpl subscribeEngine = new GraphQLSubscribeEngineImpl(false, null, 10, Duration.ofMinutes(1));
+        SubscribeCursor cursor = new SubscribeCursor();
+        TestEmitter emitter1 = new TestEmitter();
+        subscribeEngine.subscribe(NODE_RUNTIME_ID, 1, new byte[]{ 1 }, emitter1, cursor);
+        emitter1.cancel();
+        subscribeEngine.pushEvent(key(1), Optional.of("a"));
+
+        //Событие приходит, пока подписчик получает пропущенные
+        TestEmitter emitter2 = new TestEmitter() {
+            @Override
+            public void onNext(Object value) {
+                super.onNext(value);
+                if (value.equals(Optional.of("a"))) {
+                    subscribeEngine.pushEvent(key(1), Optional.of("b"));
+                }
+            }
+        };
+        Assertions.assertTrue(subscribeEngine.resume(cursor, emitter2));
+
+        Assertions.assertEquals(List.of(Optional.of("a"), Optional.of("b")), emitter2.values);
+        Assertions.assertEquals(2, cursor.getOffset());
+
+        subscribeEngine.pushEvent(key(1), Optional.of("c"));
+        Assertions.assertEquals(List.of(Optional.of("a"), Optional.of("b"), Optional.of("c")), emitter2.values);
+    }
+
+    @Test
+    public void resumeExpired() {
+        GraphQLSubscribeEngineImpl subscribeEngine = new GraphQLSubscribeEngineImpl(false, null, 1, Duration.ofMinutes(1));
+        SubscribeCursor cursor = new SubscribeCursor();
+        TestEmitter emitter1 = new TestEmitter();
+        subscribeEngine.subscribe(NODE_RUNTIME_ID, 1, new byte[]{ 1 }, emitter1, cursor);
+        emitter1.cancel();
+
+        //Пропущенное событие вытеснено из буфера
+        subscribeEngine.pushEvent(key(1), Optional.of("a"));
+        subscribeEngine.pushEvent(key(1), Optional.of("b"));
+
+        Assertions.assertFalse(subscribeEngine.isResumable(cursor));
+        Assertions.assertFalse(subscribeEngine.resume(cursor, new TestEmitter()));
+        Assertions.assertEquals(0, subscribeEngine.getStatistics().getActiveKeys());
+    }
+
+    private static SubscribeEventBatch batch(UUID channelId, SubscribeEventItem... items) {
+        return new SubscribeEventBatch(NODE_RUNTIME_ID, 1, channelId, new ArrayList<>(List.of(items)));
+    }
+
+    private static SubscribeEventItem item(long sequence, String value) {
+        return new SubscribeEventItem(sequence, key(1), Optional.of(value), System.currentTimeMillis());
+    }
+
+    @Test
+    public void eventListeners() {
+        GraphQLSubscribeEngineImpl subscribeEngine = new GraphQLSubscribeEngineImpl();
+        AtomicInteger owner = new AtomicInteger();
+        subscribeEngine.addEventListener(key(1), owner, AtomicInteger::incrementAndGet);
+
+        //Слушатель вызывается и без подписчиков, только по своему ключу
+        subscribeEngine.pushEvent(key(1), Optional.empty());
+        subscribeEngine.pushEvent(key(2), Optional.empty());
+        Assertions.assertEquals(1, owner.get());
+
+        subscribeEngine.removeEventListener(key(1), owner);
+        Assertions.assertEquals(0, subscribeEngine.getEventListenerCount(key(1)));
+        subscribeEngine.pushEvent(key(1), Optional.empty());
+        Assertions.assertEquals(1, owner.get());
+    }
+
+    static SubscribeKey key(int key) {
+        return new SubscribeKey(NODE_RUNTIME_ID, 1, new byte[]{ (byte) key });
+    }
+
+    /**
+     * Подписчик без rx-цепочки: запоминает события, отключение управляется тестом
+     */
+    static class TestEmitter implements ObservableEmitter<Object> {
+
+        final List<Object> values = new ArrayList<>();
+        volatile boolean disposed;
+        volatile Throwable error;
+        private Cancellable cancellable;
+
+        @Override
+        public void onNext(Object value) {
+            values.add(value);
+        }
+
+        @Override
+        public void onError(Throwable error) {
+            //Как и rx-подписчик: после ошибки подписка завершена
+            this.error = error;
+            cancel();
+        }
+
+        @Override
+        public void onComplete() {
+        }
+
+        @Override
+        public void setDisposable(Disposable disposable) {
+        }
+
+        @Override
+        public void setCancellable(Cancellable cancellable) {
+            this.cancellable = cancellable;
+        }
+
+        @Override
+        public boolean isDisposed() {
+            return disposed;
+        }
+
+        @Override
+        public ObservableEmitter<Object> serialize() {
+            return this;
+        }
+
+        @Override
+        public boolean tryOnError(Throwable error) {
+            onError(error);
+            return true;
+        }
+
+        void cancel() {
+            disposed = true;
+            try {
+                cancellable.cancel();
+            } catch (Exception e) {
+                throw new RuntimeException(e);
+            }
+        }
+    }
+}
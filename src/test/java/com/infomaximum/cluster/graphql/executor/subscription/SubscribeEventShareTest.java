@@ -0,0 +1,107 @@
+package com.infomaximum.cluster.graphql.executor.subscription;
+
+import com.infomaximum.cluster.core.remote.struct.RemoteObject;
+import com.infomaximum.cluster.graphql.struct.GRequest;
+import com.infomaximum.cluster.graphql.struct.subscribe.SubscribeKey;
+import io.reactivex.Observable;
+import io.reactivex.ObservableOnSubscribe;
+import io.reactivex.disposables.Disposable;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.io.Serializable;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class SubscribeEventShareTest {
+
+    private static final UUID NODE_RUNTIME_ID = UUID.randomUUID();
+    private static final byte[] SUBSCRIBE_KEY = new byte[]{ 1 };
+
+    public static class Event implements RemoteObject {
+    }
+
+    @Test
+    public void identicalSubscribersShareExecution() {
+        GraphQLSubscribeEngineImpl subscribeEngine = new GraphQLSubscribeEngineImpl(true);
+        AtomicInteger executions = new AtomicInteger();
+        List<Object> results = new ArrayList<>();
+
+        List<Disposable> subscribers = new ArrayList<>();
+        for (int i = 0; i < 2; i++) {
+            subscribers.add(subscribe(subscribeEngine, value -> {
+                //Поле, которое каждый подписчик вычисляет по событию - вызов компонента
+                SubscribeEventShare eventShare = subscribeEngine.getEventShare(value);
+                Assertions.assertNotNull(eventShare);
+                results.add(eventShare.execute(key("{ value }"), executions::incrementAndGet));
+            }));
+        }
+
+        subscribeEngine.pushEvent(new SubscribeKey(NODE_RUNTIME_ID, 1, SUBSCRIBE_KEY), Optional.of(new Event()));
+
+        Assertions.assertEquals(1, executions.get());
+        Assertions.assertEquals(List.of(1, 1), results);
+
+        //Событие раздано - источник больше не разделяется
+        Assertions.assertEquals(2, subscribeEngine.getStatistics().getDeliveredEvents());
+        subscribers.forEach(Disposable::dispose);
+    }
+
+    @Test
+    public void differentQueriesExecuteSeparately() {
+        GraphQLSubscribeEngineImpl subscribeEngine = new GraphQLSubscribeEngineImpl(true);
+        AtomicInteger executions = new AtomicInteger();
+
+        for (String query : new String[]{ "{ value }", "{ other }" }) {
+            subscribe(subscribeEngine, value -> subscribeEngine.getEventShare(value).execute(key(query), executions::incrementAndGet));
+        }
+        Event event = new Event();
+        subscribeEngine.pushEvent(new SubscribeKey(NODE_RUNTIME_ID, 1, SUBSCRIBE_KEY), Optional.of(event));
+
+        Assertions.assertEquals(2, executions.get());
+        Assertions.assertNull(subscribeEngine.getEventShare(event));
+    }
+
+    @Test
+    public void withoutShareExecution() {
+        GraphQLSubscribeEngineImpl subscribeEngine = new GraphQLSubscribeEngineImpl(false);
+        AtomicInteger shared = new AtomicInteger();
+
+        for (int i = 0; i < 2; i++) {
+            subscribe(subscribeEngine, value -> {
+                if (subscribeEngine.getEventShare(value) != null) {
+                    shared.incrementAndGet();
+                }
+            });
+        }
+        subscribeEngine.pushEvent(new SubscribeKey(NODE_RUNTIME_ID, 1, SUBSCRIBE_KEY), Optional.of(new Event()));
+
+        Assertions.assertEquals(0, shared.get());
+    }
+
+    @FunctionalInterface
+    private interface Subscriber {
+        void onEvent(Object value) throws Throwable;
+    }
+
+    private static Disposable subscribe(GraphQLSubscribeEngineImpl subscribeEngine, Subscriber subscriber) {
+        ObservableOnSubscribe<Object> observableOnSubscribe = emitter -> subscribeEngine.subscribe(NODE_RUNTIME_ID, 1, SUBSCRIBE_KEY, emitter);
+        return Observable.create(observableOnSubscribe).subscribe(value -> {
+            try {
+                subscriber.onEvent(((Optional<?>) value).get());
+            } catch (Throwable t) {
+                throw new AssertionError(t);
+            }
+        });
+    }
+
+    private static SubscribeEventShare.Key key(String query) {
+        GRequest request = new GRequest(Instant.now(), new GRequest.RemoteAddress("127.0.0.1"), query, new HashMap<>(), null, null);
+        return new SubscribeEventShare.Key("GQuery", "value", "/value", new HashMap<String, Serializable>(), request);
+    }
+}
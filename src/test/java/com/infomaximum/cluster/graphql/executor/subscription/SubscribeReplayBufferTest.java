@@ -0,0 +1,57 @@
+package com.infomaximum.cluster.graphql.executor.subscription;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.io.Serializable;
+import java.util.List;
+import java.util.Optional;
+
+public class SubscribeReplayBufferTest {
+
+    @Test
+    public void replaySince() {
+        SubscribeReplayBuffer buffer = new SubscribeReplayBuffer(3, 60_000);
+        Assertions.assertEquals(0, buffer.getLastOffset());
+        Assertions.assertEquals(0, buffer.since(0, 0).size());
+
+        Assertions.assertEquals(1, buffer.append(Optional.of("a"), 0));
+        Assertions.assertEquals(2, buffer.append(Optional.of("b"), 0));
+
+        List<Optional<? extends Serializable>> events = buffer.since(0, 0);
+        Assertions.assertEquals(2, events.size());
+        Assertions.assertEquals(Optional.of("a"), events.get(0));
+        Assertions.assertEquals(Optional.of("b"), events.get(1));
+
+        Assertions.assertEquals(0, buffer.since(2, 0).size());
+        Assertions.assertNull(buffer.since(3, 0));
+    }
+
+    @Test
+    public void overflow() {
+        SubscribeReplayBuffer buffer = new SubscribeReplayBuffer(2, 60_000);
+        buffer.append(Optional.of("a"), 0);
+        buffer.append(Optional.of("b"), 0);
+        buffer.append(Optional.empty(), 0);
+
+        //Событие 1 вытеснено - дочитать с начала нельзя
+        Assertions.assertNull(buffer.since(0, 0));
+
+        List<Optional<? extends Serializable>> events = buffer.since(1, 0);
+        Assertions.assertEquals(2, events.size());
+        Assertions.assertEquals(Optional.of("b"), events.get(0));
+        Assertions.assertEquals(Optional.empty(), events.get(1));
+    }
+
+    @Test
+    public void retention() {
+        SubscribeReplayBuffer buffer = new SubscribeReplayBuffer(10, 100);
+        buffer.append(Optional.of("a"), 0);
+        buffer.append(Optional.of("b"), 50);
+
+        Assertions.assertEquals(1, buffer.since(1, 120).size());
+        Assertions.assertNull(buffer.since(0, 120));
+        Assertions.assertFalse(buffer.isExpired(150));
+        Assertions.assertTrue(buffer.isExpired(300));
+    }
+}
@@ -0,0 +1,57 @@
+package com.infomaximum.cluster.graphql.schema.build;
+
+import com.infomaximum.cluster.graphql.schema.struct.out.RGraphQLObjectTypeField;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+
+public class MergeGraphQLTypeOutObjectTest {
+
+    private static final UUID LOCAL_NODE_RUNTIME_ID = UUID.randomUUID();
+    private static final UUID REMOTE_NODE_RUNTIME_ID = UUID.randomUUID();
+
+    @Test
+    public void methodReplicas() {
+        RGraphQLObjectTypeField localField = field(LOCAL_NODE_RUNTIME_ID, false, false);
+        RGraphQLObjectTypeField remoteField = field(REMOTE_NODE_RUNTIME_ID, false, false);
+
+        MergeGraphQLTypeOutObject typeOutObject = merge(localField, remoteField);
+        Assertions.assertSame(localField, typeOutObject.getFieldByExternalName("value"));
+        Assertions.assertEquals(List.of(localField, remoteField), typeOutObject.getReplicas("value"));
+    }
+
+    @Test
+    public void prepareFieldStaysLocal() {
+        RGraphQLObjectTypeField localField = field(LOCAL_NODE_RUNTIME_ID, false, true);
+        RGraphQLObjectTypeField remoteField = field(REMOTE_NODE_RUNTIME_ID, false, true);
+
+        MergeGraphQLTypeOutObject typeOutObject = merge(localField, remoteField);
+        Assertions.assertSame(localField, typeOutObject.getFieldByExternalName("value"));
+        Assertions.assertNull(typeOutObject.getReplicas("value"));
+    }
+
+    @Test
+    public void objectFieldStaysLocal() {
+        RGraphQLObjectTypeField localField = field(LOCAL_NODE_RUNTIME_ID, true, false);
+        RGraphQLObjectTypeField remoteField = field(REMOTE_NODE_RUNTIME_ID, true, false);
+
+        MergeGraphQLTypeOutObject typeOutObject = merge(localField, remoteField);
+        Assertions.assertSame(localField, typeOutObject.getFieldByExternalName("value"));
+        Assertions.assertNull(typeOutObject.getReplicas("value"));
+    }
+
+    private static MergeGraphQLTypeOutObject merge(RGraphQLObjectTypeField... fields) {
+        MergeGraphQLTypeOutObject typeOutObject = new MergeGraphQLTypeOutObject("query", null);
+        for (RGraphQLObjectTypeField field : fields) {
+            typeOutObject.mergeReplicaFields(Set.of(field));
+        }
+        return typeOutObject;
+    }
+
+    private static RGraphQLObjectTypeField field(UUID nodeRuntimeId, boolean isField, boolean isPrepare) {
+        return new RGraphQLObjectTypeField(nodeRuntimeId, 1, isField, isPrepare, "Int", "getValue", "value", null, null, null);
+    }
+}
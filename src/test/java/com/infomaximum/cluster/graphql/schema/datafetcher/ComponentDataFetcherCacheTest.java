@@ -0,0 +1,73 @@
+package com.infomaximum.cluster.graphql.schema.datafetcher;
+
+import com.infomaximum.cluster.graphql.executor.subscription.GraphQLSubscribeEngineImpl;
+import com.infomaximum.cluster.graphql.struct.subscribe.SubscribeKey;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.io.Serializable;
+import java.util.HashMap;
+import java.util.Optional;
+import java.util.UUID;
+
+public class ComponentDataFetcherCacheTest {
+
+    @Test
+    public void ttl() {
+        ComponentDataFetcherCache cache = new ComponentDataFetcherCache(100, 10);
+        ComponentDataFetcherCache.Key key = key(1);
+
+        cache.put(key, "value", cache.getGeneration(), 0);
+        Assertions.assertEquals("value", cache.get(key(1), 100));
+        Assertions.assertNull(cache.get(key(2), 100));
+        Assertions.assertNull(cache.get(key(1), 101));
+    }
+
+    @Test
+    public void maxEntries() {
+        ComponentDataFetcherCache cache = new ComponentDataFetcherCache(1000, 2);
+        cache.put(key(1), "1", cache.getGeneration(), 0);
+        cache.put(key(2), "2", cache.getGeneration(), 0);
+        Assertions.assertEquals("1", cache.get(key(1), 0));
+
+        //Вытесняется давно не использованное значение
+        cache.put(key(3), "3", cache.getGeneration(), 0);
+        Assertions.assertEquals("1", cache.get(key(1), 0));
+        Assertions.assertNull(cache.get(key(2), 0));
+        Assertions.assertEquals("3", cache.get(key(3), 0));
+    }
+
+    @Test
+    public void invalidate() {
+        ComponentDataFetcherCache cache = new ComponentDataFetcherCache(1000, 10);
+        cache.put(key(1), "1", cache.getGeneration(), 0);
+
+        long generation = cache.getGeneration();
+        cache.invalidate();
+        Assertions.assertNull(cache.get(key(1), 0));
+
+        //Значение вычислено до сброса - не сохраняем
+        cache.put(key(1), "1", generation, 0);
+        Assertions.assertNull(cache.get(key(1), 0));
+    }
+
+    @Test
+    public void invalidateOnEvent() {
+        GraphQLSubscribeEngineImpl subscribeEngine = new GraphQLSubscribeEngineImpl();
+        SubscribeKey subscribeKey = new SubscribeKey(UUID.randomUUID(), 1, new byte[]{ 1 });
+        ComponentDataFetcherCache cache = new ComponentDataFetcherCache(1000, 10);
+        subscribeEngine.addEventListener(subscribeKey, cache, ComponentDataFetcherCache::invalidate);
+
+        cache.put(key(1), "1", cache.getGeneration(), 0);
+        Assertions.assertEquals("1", cache.get(key(1), 0));
+
+        subscribeEngine.pushEvent(subscribeKey, Optional.empty());
+        Assertions.assertNull(cache.get(key(1), 0));
+    }
+
+    private static ComponentDataFetcherCache.Key key(int value) {
+        HashMap<String, Serializable> arguments = new HashMap<>();
+        arguments.put("id", value);
+        return new ComponentDataFetcherCache.Key(null, arguments);
+    }
+}
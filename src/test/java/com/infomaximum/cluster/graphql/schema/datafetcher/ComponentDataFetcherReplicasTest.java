@@ -0,0 +1,57 @@
+package com.infomaximum.cluster.graphql.schema.datafetcher;
+
+import com.infomaximum.cluster.graphql.schema.struct.out.RGraphQLObjectTypeField;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.UUID;
+
+public class ComponentDataFetcherReplicasTest {
+
+    @Test
+    public void local() {
+        UUID localNodeRuntimeId = UUID.randomUUID();
+        ComponentDataFetcherReplicas replicas = new ComponentDataFetcherReplicas(List.of(
+                field(UUID.randomUUID(), 1), field(localNodeRuntimeId, 2), field(UUID.randomUUID(), 3)
+        ));
+
+        for (int i = 0; i < 10; i++) {
+            Assertions.assertEquals(localNodeRuntimeId, replicas.select(localNodeRuntimeId, null).nodeRuntimeId);
+        }
+    }
+
+    @Test
+    public void leastInFlight() {
+        ComponentDataFetcherReplicas replicas = new ComponentDataFetcherReplicas(List.of(
+                field(UUID.randomUUID(), 1), field(UUID.randomUUID(), 2)
+        ));
+        ComponentDataFetcherReplicas.Replica busy = replicas.getReplicas().get(0);
+        busy.begin();
+
+        for (int i = 0; i < 10; i++) {
+            Assertions.assertEquals(2, replicas.select(UUID.randomUUID(), null).componentId);
+        }
+
+        busy.end();
+        replicas.getReplicas().get(1).begin();
+        Assertions.assertEquals(1, replicas.select(UUID.randomUUID(), null).componentId);
+    }
+
+    @Test
+    public void exclude() {
+        ComponentDataFetcherReplicas replicas = new ComponentDataFetcherReplicas(List.of(
+                field(UUID.randomUUID(), 1), field(UUID.randomUUID(), 2)
+        ));
+        ComponentDataFetcherReplicas.Replica failed = replicas.getReplicas().get(1);
+
+        Assertions.assertEquals(1, replicas.select(UUID.randomUUID(), failed).componentId);
+
+        ComponentDataFetcherReplicas single = new ComponentDataFetcherReplicas(List.of(field(UUID.randomUUID(), 1)));
+        Assertions.assertNull(single.select(UUID.randomUUID(), single.getReplicas().get(0)));
+    }
+
+    private static RGraphQLObjectTypeField field(UUID nodeRuntimeId, int componentId) {
+        return new RGraphQLObjectTypeField(nodeRuntimeId, componentId, false, false, "String", "value", "value", null, null, null);
+    }
+}
@@ -0,0 +1,68 @@
+package com.infomaximum.cluster.graphql.struct;
+
+import com.infomaximum.BaseTest;
+import com.infomaximum.cluster.graphql.exception.GraphQLExecutorCancelledException;
+import com.infomaximum.cluster.graphql.exception.GraphQLExecutorDeadlineExceededException;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.HashMap;
+
+public class ContextRequestTest {
+
+    @Test
+    public void deadline() {
+        ContextRequest unlimited = context(null);
+        Assertions.assertNull(unlimited.getDeadline());
+        Assertions.assertFalse(unlimited.isDeadlineExceeded());
+        unlimited.checkDeadline();
+
+        ContextRequest active = context(Instant.now().plus(Duration.ofMinutes(1)));
+        Assertions.assertFalse(active.isDeadlineExceeded());
+        active.checkDeadline();
+
+        Instant deadline = Instant.now().minusMillis(1);
+        ContextRequest expired = context(deadline);
+        Assertions.assertTrue(expired.isDeadlineExceeded());
+        GraphQLExecutorDeadlineExceededException e = Assertions.assertThrows(GraphQLExecutorDeadlineExceededException.class, expired::checkDeadline);
+        Assertions.assertEquals(deadline, e.getDeadline());
+        Assertions.assertEquals(GraphQLExecutorDeadlineExceededException.CODE, e.getExtensions().get("code"));
+    }
+
+    @Test
+    public void cancellation() {
+        Assertions.assertFalse(context(null).isCancelled());
+
+        GCancellationToken cancellationToken = new GCancellationToken();
+        ContextRequest context = new ContextRequest() {
+            @Override
+            public GRequest getRequest() {
+                return null;
+            }
+
+            @Override
+            public GCancellationToken getCancellationToken() {
+                return cancellationToken;
+            }
+        };
+        Assertions.assertFalse(context.isCancelled());
+        context.checkCancelled();
+
+        cancellationToken.cancel();
+        Assertions.assertTrue(context.isCancelled());
+        Assertions.assertThrows(GraphQLExecutorCancelledException.class, context::checkCancelled);
+        Assertions.assertNull(context.getDeadline());
+    }
+
+    private static ContextRequest context(Instant deadline) {
+        return new BaseTest.TestContextRequest(new GRequest(
+                Instant.now(),
+                new GRequest.RemoteAddress("127.0.0.1"),
+                "{}", new HashMap<>(), null,
+                null,
+                deadline
+        ));
+    }
+}
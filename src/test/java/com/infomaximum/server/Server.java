@@ -8,12 +8,18 @@ import com.infomaximum.server.components.component1.Component1;
 import com.infomaximum.server.components.frontend.FrontendComponent;
 import com.infomaximum.server.sdk.GraphQLQueryCustomField;
 
+import java.util.function.Consumer;
+
 public class Server implements AutoCloseable  {
 
     private final Cluster cluster;
     private final GraphQLEngine graphQLEngine;
 
     public Server() throws ClusterException {
+        this(builder -> {});
+    }
+
+    public Server(Consumer<GraphQLEngine.Builder> configure) throws ClusterException {
         INSTANCE = this;
 
         Thread.UncaughtExceptionHandler uncaughtExceptionHandler = new Thread.UncaughtExceptionHandler() {
@@ -23,7 +29,7 @@ public class Server implements AutoCloseable  {
             }
         };
 
-        graphQLEngine = new GraphQLEngine.Builder()
+        GraphQLEngine.Builder graphQLEngineBuilder = new GraphQLEngine.Builder()
 //                .withQueryPoolExecutor(new QueryPoolExecutor() {
 //                    @Override
 //                    public Object execute(Component component, GRequest request, RemoteObject source, com.infomaximum.cluster.querypool.GraphQLQuery query) {
@@ -49,8 +55,9 @@ public class Server implements AutoCloseable  {
 //                        }
 //                    }
 //                })
-                .withPrepareCustomField(new GraphQLQueryCustomField())
-                .build();
+                .withPrepareCustomField(new GraphQLQueryCustomField());
+        configure.accept(graphQLEngineBuilder);
+        graphQLEngine = graphQLEngineBuilder.build();
 
         cluster = new Cluster.Builder(uncaughtExceptionHandler)
                 .withComponent(
@@ -74,6 +81,7 @@ public class Server implements AutoCloseable  {
     @Override
     public void close() {
         cluster.close();
+        graphQLEngine.close();
 
         INSTANCE = null;
     }
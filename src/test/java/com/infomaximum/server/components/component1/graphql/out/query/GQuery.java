@@ -1,14 +1,22 @@
 package com.infomaximum.server.components.component1.graphql.out.query;
 
+import com.infomaximum.cluster.graphql.anotation.GraphQLCache;
 import com.infomaximum.cluster.graphql.anotation.GraphQLField;
 import com.infomaximum.cluster.graphql.anotation.GraphQLName;
 import com.infomaximum.cluster.graphql.anotation.GraphQLTypeOutObject;
+import com.infomaximum.cluster.graphql.struct.GConnection;
 import com.infomaximum.cluster.graphql.struct.GOptional;
+import com.infomaximum.cluster.graphql.struct.GPage;
+import com.infomaximum.cluster.graphql.struct.GRequest;
+import com.infomaximum.cluster.graphql.struct.GSelectionSet;
 import com.infomaximum.server.components.component1.graphql.out.input.GInputObject1;
 import com.infomaximum.server.components.component1.graphql.out.input.GInputObject2;
 import com.infomaximum.server.components.component1.graphql.out.input.GInputObjectWithException;
 import org.checkerframework.checker.nullness.qual.NonNull;
 
+import java.util.ArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+
 /**
  * Created by kris on 30.12.16.
  */
@@ -16,11 +24,48 @@ import org.checkerframework.checker.nullness.qual.NonNull;
 @GraphQLTypeOutObject("query")
 public class GQuery {
 
+    public static final int NUMBERS_SIZE = 1500;
+
+    //Запрос, с которым последний раз вызывалось поле request_trace_id - по нему видно, был ли вызов удаленным
+    public static volatile GRequest lastRequest;
+
+    //Число вызовов поля cached_selection - по нему видно, было ли значение взято из кеша
+    public static final AtomicInteger cachedSelectionCalls = new AtomicInteger();
+
     @GraphQLField
     public static int getValue() {
         return 0;
     }
 
+    @GraphQLField
+    public static String getRequestTraceId(GRequest request) {
+        lastRequest = request;
+        return request.getXTraceId();
+    }
+
+    @GraphQLField
+    public static GSelection getSelection(GSelectionSet selectionSet) {
+        return new GSelection(selectionSet);
+    }
+
+    @GraphQLField
+    @GraphQLCache(byArguments = false)
+    public static GSelection getCachedSelection(GSelectionSet selectionSet) {
+        cachedSelectionCalls.incrementAndGet();
+        return new GSelection(selectionSet);
+    }
+
+    @GraphQLField
+    public static GConnection<Integer> getNumbers(GPage page) {
+        int from = (page.getAfter() == null) ? 0 : Integer.parseInt(page.getAfter()) + 1;
+        int to = Math.min(from + page.getFirst(), NUMBERS_SIZE);
+        ArrayList<Integer> items = new ArrayList<>();
+        for (int i = from; i < to; i++) {
+            items.add(i);
+        }
+        return new GConnection<>(items, items.isEmpty() ? page.getAfter() : String.valueOf(to - 1), to < NUMBERS_SIZE);
+    }
+
     @GraphQLField
     public static Class<GQueryLevel2> getLevel2() {
         return GQueryLevel2.class;
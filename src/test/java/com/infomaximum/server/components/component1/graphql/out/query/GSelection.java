@@ -0,0 +1,50 @@
+package com.infomaximum.server.components.component1.graphql.out.query;
+
+import com.infomaximum.cluster.core.remote.struct.RemoteObject;
+import com.infomaximum.cluster.graphql.anotation.GraphQLField;
+import com.infomaximum.cluster.graphql.anotation.GraphQLTypeOutObject;
+import com.infomaximum.cluster.graphql.struct.GSelectionSet;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Объект, который знает, какие его поля запросил клиент
+ */
+@GraphQLTypeOutObject("selection")
+public class GSelection implements RemoteObject {
+
+    private final GSelectionSet selectionSet;
+
+    public GSelection(GSelectionSet selectionSet) {
+        this.selectionSet = selectionSet;
+    }
+
+    @GraphQLField
+    public String getFields() {
+        return toString(selectionSet);
+    }
+
+    @GraphQLField
+    public GSelection getChild() {
+        return new GSelection(selectionSet.get("child"));
+    }
+
+    private static String toString(GSelectionSet selectionSet) {
+        if (selectionSet == null) return null;
+        List<String> fieldNames = new ArrayList<>(selectionSet.getFieldNames());
+        Collections.sort(fieldNames);
+
+        StringBuilder builder = new StringBuilder();
+        for (String fieldName : fieldNames) {
+            if (builder.length() > 0) builder.append(',');
+            builder.append(fieldName);
+            GSelectionSet child = selectionSet.get(fieldName);
+            if (child != null) {
+                builder.append('{').append(toString(child)).append('}');
+            }
+        }
+        return builder.toString();
+    }
+}
@@ -0,0 +1,102 @@
+package com.infomaximum.test;
+
+import com.infomaximum.BaseTest;
+import com.infomaximum.cluster.graphql.executor.GraphQLExecutorPrepareImpl;
+import com.infomaximum.cluster.graphql.executor.struct.GExecutionResult;
+import com.infomaximum.cluster.graphql.struct.ContextRequest;
+import com.infomaximum.server.components.frontend.FrontendComponent;
+import graphql.ExecutionInput;
+import graphql.GraphQLError;
+import graphql.InvalidSyntaxError;
+import graphql.execution.ExecutionId;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class BatchPrepareTest extends BaseTest {
+
+    private static final String DUPLICATE_KEY_MESSAGE = "дублирующие идентификаторы";
+
+    @Test
+    public void errorsPerRequest() {
+        FrontendComponent frontendComponent = getServer().getCluster().getAnyLocalComponent(FrontendComponent.class);
+        GraphQLExecutorPrepareImpl graphQLExecutor = (GraphQLExecutorPrepareImpl) frontendComponent.getGraphQLExecutor();
+
+        //Первые два запроса с одним GRequest - prepare второго завершается ошибкой (дублирующий идентификатор поля)
+        ContextRequest sharedContext = new TestContextRequest(buildRequest());
+        ContextRequest context = new TestContextRequest(buildRequest());
+        List<ExecutionInput> executionInputs = List.of(
+                input("{level2{query_value(k:1)}}", sharedContext),
+                input("{level2{query_value(k:1)}}", sharedContext),
+                input("{level2{value(k:5)}}", context),
+                input("{level2{", context)
+        );
+
+        AtomicInteger prepared = new AtomicInteger();
+        List<GExecutionResult> results = graphQLExecutor.execute(executionInputs, (field, value) -> {
+            if (value != null) prepared.incrementAndGet();
+        });
+        graphQLExecutor.requestCompleted(sharedContext);
+        graphQLExecutor.requestCompleted(context);
+
+        Assertions.assertEquals(4, results.size());
+
+        //Успешный prepare первого запроса не повторяется из-за ошибки второго
+        Assertions.assertEquals(1, prepared.get());
+        Assertions.assertFalse(hasError(results.get(0), DUPLICATE_KEY_MESSAGE));
+
+        Assertions.assertEquals(1, results.get(1).getErrors().size());
+        Assertions.assertTrue(hasError(results.get(1), DUPLICATE_KEY_MESSAGE));
+
+        Assertions.assertTrue(results.get(2).getErrors().isEmpty());
+        Assertions.assertEquals(6, ((Map) ((Map) results.get(2).getData()).get("level2")).get("value"));
+
+        Assertions.assertFalse(results.get(3).getErrors().isEmpty());
+        Assertions.assertInstanceOf(InvalidSyntaxError.class, results.get(3).getErrors().get(0));
+    }
+
+    @Test
+    public void manyRequests() {
+        FrontendComponent frontendComponent = getServer().getCluster().getAnyLocalComponent(FrontendComponent.class);
+        GraphQLExecutorPrepareImpl graphQLExecutor = (GraphQLExecutorPrepareImpl) frontendComponent.getGraphQLExecutor();
+
+        //Запросов больше, чем потоков пакета - часть выполняет вызывающий поток
+        int size = Runtime.getRuntime().availableProcessors() * 4;
+        ContextRequest context = new TestContextRequest(buildRequest());
+        ExecutionInput[] executionInputs = new ExecutionInput[size];
+        for (int i = 0; i < size; i++) {
+            executionInputs[i] = input("{level2{value(k:" + i + ")}}", context);
+        }
+
+        List<GExecutionResult> results = graphQLExecutor.execute(List.of(executionInputs), (field, value) -> {});
+        graphQLExecutor.requestCompleted(context);
+
+        Assertions.assertEquals(size, results.size());
+        for (int i = 0; i < size; i++) {
+            Assertions.assertTrue(results.get(i).getErrors().isEmpty());
+            Assertions.assertEquals(i + 1, ((Map) ((Map) results.get(i).getData()).get("level2")).get("value"));
+        }
+    }
+
+    private static boolean hasError(GExecutionResult executionResult, String message) {
+        for (GraphQLError error : executionResult.getErrors()) {
+            if (error.getMessage() != null && error.getMessage().contains(message)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static ExecutionInput input(String query, ContextRequest context) {
+        return ExecutionInput.newExecutionInput()
+                .query(query)
+                .executionId(ExecutionId.generate())
+                .context(context)
+                .variables(Collections.<String, Object>emptyMap())
+                .build();
+    }
+}
@@ -0,0 +1,60 @@
+package com.infomaximum.test;
+
+import com.infomaximum.BaseTest;
+import com.infomaximum.cluster.graphql.executor.struct.GExecutionResult;
+import com.infomaximum.cluster.graphql.struct.GPage;
+import com.infomaximum.server.components.component1.graphql.out.query.GQuery;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+
+public class ConnectionTest extends BaseTest {
+
+    @Test
+    public void defaultPage() {
+        Map numbers = execute("{numbers{items endCursor hasNextPage}}");
+
+        Assertions.assertEquals(GPage.DEFAULT_SIZE, ((List) numbers.get("items")).size());
+        Assertions.assertEquals(String.valueOf(GPage.DEFAULT_SIZE - 1), numbers.get("endCursor"));
+        Assertions.assertEquals(true, numbers.get("hasNextPage"));
+    }
+
+    @Test
+    public void nextPage() {
+        Map numbers = execute("{numbers(first: 2, after: \"9\"){items endCursor hasNextPage}}");
+
+        Assertions.assertEquals(List.of(10, 11), numbers.get("items"));
+        Assertions.assertEquals("11", numbers.get("endCursor"));
+        Assertions.assertEquals(true, numbers.get("hasNextPage"));
+    }
+
+    @Test
+    public void lastPage() {
+        Map numbers = execute("{numbers(first: 10, after: \"" + (GQuery.NUMBERS_SIZE - 3) + "\"){items hasNextPage}}");
+
+        Assertions.assertEquals(List.of(GQuery.NUMBERS_SIZE - 2, GQuery.NUMBERS_SIZE - 1), numbers.get("items"));
+        Assertions.assertEquals(false, numbers.get("hasNextPage"));
+    }
+
+    @Test
+    public void maxPageSize() {
+        Map numbers = execute("{numbers(first: 100000){items hasNextPage}}");
+
+        Assertions.assertEquals(GPage.MAX_SIZE, ((List) numbers.get("items")).size());
+        Assertions.assertEquals(true, numbers.get("hasNextPage"));
+    }
+
+    @Test
+    public void negativePageSize() {
+        GExecutionResult executionResult = grapqhlExecutor("{numbers(first: -1){items}}");
+        Assertions.assertFalse(executionResult.getErrors().isEmpty());
+    }
+
+    private static Map execute(String query) {
+        GExecutionResult executionResult = grapqhlExecutor(query);
+        Assertions.assertTrue(executionResult.getErrors().isEmpty());
+        return (Map) ((Map) executionResult.getData()).get("numbers");
+    }
+}
@@ -0,0 +1,39 @@
+package com.infomaximum.test;
+
+import com.infomaximum.BaseTest;
+import com.infomaximum.cluster.exception.ClusterException;
+import com.infomaximum.cluster.graphql.executor.struct.GExecutionResult;
+import com.infomaximum.cluster.graphql.struct.GRequest;
+import com.infomaximum.server.components.component1.graphql.out.query.GQuery;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import java.util.Map;
+
+public class ForceRemoteExecutionTest extends BaseTest {
+
+    @BeforeAll
+    public static void init() throws ClusterException {
+        initServer(builder -> builder.withForceRemoteExecution(true));
+    }
+
+    @Test
+    public void localComponentCalledRemotely() {
+        GRequest request = buildRequest();
+        GExecutionResult executionResult = grapqhlExecutor("{request_trace_id}", request);
+        Assertions.assertTrue(executionResult.getErrors().isEmpty());
+
+        Assertions.assertEquals(request.getXTraceId(), ((Map) executionResult.getData()).get("request_trace_id"));
+        //Вызов через удаленный контроллер - компонент получает копию запроса
+        Assertions.assertNotSame(request, GQuery.lastRequest);
+    }
+
+    @Test
+    public void level2() {
+        GExecutionResult executionResult = grapqhlExecutor("{level2{value(k:5)}}");
+        Assertions.assertTrue(executionResult.getErrors().isEmpty());
+
+        Assertions.assertEquals(6, ((Map) ((Map) executionResult.getData()).get("level2")).get("value"));
+    }
+}
@@ -0,0 +1,56 @@
+package com.infomaximum.test;
+
+import com.infomaximum.BaseTest;
+import com.infomaximum.cluster.exception.ClusterException;
+import com.infomaximum.cluster.graphql.executor.struct.GExecutionResult;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.Map;
+
+public class Level2PushdownRequestTest extends BaseTest {
+
+    @BeforeAll
+    public static void init() throws ClusterException {
+        //Поддерево вычисляется в компоненте только при удаленном вызове
+        initServer(builder -> builder
+                .withForceRemoteExecution(true)
+                .withSubtreePushdown(true)
+        );
+    }
+
+    @Test
+    public void test() {
+        GExecutionResult executionResult = grapqhlExecutor("{level2{value(k:5) value_double(k:5.2) value_big_decimal(k:5.2) alias: value}}");
+        Assertions.assertTrue(executionResult.getErrors().isEmpty());
+
+        Map level2 = (Map) ((Map) executionResult.getData()).get("level2");
+        Assertions.assertEquals(6, level2.get("value"));
+        Assertions.assertEquals(6.2d, level2.get("value_double"));
+        Assertions.assertEquals(0, new BigDecimal("6.2").compareTo((BigDecimal) level2.get("value_big_decimal")));
+        Assertions.assertEquals(1, level2.get("alias"));
+    }
+
+    @Test
+    public void testFragments() {
+        GExecutionResult executionResult = grapqhlExecutor("{level2{...values value(k:5)}} fragment values on query_level2 {value_double(k:1.5)}");
+        Assertions.assertTrue(executionResult.getErrors().isEmpty());
+
+        Map level2 = (Map) ((Map) executionResult.getData()).get("level2");
+        Assertions.assertEquals(6, level2.get("value"));
+        Assertions.assertEquals(2.5d, level2.get("value_double"));
+    }
+
+    @Test
+    public void testQuery() {
+        //Поле с подготовкой в компоненте не вычисляется - поддерево вычисляется обычным способом
+        GExecutionResult executionResult = grapqhlExecutor("{level2{value(k:5) query_value(k:5)}}");
+        Assertions.assertTrue(executionResult.getErrors().isEmpty());
+
+        Map level2 = (Map) ((Map) executionResult.getData()).get("level2");
+        Assertions.assertEquals(6, level2.get("value"));
+        Assertions.assertEquals(6, level2.get("query_value"));
+    }
+}
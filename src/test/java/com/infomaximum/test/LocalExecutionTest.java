@@ -0,0 +1,24 @@
+package com.infomaximum.test;
+
+import com.infomaximum.BaseTest;
+import com.infomaximum.cluster.graphql.executor.struct.GExecutionResult;
+import com.infomaximum.cluster.graphql.struct.GRequest;
+import com.infomaximum.server.components.component1.graphql.out.query.GQuery;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.Map;
+
+public class LocalExecutionTest extends BaseTest {
+
+    @Test
+    public void localComponentCalledDirectly() {
+        GRequest request = buildRequest();
+        GExecutionResult executionResult = grapqhlExecutor("{request_trace_id}", request);
+        Assertions.assertTrue(executionResult.getErrors().isEmpty());
+
+        Assertions.assertEquals(request.getXTraceId(), ((Map) executionResult.getData()).get("request_trace_id"));
+        //Компонент на той же ноде - запрос передается без упаковки
+        Assertions.assertSame(request, GQuery.lastRequest);
+    }
+}
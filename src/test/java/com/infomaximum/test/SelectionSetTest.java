@@ -0,0 +1,65 @@
+package com.infomaximum.test;
+
+import com.infomaximum.BaseTest;
+import com.infomaximum.cluster.graphql.executor.struct.GExecutionResult;
+import com.infomaximum.server.components.component1.graphql.out.query.GQuery;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.Map;
+
+public class SelectionSetTest extends BaseTest {
+
+    @Test
+    public void test() {
+        GExecutionResult executionResult = grapqhlExecutor("{selection{fields child{fields}}}");
+        Assertions.assertTrue(executionResult.getErrors().isEmpty());
+
+        Map selection = (Map) ((Map) executionResult.getData()).get("selection");
+        Assertions.assertEquals("child{fields},fields", selection.get("fields"));
+        Assertions.assertEquals("fields", ((Map) selection.get("child")).get("fields"));
+    }
+
+    @Test
+    public void testAliases() {
+        //В компонент передаются имена полей схемы, а не алиасы
+        GExecutionResult executionResult = grapqhlExecutor("{selection{a: fields b: child{fields} c: child{__typename}}}");
+        Assertions.assertTrue(executionResult.getErrors().isEmpty());
+
+        Map selection = (Map) ((Map) executionResult.getData()).get("selection");
+        Assertions.assertEquals("child{fields},fields", selection.get("a"));
+    }
+
+    @Test
+    public void testFragments() {
+        //Одно поле из нескольких фрагментов - вложенные поля объединяются
+        GExecutionResult executionResult = grapqhlExecutor(
+                "{selection{...f1 ...on selection{child{child{fields}}}}} fragment f1 on selection {fields child{fields}}"
+        );
+        Assertions.assertTrue(executionResult.getErrors().isEmpty());
+
+        Map selection = (Map) ((Map) executionResult.getData()).get("selection");
+        Assertions.assertEquals("child{child{fields},fields},fields", selection.get("fields"));
+    }
+
+    @Test
+    public void testCacheKey() {
+        //Кеш поля не учитывает аргументы, но результат зависит от запрошенных полей
+        int calls = GQuery.cachedSelectionCalls.get();
+
+        GExecutionResult executionResult1 = grapqhlExecutor("{cached_selection{fields}}");
+        Assertions.assertTrue(executionResult1.getErrors().isEmpty());
+        Assertions.assertEquals("fields", ((Map) ((Map) executionResult1.getData()).get("cached_selection")).get("fields"));
+
+        GExecutionResult executionResult2 = grapqhlExecutor("{cached_selection{fields child{fields}}}");
+        Assertions.assertTrue(executionResult2.getErrors().isEmpty());
+        Assertions.assertEquals("child{fields},fields", ((Map) ((Map) executionResult2.getData()).get("cached_selection")).get("fields"));
+        Assertions.assertEquals(calls + 2, GQuery.cachedSelectionCalls.get());
+
+        //Тот же набор полей - значение из кеша
+        GExecutionResult executionResult3 = grapqhlExecutor("{cached_selection{fields}}");
+        Assertions.assertTrue(executionResult3.getErrors().isEmpty());
+        Assertions.assertEquals("fields", ((Map) ((Map) executionResult3.getData()).get("cached_selection")).get("fields"));
+        Assertions.assertEquals(calls + 2, GQuery.cachedSelectionCalls.get());
+    }
+}
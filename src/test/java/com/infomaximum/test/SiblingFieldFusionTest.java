@@ -0,0 +1,55 @@
+package com.infomaximum.test;
+
+import com.infomaximum.BaseTest;
+import com.infomaximum.cluster.exception.ClusterException;
+import com.infomaximum.cluster.graphql.executor.struct.GExecutionResult;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import java.util.Map;
+
+public class SiblingFieldFusionTest extends BaseTest {
+
+    @BeforeAll
+    public static void init() throws ClusterException {
+        //Объединение работает только для удаленных вызовов
+        initServer(builder -> builder
+                .withForceRemoteExecution(true)
+                .withSiblingFieldFusion(true)
+        );
+    }
+
+    @Test
+    public void fused() {
+        GExecutionResult executionResult = grapqhlExecutor("{level2{value(k:5) value_double(k:5.2) alias: value(k:1)}}");
+        Assertions.assertTrue(executionResult.getErrors().isEmpty());
+
+        Map level2 = (Map) ((Map) executionResult.getData()).get("level2");
+        Assertions.assertEquals(6, level2.get("value"));
+        Assertions.assertEquals(6.2d, level2.get("value_double"));
+        Assertions.assertEquals(2, level2.get("alias"));
+    }
+
+    @Test
+    public void fieldWithDirectiveExecutedSeparately() {
+        //Поле с директивой не входит в группу и вычисляется отдельно
+        GExecutionResult executionResult = grapqhlExecutor("{level2{value(k:5) value_double(k:5.2) @include(if: true)}}");
+        Assertions.assertTrue(executionResult.getErrors().isEmpty());
+
+        Map level2 = (Map) ((Map) executionResult.getData()).get("level2");
+        Assertions.assertEquals(6, level2.get("value"));
+        Assertions.assertEquals(6.2d, level2.get("value_double"));
+    }
+
+    @Test
+    public void rootFields() {
+        //У полей корневого объекта нет родительского поля - вычисляются по одному
+        GExecutionResult executionResult = grapqhlExecutor("{value value1(k:1)}");
+        Assertions.assertTrue(executionResult.getErrors().isEmpty());
+
+        Map data = executionResult.getData();
+        Assertions.assertEquals(0, data.get("value"));
+        Assertions.assertEquals(2, data.get("value1"));
+    }
+}